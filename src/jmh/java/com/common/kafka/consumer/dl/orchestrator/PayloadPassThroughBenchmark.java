@@ -0,0 +1,73 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재발행 경로의 payload 처리 비용 비교 (./gradlew jmh, gc profiler 의 gc.alloc.rate.norm 으로 메시지당 할당량 확인)
+ * <ul>
+ *     <li>jsonRoundTrip: String 역직렬화 → Object 트리 파싱 → JsonSerializer 재직렬화 (기존 경로)</li>
+ *     <li>passThrough: 원본 bytes 를 ByteArraySerializer 로 그대로 전송 (현재 경로)</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PayloadPassThroughBenchmark {
+
+    @Param({"512", "16384", "262144"})
+    private int payloadSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringDeserializer stringDeserializer = new StringDeserializer();
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>(objectMapper);
+    private final ByteArraySerializer byteArraySerializer = new ByteArraySerializer();
+
+    private byte[] recordValue;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        Map<String, Object> item = new HashMap<>();
+        item.put("sku", "SKU-0001");
+        item.put("price", 12345.678901234);
+        item.put("quantity", 3);
+
+        int items = Math.max(1, payloadSize / 64);
+        Object[] lines = new Object[items];
+        for (int i = 0; i < items; i++) {
+            lines[i] = item;
+        }
+        body.put("orderId", 123456789L);
+        body.put("lines", lines);
+
+        recordValue = objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] jsonRoundTrip() throws Exception {
+        String value = stringDeserializer.deserialize("common-retry-topic", recordValue);
+        Object tree = objectMapper.readValue(value, Object.class);
+        return jsonSerializer.serialize("order-events", tree);
+    }
+
+    @Benchmark
+    public byte[] passThrough() {
+        return byteArraySerializer.serialize("order-events", recordValue);
+    }
+}
@@ -0,0 +1,83 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.consumer.dl.queue.codec.BinaryRetryMessageCodec;
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 대기열 항목 하나를 재발행용 ProducerRecord 로 만드는 비용 비교 (./gradlew jmh, gc profiler 의 gc.alloc.rate.norm 으로 메시지당 할당량 확인)
+ * <ul>
+ *     <li>viaRetryMessage: RetryMessage 복원 → header Map 을 String 으로 변환 → stream 으로 header 목록 재구성 (기존 경로)</li>
+ *     <li>direct: 저장된 bytes 에서 RetryRecord 로 바로 복원 → ProducerRecord (현재 경로)</li>
+ * </ul>
+ * direct 경로의 목표 할당량은 메시지당 payload 크기 + 2KB 이하.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RetryResendBenchmark {
+
+    @Param({"512", "16384"})
+    private int payloadSize;
+
+    private final BinaryRetryMessageCodec codec = new BinaryRetryMessageCodec(new ObjectMapper(), false, 0);
+
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] payload = new byte[payloadSize];
+        Arrays.fill(payload, (byte) 'a');
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("x-original-topic", "order-events");
+        headers.put("x-retry-count", "2");
+        headers.put("x-retry-delay", "4000");
+        headers.put("x-exception-fqcn", "java.lang.IllegalStateException");
+        headers.put("x-forwarded-at", "1700000000000");
+
+        encoded = codec.encode(RetryMessage.builder()
+                .key("User:123")
+                .payload(payload)
+                .originalTopic("order-events")
+                .headers(headers)
+                .retryCount(2)
+                .build());
+    }
+
+    @Benchmark
+    public ProducerRecord<String, byte[]> viaRetryMessage() {
+        RetryMessage dto = codec.decode(encoded);
+        List<Header> headers = dto.getHeaders().entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(RetryOrchestrator.RETRY_COUNT_HEADER))
+                .map(entry -> new RecordHeader(entry.getKey(), entry.getValue().getBytes(StandardCharsets.UTF_8)))
+                .collect(Collectors.toList());
+        headers.add(new RecordHeader(RetryOrchestrator.RETRY_COUNT_HEADER, String.valueOf(dto.getRetryCount() + 1).getBytes(StandardCharsets.UTF_8)));
+        return new ProducerRecord<>(dto.getOriginalTopic(), null, dto.getKey(), dto.getPayload(), headers);
+    }
+
+    @Benchmark
+    public ProducerRecord<String, byte[]> direct() {
+        return RetryOrchestrator.toProducerRecord(codec.decodeRecord(encoded));
+    }
+}
@@ -0,0 +1,115 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 레코드 처리량 비교 (./gradlew jmh). Redis / Kafka 는 호출마다 고정 지연으로 대체 (로컬 stand-in)
+ * <ul>
+ *     <li>platformThreads: retry.worker.concurrency 개의 consumer thread 가 각자 파티션의 레코드를 순서대로 처리 (기존 동작)</li>
+ *     <li>virtualThreads: KeyedExecutor 로 key 단위 순서만 유지하고 virtual thread 에서 동시에 처리, Redis 호출 수는 semaphore 로 제한</li>
+ * </ul>
+ * 한 레코드는 Redis 적재 1회 (redisLatencyMicros) 와 Kafka 전송 확인 1회 (kafkaLatencyMicros) 를 기다림.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VirtualThreadThroughputBenchmark {
+    private static final int RECORDS = 2000;
+    private static final int KEYS = 500;
+    private static final int CONCURRENCY = 3;
+
+    @Param({"500"})
+    private long redisLatencyMicros;
+
+    @Param({"2000"})
+    private long kafkaLatencyMicros;
+
+    @Param({"256"})
+    private int redisPermits;
+
+    private ExecutorService consumers;
+    private KeyedExecutor keyedExecutor;
+    private Semaphore redisSemaphore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        consumers = Executors.newFixedThreadPool(CONCURRENCY);
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("jmh", Map.of("spring.threads.virtual.enabled", "true")));
+        keyedExecutor = new KeyedExecutor(environment);
+        redisSemaphore = new Semaphore(redisPermits);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        consumers.shutdown();
+        keyedExecutor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void platformThreads() {
+        List<CompletableFuture<Void>> partitions = new ArrayList<>(CONCURRENCY);
+        for (int partition = 0; partition < CONCURRENCY; partition++) {
+            int assigned = partition;
+            partitions.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < RECORDS; i++) {
+                    if (i % KEYS % CONCURRENCY == assigned) {
+                        redis();
+                        kafka();
+                    }
+                }
+            }, consumers));
+        }
+        CompletableFuture.allOf(partitions.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void virtualThreads() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            futures.add(keyedExecutor.submit("User:" + (i % KEYS), () -> {
+                redisSemaphore.acquireUninterruptibly();
+                try {
+                    redis();
+                } finally {
+                    redisSemaphore.release();
+                }
+                kafka();
+                return CompletableFuture.completedFuture(null);
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private void redis() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(redisLatencyMicros));
+    }
+
+    private void kafka() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(kafkaLatencyMicros));
+    }
+}
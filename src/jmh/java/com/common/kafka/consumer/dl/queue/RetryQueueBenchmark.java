@@ -0,0 +1,134 @@
+package com.common.kafka.consumer.dl.queue;
+
+import com.common.kafka.consumer.dl.configuration.RedisConfiguration;
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enqueue / drain / ack throughput of the Redis ZSET queue against the in-process timing wheel.
+ * The Redis engine needs a local server (-Dredis.host / -Dredis.port, default localhost:6379).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RetryQueueBenchmark {
+    private static final int BATCH = 100;
+    private static final int PARTITIONS = 16;
+
+    @Param({"REDIS", "TIMING_WHEEL"})
+    private RetryWorkerProperties.Engine engine;
+
+    private RetryQueue retryQueue;
+    private LettuceConnectionFactory connectionFactory;
+    private Map<String, String> headers;
+    private byte[] payload;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        RetryWorkerProperties properties = new RetryWorkerProperties();
+        properties.getQueue().setShardCount(PARTITIONS);
+        properties.getQueue().setCodec(RetryWorkerProperties.Codec.BINARY);
+        properties.getQueue().setDrainLegacy(false);
+        properties.getQueue().getWheel().setDataDir(Files.createTempDirectory("retry-wheel-bench").toString());
+
+        if (engine == RetryWorkerProperties.Engine.REDIS) {
+            connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                    System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379)));
+            connectionFactory.afterPropertiesSet();
+            retryQueue = new RedisRetryQueue(new RedisConfiguration().redisTemplate(connectionFactory, properties),
+                    properties, new RetryMetrics(new SimpleMeterRegistry(), properties));
+        } else {
+            // hand-off 는 측정 대상이 아니므로 producer 없이 파티션만 할당
+            TimingWheelRetryQueue wheelQueue = new TimingWheelRetryQueue(null, new ObjectMapper(), properties);
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                partitions.add(new TopicPartition("common-retry-topic", partition));
+            }
+            wheelQueue.onPartitionsAssigned(partitions);
+            retryQueue = wheelQueue;
+        }
+        retryQueue.deleteAll();
+
+        headers = new HashMap<>();
+        headers.put("x-original-topic", "order-events");
+        headers.put("x-retry-count", "1");
+        payload = "{\"orderId\":123456789,\"userId\":\"User:123\",\"description\":\"order item description\"}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        retryQueue.deleteAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    // 멀리 있는 due 시각으로 적재만 반복 (대기열이 계속 커지는 상황)
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void enqueueDelayed() {
+        retryQueue.addAll(nextBatch(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+    }
+
+    // 이미 due 인 항목을 적재하고 drain / ack 까지 한 번에 처리 (정상 상태의 한 사이클)
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int enqueueDrainAck() {
+        long now = System.currentTimeMillis();
+        retryQueue.addAll(nextBatch(now));
+
+        int drained = 0;
+        for (String queueKey : retryQueue.getDrainKeys()) {
+            List<RetryQueueEntry> entries = retryQueue.drain(queueKey, now, BATCH, now + 60000);
+            if (entries.isEmpty()) {
+                continue;
+            }
+
+            retryQueue.ack(queueKey, entries);
+            drained += entries.size();
+        }
+        return drained;
+    }
+
+    private List<ScoredRetryMessage> nextBatch(long score) {
+        List<ScoredRetryMessage> messages = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            int id = cursor++ % 100000;
+            messages.add(new ScoredRetryMessage(RetryMessage.builder()
+                    .key("User:" + id).payload(payload).originalTopic("order-events").headers(headers).retryCount(1)
+                    .sourcePartition(id % PARTITIONS).build(), score));
+        }
+        return messages;
+    }
+}
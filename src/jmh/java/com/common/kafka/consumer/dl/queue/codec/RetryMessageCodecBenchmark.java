@@ -0,0 +1,107 @@
+package com.common.kafka.consumer.dl.queue.codec;
+
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RetryMessageCodecBenchmark {
+
+    @Param({"256", "4096"})
+    private int payloadSize;
+
+    private JsonRetryMessageCodec jsonCodec;
+    private BinaryRetryMessageCodec binaryCodec;
+    private BinaryRetryMessageCodec lz4Codec;
+
+    private RetryMessage jsonMessage;
+    private RetryMessage message;
+    private byte[] jsonEncoded;
+    private byte[] binaryEncoded;
+    private byte[] lz4Encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper typedObjectMapper = new ObjectMapper();
+        typedObjectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY);
+        jsonCodec = new JsonRetryMessageCodec(typedObjectMapper);
+        binaryCodec = new BinaryRetryMessageCodec(new ObjectMapper(), false, 0);
+        lz4Codec = new BinaryRetryMessageCodec(new ObjectMapper(), true, 0);
+
+        Map<String, Object> body = new HashMap<>();
+        StringBuilder description = new StringBuilder();
+        while (description.length() < payloadSize) {
+            description.append("order item description ");
+        }
+        body.put("orderId", 123456789L);
+        body.put("userId", "User:123");
+        body.put("description", description.toString());
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("x-original-topic", "order-events");
+        headers.put("x-forwarded-at", String.valueOf(System.currentTimeMillis()));
+        headers.put("x-exception-message", "java.lang.IllegalStateException: downstream unavailable");
+        headers.put("x-retry-count", "1");
+
+        // JSON codec 은 기존처럼 파싱된 트리를, binary codec 은 원문 그대로를 적재하는 상황을 비교
+        String payload = new ObjectMapper().writeValueAsString(body);
+        jsonMessage = RetryMessage.builder()
+                .key("User:123").value(body).originalTopic("order-events").headers(headers).retryCount(1).build();
+        message = RetryMessage.builder()
+                .key("User:123").value(payload).originalTopic("order-events").headers(headers).retryCount(1).build();
+
+        jsonEncoded = jsonCodec.encode(jsonMessage);
+        binaryEncoded = binaryCodec.encode(message);
+        lz4Encoded = lz4Codec.encode(message);
+
+        System.out.printf("%nencoded size | payload: %d, json: %d, binary: %d, binary+lz4: %d%n",
+                payload.length(), jsonEncoded.length, binaryEncoded.length, lz4Encoded.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonCodec.encode(jsonMessage);
+    }
+
+    @Benchmark
+    public RetryMessage jsonDecode() {
+        return jsonCodec.decode(jsonEncoded);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binaryCodec.encode(message);
+    }
+
+    @Benchmark
+    public RetryMessage binaryDecode() {
+        return binaryCodec.decode(binaryEncoded);
+    }
+
+    @Benchmark
+    public byte[] lz4Encode() {
+        return lz4Codec.encode(message);
+    }
+
+    @Benchmark
+    public RetryMessage lz4Decode() {
+        return lz4Codec.decode(lz4Encoded);
+    }
+}
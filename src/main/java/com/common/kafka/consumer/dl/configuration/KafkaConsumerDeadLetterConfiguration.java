@@ -1,13 +1,29 @@
 package com.common.kafka.consumer.dl.configuration;
 
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.orchestrator.GenericRetryListener;
+import com.common.kafka.consumer.dl.queue.RetryQueue;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
 import org.springframework.kafka.listener.ContainerProperties;
 
+import java.util.Collection;
+import java.util.Properties;
+
 @Configuration
 public class KafkaConsumerDeadLetterConfiguration {
 
@@ -15,16 +31,97 @@ public class KafkaConsumerDeadLetterConfiguration {
     private boolean autoStartup;
 
     @Bean("retryKafkaListenerContainerFactory")
-    public ConcurrentKafkaListenerContainerFactory<String, String> retryKafkaListenerContainerFactory(
-            @Qualifier("commonStringConsumerFactory") ConsumerFactory<String, String> consumerFactory) {
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> retryKafkaListenerContainerFactory(
+            @Qualifier("commonStringConsumerFactory") ConsumerFactory<String, String> consumerFactory,
+            RetryWorkerProperties properties,
+            RetryQueue retryQueue,
+            ObjectProvider<GenericRetryListener> retryListener) {
 
-        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
 
-        factory.setConsumerFactory(consumerFactory);
+        // 공통 consumer 설정은 그대로 사용하고 value 만 원본 bytes 로 수신
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(consumerFactory.getConfigurationProperties(),
+                new StringDeserializer(), new ByteArrayDeserializer()));
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
         factory.setAutoStartup(autoStartup);
 
+        if (retryQueue instanceof ConsumerRebalanceListener rebalanceListener) {
+            // timing-wheel 엔진은 할당받은 파티션의 shard 만 열고, 회수되면 남은 항목을 새 소유자에게 넘김
+            factory.getContainerProperties().setConsumerRebalanceListener(rebalanceListener);
+        }
+
+        if (properties.isBatchListener()) {
+            // poll 단위로 한 번에 처리하고 배치당 한 번만 커밋
+            Properties consumerProperties = new Properties();
+            consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.getBatchMaxPollRecords());
+
+            factory.setBatchListener(true);
+            factory.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+        } else if (properties.getParallel().isEnabled()) {
+            // parallel 모드는 listener 가 연속으로 처리가 끝난 위치까지 직접 커밋. 레코드가 없을 때도 idle event 로 커밋 / 파티션 재개
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setIdleEventInterval(properties.getParallel().getCommitIntervalMs());
+            factory.getContainerProperties().setConsumerRebalanceListener(chain(retryListener.getObject(),
+                    retryQueue instanceof ConsumerRebalanceListener rebalanceListener ? rebalanceListener : null));
+        } else {
+            // dead letter insert 완료 후 flush thread 에서 ack 하므로 순서가 뒤바뀐 ack 를 허용하고, 앞선 offset 이 ack 될 때까지 커밋을 미룸
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setAsyncAcks(true);
+        }
+
         return factory;
     }
-}
\ No newline at end of file
+
+    @Bean("retryTierKafkaListenerContainerFactory")
+    @ConditionalOnProperty(prefix = "retry.worker.tier", name = "enabled", havingValue = "true")
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> retryTierKafkaListenerContainerFactory(
+            @Qualifier("commonStringConsumerFactory") ConsumerFactory<String, String> consumerFactory,
+            RetryWorkerProperties properties) {
+
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(consumerFactory.getConfigurationProperties(),
+                new StringDeserializer(), new ByteArrayDeserializer()));
+        // 파티션마다 재발행이 끝난 위치까지만 listener 에서 직접 커밋 (멈춘 파티션의 뒤쪽 레코드는 커밋하지 않음)
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setBatchListener(true);
+        factory.setAutoStartup(autoStartup);
+
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.getTier().getMaxPollRecords());
+        factory.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+
+        return factory;
+    }
+
+    // parallel listener 가 회수되는 파티션을 먼저 커밋한 뒤 대기열 엔진의 rebalance listener 를 호출
+    private static ConsumerAwareRebalanceListener chain(ConsumerAwareRebalanceListener first, ConsumerRebalanceListener next) {
+        return new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                first.onPartitionsRevokedBeforeCommit(consumer, partitions);
+                if (next != null) {
+                    next.onPartitionsRevoked(partitions);
+                }
+            }
+
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                first.onPartitionsLost(consumer, partitions);
+                if (next != null) {
+                    next.onPartitionsLost(partitions);
+                }
+            }
+
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                first.onPartitionsAssigned(consumer, partitions);
+                if (next != null) {
+                    next.onPartitionsAssigned(partitions);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.common.kafka.consumer.dl.configuration;
+
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+@Configuration
+public class KafkaProducerDeadLetterConfiguration {
+
+    @Bean("retryKafkaTemplate")
+    public KafkaTemplate<String, byte[]> retryKafkaTemplate(
+            @Qualifier("commonKafkaTemplate") KafkaTemplate<String, Object> commonKafkaTemplate) {
+
+        // 공통 producer 설정(acks, idempotence, lz4 등)은 그대로 두고 value 는 원본 bytes 그대로 전송
+        DefaultKafkaProducerFactory<String, byte[]> producerFactory = new DefaultKafkaProducerFactory<>(
+                commonKafkaTemplate.getProducerFactory().getConfigurationProperties(),
+                new StringSerializer(), new ByteArraySerializer());
+
+        return new KafkaTemplate<>(producerFactory);
+    }
+}
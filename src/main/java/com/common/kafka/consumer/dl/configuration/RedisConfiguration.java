@@ -1,5 +1,10 @@
 package com.common.kafka.consumer.dl.configuration;
 
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.queue.codec.BinaryRetryMessageCodec;
+import com.common.kafka.consumer.dl.queue.codec.JsonRetryMessageCodec;
+import com.common.kafka.consumer.dl.queue.codec.RetryMessageCodec;
+import com.common.kafka.consumer.dl.queue.codec.RetryMessageRedisSerializer;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
@@ -7,14 +12,13 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 public class RedisConfiguration {
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory, RetryWorkerProperties properties) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
@@ -24,7 +28,13 @@ public class RedisConfiguration {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL,
                 JsonTypeInfo.As.PROPERTY);
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        JsonRetryMessageCodec jsonCodec = new JsonRetryMessageCodec(objectMapper);
+
+        RetryWorkerProperties.Queue queue = properties.getQueue();
+        BinaryRetryMessageCodec binaryCodec = new BinaryRetryMessageCodec(new ObjectMapper(),
+                queue.getCompression() == RetryWorkerProperties.Compression.LZ4, queue.getCompressionThresholdBytes());
+        RetryMessageCodec codec = queue.getCodec() == RetryWorkerProperties.Codec.BINARY ? binaryCodec : jsonCodec;
+        RetryMessageRedisSerializer serializer = new RetryMessageRedisSerializer(codec, binaryCodec, jsonCodec);
 
         template.setValueSerializer(serializer);
         template.setHashValueSerializer(serializer);
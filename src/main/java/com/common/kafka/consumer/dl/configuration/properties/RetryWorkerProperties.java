@@ -1,13 +1,280 @@
 package com.common.kafka.consumer.dl.configuration.properties;
 
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterStatus;
+import com.common.kafka.consumer.dl.domain.PayloadCodec;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "retry.worker")
 public class RetryWorkerProperties {
     private long delayMs = 10000;
     private int maxRetryCount = 3;
+    private boolean batchListener = false;
+    private int batchMaxPollRecords = 500;
+    private long batchNackSleepMs = 1000;
+    private long processRetryBackoffMs = 1000;
+    private long maxProcessRetryBackoffMs = 30000;
+    private final Scheduler scheduler = new Scheduler();
+    private final Queue queue = new Queue();
+    private final Resend resend = new Resend();
+    private final Admin admin = new Admin();
+    private final Metrics metrics = new Metrics();
+    private final Policy policy = new Policy();
+    private final Tier tier = new Tier();
+    private final DeadLetter deadLetter = new DeadLetter();
+    private final Retention retention = new Retention();
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+    private final Parallel parallel = new Parallel();
+    private final Throttle throttle = new Throttle();
+
+    @Data
+    public static class Scheduler {
+        private int batchSize = 50;
+        private long minIdleMs = 10;
+        private long maxIdleMs = 1000;
+        private long maxDrainMs = 5000;
+        private long errorBackoffMs = 1000;
+        private long maxErrorBackoffMs = 30000;
+        private int maxInFlight = 1000;
+        private long leaseMs = 150000;
+        private long nackDelayMs = 1000;
+        private final Ownership ownership = new Ownership();
+        private final Fairness fairness = new Fairness();
+    }
+
+    @Data
+    public static class Ownership {
+        private boolean enabled = true;
+        private String instanceId;
+        private long heartbeatMs = 3000;
+        private long ttlMs = 10000;
+    }
+
+    @Data
+    public static class Fairness {
+        private boolean enabled = false;
+        // 한 라운드에 토픽이 받는 drain 수 = quantum * weight * priority 별 weight
+        private int quantum = 10;
+        // 한 번의 drain 에서 고려하는 due 토픽 수 (가장 이른 항목 순)
+        private int maxTopicsPerDrain = 1000;
+        private Map<Priority, Integer> priorityWeights = new EnumMap<>(Map.of(Priority.HIGH, 4, Priority.NORMAL, 2, Priority.LOW, 1));
+        private Map<String, TopicShare> topics = new HashMap<>();
+    }
+
+    @Data
+    public static class TopicShare {
+        private int weight = 1;
+        // 라운드 안에서 높은 priority 토픽부터 drain
+        private Priority priority = Priority.NORMAL;
+    }
+
+    @Data
+    public static class Queue {
+        private Engine engine = Engine.REDIS;
+        private int shardCount = 16;
+        private ShardBy shardBy = ShardBy.KEY;
+        private boolean drainLegacy = true;
+        private Codec codec = Codec.BINARY;
+        private Compression compression = Compression.NONE;
+        private int compressionThresholdBytes = 512;
+        private int indexDeleteBatchSize = 500;
+        // 같은 (원본 토픽, key) 의 재시도가 대기 중이면 새로 적재하지 않고 최신 메시지로 교체하는 토픽 (compacted / 상태 토픽)
+        private Set<String> coalesceTopics = new HashSet<>();
+        private final Wheel wheel = new Wheel();
+    }
+
+    @Data
+    public static class Wheel {
+        private String dataDir;
+        private long tickMs = 10;
+        private int wheelSize = 512;
+        private long segmentBytes = 64 * 1024 * 1024;
+        private int maxSegments = 16;
+        private boolean fsync = true;
+        private int maxEntries = 1_000_000;
+        private long orphanGraceMs = 60000;
+        private long handOffTimeoutMs = 10000;
+    }
+
+    @Data
+    public static class Resend {
+        private int pageSize = 500;
+        private int maxInFlight = 1000;
+        private int maxRunningJobs = 4;
+        private long jobRetentionMs = 86_400_000;
+    }
+
+    @Data
+    public static class Admin {
+        private long countLimit = 10000;
+        private int payloadPreviewLength = 200;
+        private int retryQueueLookupLimit = 100;
+    }
+
+    @Data
+    public static class Metrics {
+        private List<String> topics = new ArrayList<>();
+        private int maxTopicTags = 50;
+    }
+
+    @Data
+    public static class Policy {
+        private String exceptionHeader = "x-exception-type";
+        private PolicySpec defaults = new PolicySpec();
+        private Map<String, PolicySpec> topics = new HashMap<>();
+    }
+
+    @Data
+    public static class Tier {
+        private boolean enabled = false;
+        private String topicPrefix = "common-retry-tier-";
+        // 단계 이름 (토픽 접미사) -> 지연
+        private Map<String, Long> delays = new HashMap<>();
+        private int concurrency = 3;
+        private int maxPollRecords = 500;
+    }
+
+    @Data
+    public static class DeadLetter {
+        private int bufferCapacity = 10000;
+        private int batchSize = 500;
+        private long flushIntervalMs = 100;
+        private long offerTimeoutMs = 60000;
+        private long retryBackoffMs = 1000;
+        private long maxRetryBackoffMs = 30000;
+        private long shutdownTimeoutMs = 10000;
+        private PayloadCodec compression = PayloadCodec.NONE;
+        private int compressionThresholdBytes = 512;
+        private int externalThresholdBytes = 64 * 1024;
+        private final Aggregation aggregation = new Aggregation();
+    }
+
+    @Data
+    public static class Retention {
+        private boolean enabled = false;
+        private long intervalMs = 600000;
+        private int chunkSize = 1000;
+        private long chunkPauseMs = 100;
+        private long maxRunMs = 300000;
+        // 상태별 보존 기간. 없는 상태는 영구 보관
+        private Map<KafkaDeadLetterStatus, Long> ttlMs = new HashMap<>();
+        // 토픽별 상태별 보존 기간 (상태별 기본값보다 우선)
+        private Map<String, Map<KafkaDeadLetterStatus, Long>> topics = new HashMap<>();
+        private final Partitioning partitioning = new Partitioning();
+    }
+
+    @Data
+    public static class Partitioning {
+        private boolean enabled = false;
+        private long intervalMs = 3600000;
+        private int precreateDays = 7;
+        // 일 단위 partition 을 상태와 무관하게 통째로 drop 하는 기준. 없으면 drop 하지 않음
+        private Long retentionMs;
+    }
+
+    @Data
+    public static class VirtualThreads {
+        // 동시에 Redis 를 호출하는 작업 수 상한 (virtual thread 모드에서는 thread 수가 상한이 되지 않으므로)
+        private int redisPermits = 256;
+    }
+
+    @Data
+    public static class Parallel {
+        private boolean enabled = false;
+        // 동시에 처리하는 레코드 수 (platform thread pool 크기, virtual thread 모드에서는 제한 없음)
+        private int maxConcurrency = 64;
+        // 파티션별 처리 중인 레코드가 이 수에 도달하면 파티션을 멈추고, 절반 아래로 줄면 재개
+        private int maxPendingPerPartition = 5000;
+        private long commitIntervalMs = 1000;
+    }
+
+    @Data
+    public static class Throttle {
+        private final RateLimit rateLimit = new RateLimit();
+        private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    }
+
+    @Data
+    public static class RateLimit {
+        // 원본 토픽별 초당 재발행 수 (0 이면 제한 없음)
+        private double permitsPerSecond = 0;
+        // 쌓아둘 수 있는 token 수 (permitsPerSecond 의 몇 초분)
+        private double burstSeconds = 1;
+        private Map<String, Double> topics = new HashMap<>();
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = false;
+        private long windowMs = 60000;
+        // window 안의 재발행이 이 수 이상일 때만 판단
+        private int minimumResends = 20;
+        // 재발행 대비 retry 토픽으로 되돌아온 비율이 이 값 이상이면 open
+        private double failureRatio = 0.8;
+        private long openMs = 60000;
+        // half-open 에서 보내보는 재발행 수와, 결과 (되돌아오는지) 를 기다리는 시간
+        private int halfOpenProbes = 5;
+        private long probeWindowMs = 30000;
+    }
+
+    @Data
+    public static class Aggregation {
+        private boolean enabled = false;
+        private int cacheSize = 10000;
+    }
+
+    @Data
+    public static class PolicySpec {
+        // 비어 있는 항목은 상위 (토픽 -> defaults -> delay-ms / max-retry-count) 값을 사용
+        private PolicyType type;
+        private Long delayMs;
+        private Long maxDelayMs;
+        private Double multiplier;
+        private Integer maxRetryCount;
+        private Map<String, PolicySpec> exceptions = new HashMap<>();
+    }
+
+    public enum PolicyType {
+        FIXED,
+        EXPONENTIAL,
+        EXPONENTIAL_FULL_JITTER,
+        DECORRELATED_JITTER,
+    }
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW,
+    }
+
+    public enum Engine {
+        REDIS,
+        TIMING_WHEEL,
+    }
+
+    public enum ShardBy {
+        KEY,
+        TOPIC,
+    }
+
+    public enum Codec {
+        JSON,
+        BINARY,
+    }
+
+    public enum Compression {
+        NONE,
+        LZ4,
+    }
 }
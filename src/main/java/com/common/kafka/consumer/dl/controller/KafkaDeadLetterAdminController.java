@@ -1,31 +1,113 @@
 package com.common.kafka.consumer.dl.controller;
 
+import com.common.kafka.consumer.dl.resource.CursorPageResource;
+import com.common.kafka.consumer.dl.resource.DeadLetterGroupResource;
 import com.common.kafka.consumer.dl.resource.KafkaDeadLetterResource;
 import com.common.kafka.consumer.dl.resource.MessageQuery;
+import com.common.kafka.consumer.dl.resource.ResendJobResource;
+import com.common.kafka.consumer.dl.resource.RetryPolicyResource;
+import com.common.kafka.consumer.dl.resource.RetryQueueItemResource;
+import com.common.kafka.consumer.dl.resource.TopicThrottleResource;
 import com.common.kafka.consumer.dl.service.KafkaDeadLetterAdminService;
+import com.common.kafka.consumer.dl.service.KafkaDeadLetterResendService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class KafkaDeadLetterAdminController {
     private final KafkaDeadLetterAdminService kafkaDeadLetterAdminService;
+    private final KafkaDeadLetterResendService kafkaDeadLetterResendService;
 
     @ApiLock
     @PostMapping("/messages/resend")
-    public void resendMessages(@RequestParam @LockParam Long startId, @RequestParam @LockParam Long endId) {
-        kafkaDeadLetterAdminService.resendMessagesFromStartIdAndEndId(startId, endId);
+    public ResendJobResource resendMessages(@RequestParam @LockParam Long startId, @RequestParam @LockParam Long endId) {
+        return kafkaDeadLetterResendService.start(startId, endId);
+    }
+
+    @ApiLock
+    @PostMapping("/messages/groups/{fingerprint}/resend")
+    public ResendJobResource resendGroup(@PathVariable @LockParam String fingerprint) {
+        return kafkaDeadLetterResendService.startGroup(fingerprint);
+    }
+
+    @GetMapping("/messages/resend/jobs")
+    public List<ResendJobResource> findResendJobs() {
+        return kafkaDeadLetterResendService.findJobs();
+    }
+
+    @GetMapping("/messages/resend/jobs/{jobId}")
+    public ResendJobResource findResendJob(@PathVariable String jobId) {
+        return kafkaDeadLetterResendService.findJob(jobId);
+    }
+
+    @PostMapping("/messages/resend/jobs/{jobId}/resume")
+    public ResendJobResource resumeResendJob(@PathVariable String jobId) {
+        return kafkaDeadLetterResendService.resume(jobId);
+    }
+
+    @DeleteMapping("/messages/resend/jobs/{jobId}")
+    public ResendJobResource cancelResendJob(@PathVariable String jobId) {
+        return kafkaDeadLetterResendService.cancel(jobId);
     }
 
     @GetMapping("/messages")
-    public Page<KafkaDeadLetterResource> findMessages(@ModelAttribute MessageQuery query) {
+    public CursorPageResource<KafkaDeadLetterResource> findMessages(@ModelAttribute MessageQuery query) {
         return kafkaDeadLetterAdminService.findMessages(query);
     }
 
+    @GetMapping("/messages/groups")
+    public List<DeadLetterGroupResource> findGroups(@RequestParam(required = false) String topic,
+                                                    @RequestParam(required = false, defaultValue = "30") int size) {
+        return kafkaDeadLetterAdminService.findGroups(topic, size);
+    }
+
+    @GetMapping("/messages/{id}/payload")
+    public ResponseEntity<StreamingResponseBody> findPayload(@PathVariable Long id) {
+        if (!kafkaDeadLetterAdminService.existsMessage(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(outputStream -> kafkaDeadLetterAdminService.writePayload(id, outputStream));
+    }
+
+    @GetMapping("/retry-queue")
+    public List<RetryQueueItemResource> findRetryQueue(@RequestParam(required = false) String key, @RequestParam(required = false) String topic) {
+        return kafkaDeadLetterAdminService.findRetryQueue(key, topic);
+    }
+
     @DeleteMapping("/retry-queue")
-    public void deleteRetryQueue(@RequestParam(required = false) String key, @RequestParam(required = false, defaultValue = "false") boolean all) {
-        kafkaDeadLetterAdminService.deleteRetryQueue(key, all);
+    public void deleteRetryQueue(@RequestParam(required = false) String key, @RequestParam(required = false) String topic,
+                                 @RequestParam(required = false, defaultValue = "false") boolean all) {
+        kafkaDeadLetterAdminService.deleteRetryQueue(key, topic, all);
+    }
+
+    @GetMapping("/retry-policies")
+    public List<RetryPolicyResource> findRetryPolicies() {
+        return kafkaDeadLetterAdminService.findRetryPolicies();
+    }
+
+    @PostMapping("/retry-policies/reload")
+    public List<RetryPolicyResource> reloadRetryPolicies() {
+        return kafkaDeadLetterAdminService.reloadRetryPolicies();
+    }
+
+    @GetMapping("/retry-throttles")
+    public List<TopicThrottleResource> findRetryThrottles() {
+        return kafkaDeadLetterAdminService.findThrottles();
+    }
+
+    @PostMapping("/retry-throttles/{topic}/close")
+    public TopicThrottleResource closeRetryCircuit(@PathVariable String topic) {
+        return kafkaDeadLetterAdminService.closeCircuit(topic);
     }
 }
@@ -12,8 +12,18 @@ import java.time.LocalDateTime;
 @DynamicUpdate
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "kafka_dead_letters")
+@Table(name = "kafka_dead_letters", indexes = {
+        @Index(name = "idx_kafka_dead_letters_topic_status_created_at", columnList = "topic, status, created_at, id"),
+        @Index(name = "idx_kafka_dead_letters_status_created_at", columnList = "status, created_at, id"),
+        @Index(name = "idx_kafka_dead_letters_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_kafka_dead_letters_fingerprint_id", columnList = "fingerprint, id")
+})
 public class KafkaDeadLetter {
+    public static final int EXCEPTION_MESSAGE_LENGTH = 1000;
+    public static final int PAYLOAD_PREVIEW_LENGTH = 200;
+    public static final int MESSAGE_KEY_LENGTH = 255;
+    public static final int EXCEPTION_TYPE_LENGTH = 200;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -21,16 +31,42 @@ public class KafkaDeadLetter {
     @Column
     private String topic;
 
-    @Column
+    @Column(length = MESSAGE_KEY_LENGTH)
     private String messageKey;
 
+    // 압축하지 않은 작은 payload (압축 도입 이전 행 포함)
     @Lob
     @Column
     private String payload;
 
+    @Column(length = 10)
+    @Enumerated(EnumType.STRING)
+    private PayloadCodec payloadCodec;
+
+    // payload_codec 으로 인코딩된 payload. payload_external 이면 kafka_dead_letter_payloads 에 저장되고 여기는 비어 있음
+    @Lob
+    @Column
+    private byte[] payloadData;
+
     @Column
+    private Boolean payloadExternal;
+
+    @Column
+    private Integer payloadSize;
+
+    @Column(length = PAYLOAD_PREVIEW_LENGTH)
+    private String payloadPreview;
+
+    @Column(length = EXCEPTION_MESSAGE_LENGTH)
     private String exceptionMessage;
 
+    @Column(length = EXCEPTION_TYPE_LENGTH)
+    private String exceptionType;
+
+    // 집계 모드에서만 채워짐 (kafka_dead_letter_groups.fingerprint)
+    @Column(length = 32)
+    private String fingerprint;
+
     @Setter
     @Column
     @Enumerated(EnumType.STRING)
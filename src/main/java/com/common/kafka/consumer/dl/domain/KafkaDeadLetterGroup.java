@@ -0,0 +1,44 @@
+package com.common.kafka.consumer.dl.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// fingerprint (topic + 실패 사유 + payload 구조) 별 dead letter 집계. 원본 행을 스캔하지 않고 실패 유형을 조회
+@Getter
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "kafka_dead_letter_groups", indexes = {
+        @Index(name = "idx_kafka_dead_letter_groups_last_seen_at", columnList = "last_seen_at"),
+        @Index(name = "idx_kafka_dead_letter_groups_topic_last_seen_at", columnList = "topic, last_seen_at")
+})
+public class KafkaDeadLetterGroup {
+    @Id
+    @Column(length = 32)
+    private String fingerprint;
+
+    @Column
+    private String topic;
+
+    @Column(length = 200)
+    private String exceptionType;
+
+    @Column(length = KafkaDeadLetter.EXCEPTION_MESSAGE_LENGTH)
+    private String exceptionMessage;
+
+    // 처음 수집된 메시지의 미리보기
+    @Column(length = KafkaDeadLetter.PAYLOAD_PREVIEW_LENGTH)
+    private String payloadPreview;
+
+    @Column
+    private Long failureCount;
+
+    @Column
+    private LocalDateTime firstSeenAt;
+
+    @Column
+    private LocalDateTime lastSeenAt;
+}
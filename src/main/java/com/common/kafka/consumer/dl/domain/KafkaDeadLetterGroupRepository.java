@@ -0,0 +1,14 @@
+package com.common.kafka.consumer.dl.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface KafkaDeadLetterGroupRepository extends JpaRepository<KafkaDeadLetterGroup, String> {
+    List<KafkaDeadLetterGroup> findAllByOrderByLastSeenAtDesc(Pageable pageable);
+
+    List<KafkaDeadLetterGroup> findByTopicOrderByLastSeenAtDesc(String topic, Pageable pageable);
+}
@@ -0,0 +1,234 @@
+package com.common.kafka.consumer.dl.domain;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class KafkaDeadLetterJdbcRepository {
+    private static final String UPDATE_STATUS_SQL = "UPDATE kafka_dead_letters SET status = ?, updated_at = ? WHERE id = ?";
+    // 외부 테이블에 있으면 그쪽 bytes 를 우선 사용
+    private static final String SELECT_PAYLOAD_SQL = "SELECT d.payload, d.payload_codec, d.payload_size, COALESCE(p.payload, d.payload_data) " +
+            "FROM kafka_dead_letters d LEFT JOIN kafka_dead_letter_payloads p ON p.dead_letter_id = d.id WHERE d.id = ?";
+    private static final String SELECT_EXTERNAL_PAYLOADS_SQL = "SELECT dead_letter_id, payload FROM kafka_dead_letter_payloads WHERE dead_letter_id IN (%s)";
+    private static final String INSERT_SQL = "INSERT INTO kafka_dead_letters " +
+            "(topic, message_key, payload, payload_codec, payload_data, payload_external, payload_size, payload_preview, exception_message, exception_type, fingerprint, status, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_EXTERNAL_PAYLOAD_SQL = "INSERT INTO kafka_dead_letter_payloads (dead_letter_id, payload) VALUES (?, ?)";
+    private static final String UPDATE_GROUP_SQL = "UPDATE kafka_dead_letter_groups SET failure_count = failure_count + ?, last_seen_at = ? WHERE fingerprint = ?";
+    private static final String SELECT_EXPIRED_SQL = "SELECT id, created_at FROM kafka_dead_letters WHERE status = ? AND created_at < ?";
+    private static final String DELETE_PAYLOADS_SQL = "DELETE FROM kafka_dead_letter_payloads WHERE dead_letter_id IN (%s)";
+    private static final String DELETE_SQL = "DELETE FROM kafka_dead_letters WHERE id IN (%s)";
+    private static final String INSERT_GROUP_SQL = "INSERT INTO kafka_dead_letter_groups " +
+            "(fingerprint, topic, exception_type, exception_message, payload_preview, failure_count, first_seen_at, last_seen_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void updateStatus(List<Long> ids, KafkaDeadLetterStatus status, int batchSize) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, ids, batchSize, (ps, id) -> {
+            ps.setString(1, status.name());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, id);
+        });
+    }
+
+    // IDENTITY id 는 Hibernate insert batching 을 막으므로 JDBC batch 로 직접 적재 (MySQL 은 rewriteBatchedStatements 로 multi-row insert)
+    // 외부 payload 가 있으면 생성된 id 를 받아 같은 transaction 에서 kafka_dead_letter_payloads 에 적재
+    @Transactional
+    public void insertAll(List<KafkaDeadLetter> deadLetters, int batchSize) {
+        if (deadLetters.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (deadLetters.stream().noneMatch(deadLetter -> Boolean.TRUE.equals(deadLetter.getPayloadExternal()))) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, deadLetters, batchSize, (ps, deadLetter) -> setInsertParameters(ps, deadLetter, now));
+            return;
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                setInsertParameters(ps, deadLetters.get(i), now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deadLetters.size();
+            }
+        }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Object[]> payloads = new ArrayList<>();
+        for (int i = 0; i < deadLetters.size(); i++) {
+            KafkaDeadLetter deadLetter = deadLetters.get(i);
+            if (Boolean.TRUE.equals(deadLetter.getPayloadExternal())) {
+                Number id = (Number) keys.get(i).values().iterator().next();
+                payloads.add(new Object[]{id.longValue(), deadLetter.getPayloadData()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_EXTERNAL_PAYLOAD_SQL, payloads);
+    }
+
+    // 반환값은 group 별 update 건수 (0 이면 아직 없는 group)
+    public int[] incrementGroups(List<KafkaDeadLetterGroup> groups) {
+        if (groups.isEmpty()) {
+            return new int[0];
+        }
+
+        return jdbcTemplate.batchUpdate(UPDATE_GROUP_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                KafkaDeadLetterGroup group = groups.get(i);
+                ps.setLong(1, group.getFailureCount());
+                ps.setTimestamp(2, Timestamp.valueOf(group.getLastSeenAt()));
+                ps.setString(3, group.getFingerprint());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return groups.size();
+            }
+        });
+    }
+
+    public void insertGroup(KafkaDeadLetterGroup group) {
+        jdbcTemplate.update(INSERT_GROUP_SQL, group.getFingerprint(), group.getTopic(), group.getExceptionType(), group.getExceptionMessage(),
+                group.getPayloadPreview(), group.getFailureCount(), Timestamp.valueOf(group.getFirstSeenAt()), Timestamp.valueOf(group.getLastSeenAt()));
+    }
+
+    // 보존 기간이 지난 행을 (created_at, id) 순서로 limit 건 조회. after 를 넘기면 그 다음부터 (keyset)
+    // topic 이 있으면 해당 토픽만, excludedTopics 가 있으면 그 토픽 제외 (토픽별 보존 기간은 별도로 처리)
+    public List<ExpiredRow> findExpired(KafkaDeadLetterStatus status, String topic, Collection<String> excludedTopics,
+                                        LocalDateTime cutoff, ExpiredRow after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_EXPIRED_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(status.name());
+        args.add(Timestamp.valueOf(cutoff));
+        if (topic != null) {
+            sql.append(" AND topic = ?");
+            args.add(topic);
+        }
+        if (!excludedTopics.isEmpty()) {
+            sql.append(" AND topic NOT IN (").append(String.join(",", Collections.nCopies(excludedTopics.size(), "?"))).append(")");
+            args.addAll(excludedTopics);
+        }
+        if (after != null) {
+            sql.append(" AND (created_at > ? OR (created_at = ? AND id > ?))");
+            args.add(Timestamp.valueOf(after.createdAt()));
+            args.add(Timestamp.valueOf(after.createdAt()));
+            args.add(after.id());
+        }
+        sql.append(" ORDER BY created_at, id LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new ExpiredRow(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()), args.toArray());
+    }
+
+    @Transactional
+    public int deleteAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.update(String.format(DELETE_PAYLOADS_SQL, placeholders), ids.toArray());
+        return jdbcTemplate.update(String.format(DELETE_SQL, placeholders), ids.toArray());
+    }
+
+    public Map<Long, byte[]> findExternalPayloads(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Long, byte[]> payloads = new HashMap<>();
+        String sql = String.format(SELECT_EXTERNAL_PAYLOADS_SQL, String.join(",", Collections.nCopies(ids.size(), "?")));
+        jdbcTemplate.query(sql, rs -> {
+            payloads.put(rs.getLong(1), rs.getBytes(2));
+        }, ids.toArray());
+        return payloads;
+    }
+
+    public boolean streamPayload(Long id, Writer writer) {
+        Boolean found = jdbcTemplate.query(SELECT_PAYLOAD_SQL, rs -> {
+            if (!rs.next()) {
+                return false;
+            }
+
+            try {
+                // 압축된 payload 도 한 번에 풀지 않고 buffer 단위로 풀면서 문자로 변환해 흘려보냄
+                PayloadCodec codec = rs.getString(2) != null ? PayloadCodec.valueOf(rs.getString(2)) : PayloadCodec.NONE;
+                int payloadSize = rs.getInt(3);
+                try (InputStream stored = rs.getBinaryStream(4)) {
+                    if (stored != null) {
+                        try (Reader reader = new InputStreamReader(codec.decompress(stored, payloadSize), StandardCharsets.UTF_8)) {
+                            reader.transferTo(writer);
+                        }
+                        return true;
+                    }
+                }
+
+                // LOB 을 String 으로 올리지 않고 JDBC character stream 을 그대로 흘려보냄
+                try (Reader reader = rs.getCharacterStream(1)) {
+                    if (reader != null) {
+                        reader.transferTo(writer);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }, id);
+        return Boolean.TRUE.equals(found);
+    }
+
+    public record ExpiredRow(long id, LocalDateTime createdAt) {
+    }
+
+    private void setInsertParameters(PreparedStatement ps, KafkaDeadLetter deadLetter, Timestamp now) throws SQLException {
+        boolean external = Boolean.TRUE.equals(deadLetter.getPayloadExternal());
+        ps.setString(1, deadLetter.getTopic());
+        ps.setString(2, deadLetter.getMessageKey());
+        ps.setString(3, deadLetter.getPayload());
+        ps.setString(4, deadLetter.getPayloadCodec() != null ? deadLetter.getPayloadCodec().name() : null);
+        ps.setBytes(5, external ? null : deadLetter.getPayloadData());
+        ps.setBoolean(6, external);
+        ps.setObject(7, deadLetter.getPayloadSize());
+        ps.setString(8, deadLetter.getPayloadPreview());
+        ps.setString(9, deadLetter.getExceptionMessage());
+        ps.setString(10, deadLetter.getExceptionType());
+        ps.setString(11, deadLetter.getFingerprint());
+        ps.setString(12, deadLetter.getStatus().name());
+        ps.setTimestamp(13, deadLetter.getCreatedAt() != null ? Timestamp.valueOf(deadLetter.getCreatedAt()) : now);
+    }
+}
@@ -0,0 +1,60 @@
+package com.common.kafka.consumer.dl.domain;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// MySQL RANGE COLUMNS(created_at) 일 단위 partition 관리 (테이블은 README 의 DDL 로 미리 partition 되어 있어야 함)
+// partition 이름은 p + 날짜 (해당 날짜의 행), 마지막은 항상 pmax (MAXVALUE)
+@Repository
+@RequiredArgsConstructor
+public class KafkaDeadLetterPartitionRepository {
+    public static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private static final String SELECT_PARTITIONS_SQL = "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'kafka_dead_letters' AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION";
+    private static final String ADD_PARTITION_SQL = "ALTER TABLE kafka_dead_letters REORGANIZE PARTITION " + MAX_PARTITION + " INTO " +
+            "(PARTITION %s VALUES LESS THAN ('%s'), PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE))";
+    private static final String DROP_PARTITIONS_SQL = "ALTER TABLE kafka_dead_letters DROP PARTITION %s";
+    // drop 된 partition 의 외부 payload (원본 행이 없는 것). 남은 행이 하나도 없어도 모두 지워지도록 anti-join 으로 찾음
+    private static final String DELETE_ORPHAN_PAYLOADS_SQL = "DELETE FROM kafka_dead_letter_payloads " +
+            "WHERE NOT EXISTS (SELECT 1 FROM kafka_dead_letters d WHERE d.id = kafka_dead_letter_payloads.dead_letter_id) LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<String> findPartitions() {
+        return jdbcTemplate.queryForList(SELECT_PARTITIONS_SQL, String.class);
+    }
+
+    // pmax 를 나눠서 추가하므로 pmax 에 행이 거의 없으면 metadata 변경만 일어남
+    public void addPartition(LocalDate day) {
+        jdbcTemplate.execute(String.format(ADD_PARTITION_SQL, toPartitionName(day), day.plusDays(1)));
+    }
+
+    public void dropPartitions(List<String> partitions) {
+        jdbcTemplate.execute(String.format(DROP_PARTITIONS_SQL, partitions.stream().collect(Collectors.joining(","))));
+    }
+
+    public int deleteOrphanPayloads(int limit) {
+        return jdbcTemplate.update(DELETE_ORPHAN_PAYLOADS_SQL, limit);
+    }
+
+    public static String toPartitionName(LocalDate day) {
+        return day.format(PARTITION_NAME_FORMAT);
+    }
+
+    // p + 날짜 형식이 아니면 null
+    public static LocalDate toDay(String partition) {
+        try {
+            return LocalDate.parse(partition, PARTITION_NAME_FORMAT);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.common.kafka.consumer.dl.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// external-threshold-bytes 를 넘는 payload 를 metadata 테이블 밖에 보관 (조회 / 백업 시 kafka_dead_letters 를 작게 유지)
+@Getter
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "kafka_dead_letter_payloads")
+public class KafkaDeadLetterPayload {
+    @Id
+    private Long deadLetterId;
+
+    @Lob
+    @Column
+    private byte[] payload;
+}
@@ -1,10 +1,15 @@
 package com.common.kafka.consumer.dl.domain;
 
+import com.common.kafka.consumer.dl.resource.CursorPageResource;
 import com.common.kafka.consumer.dl.resource.KafkaDeadLetterResource;
 import com.common.kafka.consumer.dl.resource.MessageQuery;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface KafkaDeadLetterRepositoryCustom {
-    Page<KafkaDeadLetterResource> findMessages(MessageQuery query, Pageable pageable);
+    CursorPageResource<KafkaDeadLetterResource> findMessages(MessageQuery query, Pageable pageable, long countLimit);
+
+    List<KafkaDeadLetter> findResendPage(Long afterId, Long endId, String fingerprint, KafkaDeadLetterStatus status, int limit);
 }
+
@@ -1,63 +1,123 @@
 package com.common.kafka.consumer.dl.domain;
 
+import com.common.kafka.consumer.dl.resource.CountMode;
+import com.common.kafka.consumer.dl.resource.CursorPageResource;
 import com.common.kafka.consumer.dl.resource.KafkaDeadLetterResource;
 import com.common.kafka.consumer.dl.resource.MessageQuery;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static com.common.kafka.consumer.dl.domain.QKafkaDeadLetter.kafkaDeadLetter;
+
 @RequiredArgsConstructor
 public class KafkaDeadLetterRepositoryImpl implements KafkaDeadLetterRepositoryCustom {
 
     private final JPAQueryFactory queryFactory;
 
     @Override
-    public Page<KafkaDeadLetterResource> findMessages(MessageQuery query, Pageable pageable) {
-        List<KafkaDeadLetterResource> content = queryFactory
+    public CursorPageResource<KafkaDeadLetterResource> findMessages(MessageQuery query, Pageable pageable, long countLimit) {
+        JPAQuery<KafkaDeadLetterResource> contentQuery = queryFactory
                 .select(Projections.fields(KafkaDeadLetterResource.class,
                         kafkaDeadLetter.id.as("kafkaDeadLetterId"),
                         kafkaDeadLetter.topic,
                         kafkaDeadLetter.messageKey,
-                        kafkaDeadLetter.payload,
+                        kafkaDeadLetter.payloadSize,
+                        kafkaDeadLetter.payloadPreview,
                         kafkaDeadLetter.exceptionMessage,
                         kafkaDeadLetter.status,
-                        kafkaDeadLetter.regDttm,
-                        kafkaDeadLetter.regUser,
-                        kafkaDeadLetter.updateDttm,
-                        kafkaDeadLetter.updateUser))
+                        kafkaDeadLetter.createdAt.as("regDttm"),
+                        kafkaDeadLetter.createdBy.as("regUser"),
+                        kafkaDeadLetter.updatedAt.as("updateDttm"),
+                        kafkaDeadLetter.updatedBy.as("updateUser")))
                 .from(kafkaDeadLetter)
+                .where(ltCursor(query.getCursor()))
+                .where(getConditions(query))
+                .limit(pageable.getPageSize() + 1L)
+                .orderBy(kafkaDeadLetter.id.desc());
+
+        // cursor 가 없을 때만 기존 offset 페이징 (deep page 는 nextCursor 사용)
+        if (query.getCursor() == null) {
+            contentQuery.offset(pageable.getOffset());
+        }
+
+        List<KafkaDeadLetterResource> content = contentQuery.fetch();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+
+        CursorPageResource<KafkaDeadLetterResource> page = CursorPageResource.<KafkaDeadLetterResource>builder()
+                .content(content)
+                .size(pageable.getPageSize())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? content.get(content.size() - 1).getKafkaDeadLetterId() : null)
+                .build();
+
+        CountMode countMode = query.getCountMode() != null ? query.getCountMode() : CountMode.EXACT;
+        switch (countMode) {
+            case EXACT:
+                Long total = queryFactory
+                        .select(kafkaDeadLetter.count())
+                        .from(kafkaDeadLetter)
+                        .where(getConditions(query))
+                        .fetchOne();
+                page.setTotalElements(total != null ? total : 0);
+                break;
+            case ESTIMATE:
+                // 인덱스만 타는 id 조회를 countLimit 까지만 세고, 넘으면 추정치로 표시
+                int counted = queryFactory
+                        .select(kafkaDeadLetter.id)
+                        .from(kafkaDeadLetter)
+                        .where(getConditions(query))
+                        .limit(countLimit + 1)
+                        .fetch()
+                        .size();
+                page.setTotalElements(Math.min(counted, countLimit));
+                page.setTotalEstimated(counted > countLimit);
+                break;
+            case NONE:
+            default:
+                break;
+        }
+
+        return page;
+    }
+
+    @Override
+    public List<KafkaDeadLetter> findResendPage(Long afterId, Long endId, String fingerprint, KafkaDeadLetterStatus status, int limit) {
+        return queryFactory
+                .selectFrom(kafkaDeadLetter)
                 .where(
-                        eqStartId(query.getStartId()),
-                        eqEndId(query.getEndId()),
-                        eqTopic(query.getTopic()),
-                        eqStatus(query.getStatus()),
-                        goeFromDate(query.getFromDate()),
-                        ltToDate(query.getToDate()))
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .orderBy(kafkaDeadLetter.id.desc())
+                        kafkaDeadLetter.id.gt(afterId),
+                        kafkaDeadLetter.id.loe(endId),
+                        eqFingerprint(fingerprint),
+                        eqStatus(status))
+                .orderBy(kafkaDeadLetter.id.asc())
+                .limit(limit)
                 .fetch();
+    }
 
-        Long total = queryFactory
-                .select(kafkaDeadLetter.count())
-                .from(kafkaDeadLetter)
-                .where(
-                        eqStartId(query.getStartId()),
-                        eqEndId(query.getEndId()),
-                        eqTopic(query.getTopic()),
-                        eqStatus(query.getStatus()),
-                        goeFromDate(query.getFromDate()),
-                        ltToDate(query.getToDate()))
-                .fetchOne();
-
-        return new PageImpl<>(content, pageable, total != null ? total : 0);
+    private BooleanExpression[] getConditions(MessageQuery query) {
+        return new BooleanExpression[]{
+                eqStartId(query.getStartId()),
+                eqEndId(query.getEndId()),
+                eqTopic(query.getTopic()),
+                eqStatus(query.getStatus()),
+                goeFromDate(query.getFromDate()),
+                ltToDate(query.getToDate())
+        };
+    }
+
+    private BooleanExpression ltCursor(Long cursor) {
+        return cursor != null ? kafkaDeadLetter.id.lt(cursor) : null;
     }
 
     private BooleanExpression eqStartId(Long startId) {
@@ -72,15 +132,19 @@ public class KafkaDeadLetterRepositoryImpl implements KafkaDeadLetterRepositoryC
         return StringUtils.hasText(topic) ? kafkaDeadLetter.topic.eq(topic) : null;
     }
 
+    private BooleanExpression eqFingerprint(String fingerprint) {
+        return fingerprint != null ? kafkaDeadLetter.fingerprint.eq(fingerprint) : null;
+    }
+
     private BooleanExpression eqStatus(KafkaDeadLetterStatus status) {
         return status != null ? kafkaDeadLetter.status.eq(status) : null;
     }
 
     private BooleanExpression goeFromDate(java.time.LocalDate fromDate) {
-        return fromDate != null ? kafkaDeadLetter.regDttm.goe(fromDate.atStartOfDay()) : null;
+        return fromDate != null ? kafkaDeadLetter.createdAt.goe(fromDate.atStartOfDay()) : null;
     }
 
     private BooleanExpression ltToDate(java.time.LocalDate toDate) {
-        return toDate != null ? kafkaDeadLetter.regDttm.lt(toDate.plusDays(1).atStartOfDay()) : null;
+        return toDate != null ? kafkaDeadLetter.createdAt.lt(toDate.plusDays(1).atStartOfDay()) : null;
     }
 }
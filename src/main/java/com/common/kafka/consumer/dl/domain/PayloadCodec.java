@@ -0,0 +1,113 @@
+package com.common.kafka.consumer.dl.domain;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+
+// dead letter payload 압축 방식. 이름이 payload_codec 컬럼에 저장되므로 변경하지 않음
+// 압축 해제 시 원본 길이는 payload_size 컬럼 값을 사용
+public enum PayloadCodec {
+    NONE {
+        @Override
+        public byte[] compress(byte[] raw) {
+            return raw;
+        }
+
+        @Override
+        public byte[] decompress(byte[] stored, int originalLength) {
+            return stored;
+        }
+
+        @Override
+        public InputStream decompress(InputStream stored, int originalLength) {
+            return stored;
+        }
+    },
+    // 스트리밍으로 풀 수 있도록 LZ4 frame 형식으로 저장. frame magic 이 없는 값은 이전 버전이 저장한 LZ4 block
+    LZ4 {
+        @Override
+        public byte[] compress(byte[] raw) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 32);
+            try (LZ4FrameOutputStream frame = new LZ4FrameOutputStream(out, LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB)) {
+                frame.write(raw);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public byte[] decompress(byte[] stored, int originalLength) {
+            if (!isLz4Frame(stored, stored.length)) {
+                return LZ4_FACTORY.fastDecompressor().decompress(stored, originalLength);
+            }
+
+            try (InputStream in = new LZ4FrameInputStream(new ByteArrayInputStream(stored))) {
+                return in.readNBytes(originalLength);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public InputStream decompress(InputStream stored, int originalLength) throws IOException {
+            PushbackInputStream in = new PushbackInputStream(stored, LZ4_FRAME_MAGIC.length);
+            byte[] head = in.readNBytes(LZ4_FRAME_MAGIC.length);
+            in.unread(head);
+            if (isLz4Frame(head, head.length)) {
+                return new LZ4FrameInputStream(in);
+            }
+            // block 형식은 스트리밍으로 풀 수 없으므로 한 번에 품
+            return new ByteArrayInputStream(decompress(in.readAllBytes(), originalLength));
+        }
+    },
+    ZSTD {
+        @Override
+        public byte[] compress(byte[] raw) {
+            return Zstd.compress(raw, ZSTD_LEVEL);
+        }
+
+        @Override
+        public byte[] decompress(byte[] stored, int originalLength) {
+            return Zstd.decompress(stored, originalLength);
+        }
+
+        @Override
+        public InputStream decompress(InputStream stored, int originalLength) throws IOException {
+            return new ZstdInputStream(stored);
+        }
+    };
+
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+    private static final int ZSTD_LEVEL = 3;
+    // LZ4 frame magic number 0x184D2204 (little endian)
+    private static final byte[] LZ4_FRAME_MAGIC = {0x04, 0x22, 0x4D, 0x18};
+
+    public abstract byte[] compress(byte[] raw);
+
+    public abstract byte[] decompress(byte[] stored, int originalLength);
+
+    // 저장된 값을 읽는 만큼만 풀어주는 stream (payload 전체를 메모리에 올리지 않음)
+    public abstract InputStream decompress(InputStream stored, int originalLength) throws IOException;
+
+    private static boolean isLz4Frame(byte[] stored, int length) {
+        if (length < LZ4_FRAME_MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < LZ4_FRAME_MAGIC.length; i++) {
+            if (stored[i] != LZ4_FRAME_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,281 @@
+package com.common.kafka.consumer.dl.metrics;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.orchestrator.PartitionOffsetTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+@Component
+public class RetryMetrics {
+    static final String OTHER_TOPIC = "other";
+    static final String UNKNOWN_TOPIC = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final RetryWorkerProperties properties;
+    private final Set<String> allowedTopics;
+    private final Set<String> observedTopics = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> queueSizes = new ConcurrentHashMap<>();
+
+    private final Timer batchLatency;
+    private final DistributionSummary batchSize;
+    private final DistributionSummary drainedPerTick;
+    private final Timer schedulingSkew;
+    private final DistributionSummary deadLetterFlushSize;
+    private final AtomicLong oldestDueLagMs = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong purgeLagMs = new AtomicLong();
+
+    public RetryMetrics(MeterRegistry meterRegistry, RetryWorkerProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.allowedTopics = Set.copyOf(properties.getMetrics().getTopics());
+
+        this.batchLatency = Timer.builder("retry.listener.batch.latency")
+                .description("time to enqueue / dead letter one poll of common-retry-topic")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("retry.listener.batch.size")
+                .description("records per poll of common-retry-topic")
+                .baseUnit("records")
+                .register(meterRegistry);
+        this.drainedPerTick = DistributionSummary.builder("retry.scheduler.drained")
+                .description("items drained from the delay queue per scheduler tick")
+                .baseUnit("messages")
+                .register(meterRegistry);
+        this.schedulingSkew = Timer.builder("retry.scheduler.skew")
+                .description("actual resend time minus intended due time")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(meterRegistry);
+        this.deadLetterFlushSize = DistributionSummary.builder("retry.dead.letter.flush.size")
+                .description("dead letters written per batch insert")
+                .baseUnit("messages")
+                .register(meterRegistry);
+        Gauge.builder("retry.scheduler.oldest.due.lag", oldestDueLagMs, AtomicLong::get)
+                .description("how long the oldest due item has been waiting past its score")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("retry.scheduler.in.flight", inFlight, AtomicLong::get)
+                .description("resends waiting for a broker acknowledgement")
+                .baseUnit("messages")
+                .register(meterRegistry);
+        Gauge.builder("retry.dead.letter.purge.lag", purgeLagMs, AtomicLong::get)
+                .description("how long the oldest expired dead letter has been past its retention")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public void recordBatch(int size, long elapsedNanos) {
+        batchSize.record(size);
+        batchLatency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDrain(int drained) {
+        drainedPerTick.record(drained);
+    }
+
+    public void recordOldestDueLag(long lagMs) {
+        oldestDueLagMs.set(Math.max(lagMs, 0));
+    }
+
+    public void recordInFlight(int count) {
+        inFlight.set(count);
+    }
+
+    public void recordEnqueue(String topic, int retryCount) {
+        counter("retry.enqueued", "messages enqueued to the delay queue", topic, retryCount).increment();
+    }
+
+    public void recordDeadLetter(String topic, int retryCount) {
+        counter("retry.dead.lettered", "messages saved to the dead letter table", topic, retryCount).increment();
+    }
+
+    public void recordDeadLetterDropped(String topic) {
+        Counter.builder("retry.dead.letter.dropped")
+                .description("dead letters dropped because the row can never be inserted")
+                .tag("topic", getTopicTag(topic))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void registerDeadLetterBuffer(Collection<?> buffer) {
+        Gauge.builder("retry.dead.letter.buffer", buffer, Collection::size)
+                .description("dead letters waiting to be flushed to the table")
+                .baseUnit("messages")
+                .register(meterRegistry);
+    }
+
+    public void registerParallelPending(PartitionOffsetTracker tracker) {
+        Gauge.builder("retry.parallel.pending", tracker, PartitionOffsetTracker::pendingCount)
+                .description("records dispatched to the parallel worker pool and not yet completed")
+                .baseUnit("messages")
+                .register(meterRegistry);
+    }
+
+    public void recordDeadLetterFlush(int count, boolean success, long elapsedNanos) {
+        Timer.builder("retry.dead.letter.flush.latency")
+                .description("latency of one dead letter batch insert")
+                .tag("result", success ? "success" : "failure")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (success) {
+            deadLetterFlushSize.record(count);
+        }
+    }
+
+    public void recordPurge(String status, long deleted) {
+        Counter.builder("retry.dead.letter.purged")
+                .description("dead letters deleted by the retention purge")
+                .tag("status", status)
+                .register(meterRegistry)
+                .increment(deleted);
+    }
+
+    public void recordPurgeRun(long elapsedNanos, long lagMs) {
+        Timer.builder("retry.dead.letter.purge.run")
+                .description("duration of one retention purge run")
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        purgeLagMs.set(lagMs);
+    }
+
+    public void recordPartitionDrop(int count) {
+        Counter.builder("retry.dead.letter.partition.dropped")
+                .description("daily dead letter partitions dropped by retention")
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    public void recordResend(String topic, int retryCount, boolean success, long elapsedNanos) {
+        String result = success ? "success" : "failure";
+        Counter.builder("retry.resent")
+                .description("messages resent to the original topic")
+                .tag("topic", getTopicTag(topic))
+                .tag("retry", getRetryTag(retryCount))
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+        Timer.builder("retry.kafka.send.latency")
+                .description("time from send to broker acknowledgement when resending")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordResendDeferred(String topic, String reason) {
+        Counter.builder("retry.resend.deferred")
+                .description("due items pushed back by the per-topic rate limit or circuit breaker instead of being resent")
+                .tag("topic", getTopicTag(topic))
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // 0: closed, 1: half-open, 2: open
+    public <T> void registerCircuitState(String topic, T state, ToDoubleFunction<T> value) {
+        Gauge.builder("retry.circuit.state", state, value)
+                .description("resend circuit breaker state per original topic (0 closed, 1 half-open, 2 open)")
+                .tag("topic", getTopicTag(topic))
+                .register(meterRegistry);
+    }
+
+    public void recordCircuitTransition(String topic, String state) {
+        Counter.builder("retry.circuit.transitions")
+                .description("resend circuit breaker state changes per original topic")
+                .tag("topic", getTopicTag(topic))
+                .tag("state", state)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordRedisScript(String script, long elapsedNanos) {
+        Timer.builder("retry.redis.script.latency")
+                .description("latency of delay queue lua scripts")
+                .tag("script", script)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSchedulingSkew(long dueAtMs, long resentAtMs) {
+        schedulingSkew.record(Math.max(resentAtMs - dueAtMs, 0), TimeUnit.MILLISECONDS);
+    }
+
+    public void recordQueueSize(String queueKey, long size) {
+        // shard 수만큼만 생성되므로 queue 태그는 bounded
+        queueSizes.computeIfAbsent(queueKey, key -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("retry.queue.size", value, AtomicLong::get)
+                    .description("items waiting in the delay queue")
+                    .tag("queue", key)
+                    .baseUnit("messages")
+                    .register(meterRegistry);
+            return value;
+        }).set(size);
+    }
+
+    public void recordCoalesced(long count) {
+        Counter.builder("retry.coalesced")
+                .description("retries that replaced a pending retry of the same topic and key instead of being enqueued")
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    public void recordAdminDelete(String target, long count) {
+        Counter.builder("retry.admin.queue.deleted")
+                .description("delay queue items deleted through the admin api")
+                .tag("target", target)
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    String getTopicTag(String topic) {
+        if (topic == null) {
+            return UNKNOWN_TOPIC;
+        }
+        if (!allowedTopics.isEmpty()) {
+            return allowedTopics.contains(topic) ? topic : OTHER_TOPIC;
+        }
+
+        // 허용 목록이 없으면 먼저 관측된 토픽만 태그로 사용 (registry 의 meter 수를 상한)
+        if (observedTopics.contains(topic)) {
+            return topic;
+        }
+        synchronized (observedTopics) {
+            if (observedTopics.contains(topic) || observedTopics.size() < properties.getMetrics().getMaxTopicTags()) {
+                observedTopics.add(topic);
+                return topic;
+            }
+        }
+        return OTHER_TOPIC;
+    }
+
+    String getRetryTag(int retryCount) {
+        // header 값이 비정상적으로 커도 maxRetryCount 이상은 하나의 태그로 집계
+        return String.valueOf(Math.max(0, Math.min(retryCount, properties.getMaxRetryCount())));
+    }
+
+    private Counter counter(String name, String description, String topic, int retryCount) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("topic", getTopicTag(topic))
+                .tag("retry", getRetryTag(retryCount))
+                .register(meterRegistry);
+    }
+}
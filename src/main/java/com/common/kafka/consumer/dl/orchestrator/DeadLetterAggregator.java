@@ -0,0 +1,173 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetter;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterGroup;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterJdbcRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+// 집계 모드: dead letter 마다 fingerprint (topic + 예외 타입 + 실패 사유 + payload 구조) 를 계산하고
+// flush 된 batch 를 fingerprint 별로 합쳐 kafka_dead_letter_groups 의 건수 / 마지막 시각을 갱신
+@Slf4j
+@Component
+public class DeadLetterAggregator {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    private static final int MAX_TEXT_SHAPE_LENGTH = 1024;
+    private static final int FINGERPRINT_BYTES = 16;
+
+    private final KafkaDeadLetterJdbcRepository kafkaDeadLetterJdbcRepository;
+    private final RetryWorkerProperties.Aggregation properties;
+    // DB 에 이미 있는 fingerprint (LRU). flush thread 에서만 접근
+    private final Map<String, Boolean> knownFingerprints;
+
+    public DeadLetterAggregator(KafkaDeadLetterJdbcRepository kafkaDeadLetterJdbcRepository, RetryWorkerProperties properties) {
+        this.kafkaDeadLetterJdbcRepository = kafkaDeadLetterJdbcRepository;
+        this.properties = properties.getDeadLetter().getAggregation();
+        int cacheSize = this.properties.getCacheSize();
+        this.knownFingerprints = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // 집계 모드가 아니면 null
+    public String fingerprint(String topic, String exceptionType, String reason, byte[] value) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        MessageDigest digest = sha256();
+        update(digest, topic);
+        update(digest, exceptionType);
+        update(digest, reason != null ? DIGITS.matcher(reason).replaceAll("#") : null);
+        update(digest, shape(value));
+        return HexFormat.of().formatHex(digest.digest(), 0, FINGERPRINT_BYTES);
+    }
+
+    // insert 가 끝난 batch 를 집계. 실패해도 원본 행은 이미 저장되었으므로 로그만 남김
+    public void record(List<KafkaDeadLetter> deadLetters) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        try {
+            List<KafkaDeadLetterGroup> known = new ArrayList<>();
+            List<KafkaDeadLetterGroup> unknown = new ArrayList<>();
+            for (KafkaDeadLetterGroup group : merge(deadLetters)) {
+                (knownFingerprints.containsKey(group.getFingerprint()) ? known : unknown).add(group);
+            }
+
+            // 캐시에 있는 group 은 update 만 (보존 기간 정리 등으로 사라졌으면 insert)
+            int[] updated = kafkaDeadLetterJdbcRepository.incrementGroups(known);
+            for (int i = 0; i < known.size(); i++) {
+                if (updated[i] == 0) {
+                    unknown.add(known.get(i));
+                }
+            }
+
+            // 처음 보는 fingerprint 는 insert 를 먼저 시도하고, 다른 replica 가 이미 만들었으면 update
+            for (KafkaDeadLetterGroup group : unknown) {
+                try {
+                    kafkaDeadLetterJdbcRepository.insertGroup(group);
+                } catch (DuplicateKeyException e) {
+                    kafkaDeadLetterJdbcRepository.incrementGroups(List.of(group));
+                }
+                knownFingerprints.put(group.getFingerprint(), Boolean.TRUE);
+            }
+        } catch (Exception ex) {
+            log.warn("failed to aggregate dead letters | count: {}, message: {}", deadLetters.size(), ex.getMessage());
+        }
+    }
+
+    private List<KafkaDeadLetterGroup> merge(List<KafkaDeadLetter> deadLetters) {
+        Map<String, KafkaDeadLetter> samples = new LinkedHashMap<>();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (KafkaDeadLetter deadLetter : deadLetters) {
+            if (deadLetter.getFingerprint() != null) {
+                samples.putIfAbsent(deadLetter.getFingerprint(), deadLetter);
+                counts.merge(deadLetter.getFingerprint(), 1L, Long::sum);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<KafkaDeadLetterGroup> groups = new ArrayList<>(samples.size());
+        samples.forEach((fingerprint, sample) -> groups.add(KafkaDeadLetterGroup.builder()
+                .fingerprint(fingerprint)
+                .topic(sample.getTopic())
+                .exceptionType(sample.getExceptionType())
+                .exceptionMessage(sample.getExceptionMessage())
+                .payloadPreview(sample.getPayloadPreview())
+                .failureCount(counts.get(fingerprint))
+                .firstSeenAt(now)
+                .lastSeenAt(now)
+                .build()));
+        return groups;
+    }
+
+    // JSON 이면 값은 버리고 field 이름 집합만 사용 (id, 시각 등 값만 다른 메시지를 같은 group 으로)
+    // JSON 이 아니면 앞부분 원문에서 숫자를 지워 사용
+    static String shape(byte[] value) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+
+        Set<String> fieldNames = new TreeSet<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(value)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_OBJECT || first == JsonToken.START_ARRAY) {
+                for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                    if (token == JsonToken.FIELD_NAME) {
+                        fieldNames.add(parser.currentName());
+                    }
+                }
+                return first.asString() + String.join(",", fieldNames);
+            }
+        } catch (IOException ignored) {
+            // JSON 이 아님
+        }
+
+        String text = new String(value, 0, Math.min(value.length, MAX_TEXT_SHAPE_LENGTH), StandardCharsets.UTF_8);
+        return DIGITS.matcher(text).replaceAll("#");
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
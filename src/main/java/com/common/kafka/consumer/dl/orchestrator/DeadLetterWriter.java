@@ -0,0 +1,190 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetter;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterJdbcRepository;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// dead letter write-behind buffer. listener 는 buffer 에 넣기만 하고, 전용 thread 가 batch-size / flush-interval-ms 단위로 JDBC batch insert
+// 반환된 future 는 insert 가 성공한 뒤에 완료되므로 완료 시점에 offset 을 커밋하면 유실 없음
+@Slf4j
+@Component
+public class DeadLetterWriter {
+    private final KafkaDeadLetterJdbcRepository kafkaDeadLetterJdbcRepository;
+    private final DeadLetterAggregator deadLetterAggregator;
+    private final RetryWorkerProperties.DeadLetter properties;
+    private final RetryMetrics retryMetrics;
+    private final BlockingQueue<Pending> buffer;
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    public DeadLetterWriter(KafkaDeadLetterJdbcRepository kafkaDeadLetterJdbcRepository, DeadLetterAggregator deadLetterAggregator, RetryWorkerProperties properties, RetryMetrics retryMetrics) {
+        this.kafkaDeadLetterJdbcRepository = kafkaDeadLetterJdbcRepository;
+        this.deadLetterAggregator = deadLetterAggregator;
+        this.properties = properties.getDeadLetter();
+        this.retryMetrics = retryMetrics;
+        this.buffer = new ArrayBlockingQueue<>(this.properties.getBufferCapacity());
+        this.flusher = new CustomizableThreadFactory("dead-letter-flush-").newThread(this::run);
+    }
+
+    @PostConstruct
+    public void start() {
+        retryMetrics.registerDeadLetterBuffer(buffer);
+        flusher.start();
+    }
+
+    public CompletableFuture<Void> add(KafkaDeadLetter deadLetter) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("dead letter writer is shutting down"));
+        }
+
+        Pending pending = new Pending(deadLetter, new CompletableFuture<>());
+        try {
+            // buffer 가 가득 차면 listener thread 를 멈춰 consumer 에 backpressure
+            if (!buffer.offer(pending, properties.getOfferTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("dead letter buffer is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for dead letter buffer", e);
+        }
+        return pending.future();
+    }
+
+    public CompletableFuture<Void> addAll(List<KafkaDeadLetter> deadLetters) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(deadLetters.size());
+        for (KafkaDeadLetter deadLetter : deadLetters) {
+            futures.add(add(deadLetter));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(properties.getShutdownTimeoutMs());
+        if (flusher.isAlive()) {
+            // 기한 내에 끝나지 않으면 재시도 대기를 중단시키고, flusher 가 멈춘 뒤에만 남은 항목을 꺼냄 (동시에 꺼내면 같은 항목을 두 번 완료)
+            flusher.interrupt();
+            flusher.join(properties.getShutdownTimeoutMs());
+            if (flusher.isAlive()) {
+                log.warn("dead letter flusher did not stop before shutdown | buffered: {}", buffer.size());
+                return;
+            }
+        }
+
+        // 기한 내에 flush 하지 못한 항목은 커밋되지 않으므로 재시작 후 다시 수신
+        List<Pending> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.warn("dead letters not flushed before shutdown | count: {}", remaining.size());
+            IllegalStateException ex = new IllegalStateException("dead letter writer shut down before flush");
+            remaining.forEach(pending -> pending.future().completeExceptionally(ex));
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !buffer.isEmpty()) {
+            try {
+                collect(batch);
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.future().completeExceptionally(e));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // 첫 항목을 기다린 뒤 flush-interval-ms 동안 batch-size 까지 모음
+    private void collect(List<Pending> batch) throws InterruptedException {
+        Pending first = buffer.poll(properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        int batchSize = properties.getBatchSize();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+        while (batch.size() < batchSize) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+
+            Pending next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    // 성공할 때까지 재시도 (그동안 buffer 가 차면 listener 가 멈추고 offset 도 커밋되지 않음)
+    // 제약 조건 위반처럼 재시도해도 성공할 수 없는 오류는 한 건씩 다시 넣어 문제 행의 future 만 실패시킴
+    private void flush(List<Pending> batch) throws InterruptedException {
+        List<KafkaDeadLetter> deadLetters = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            deadLetters.add(pending.deadLetter());
+        }
+
+        long backoff = properties.getRetryBackoffMs();
+        while (true) {
+            long start = System.nanoTime();
+            try {
+                kafkaDeadLetterJdbcRepository.insertAll(deadLetters, properties.getBatchSize());
+                retryMetrics.recordDeadLetterFlush(batch.size(), true, System.nanoTime() - start);
+                batch.forEach(pending -> pending.future().complete(null));
+                deadLetterAggregator.record(deadLetters);
+                return;
+            } catch (NonTransientDataAccessException ex) {
+                retryMetrics.recordDeadLetterFlush(batch.size(), false, System.nanoTime() - start);
+                if (batch.size() > 1) {
+                    log.warn("failed to flush dead letters, inserting one by one | count: {}, message: {}", batch.size(), ex.getMessage());
+                    for (Pending pending : batch) {
+                        flush(List.of(pending));
+                    }
+                } else {
+                    KafkaDeadLetter deadLetter = batch.get(0).deadLetter();
+                    log.error("failed to insert dead letter, not retrying | topic: {}, key: {}, message: {}", deadLetter.getTopic(), deadLetter.getMessageKey(), ex.getMessage(), ex);
+                    batch.get(0).future().completeExceptionally(ex);
+                }
+                return;
+            } catch (Exception ex) {
+                retryMetrics.recordDeadLetterFlush(batch.size(), false, System.nanoTime() - start);
+                if (!running) {
+                    log.error("failed to flush dead letters on shutdown | count: {}, message: {}", batch.size(), ex.getMessage(), ex);
+                    batch.forEach(pending -> pending.future().completeExceptionally(ex));
+                    return;
+                }
+
+                log.warn("failed to flush dead letters, retrying | count: {}, backoff: {}ms, message: {}", batch.size(), backoff, ex.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, properties.getMaxRetryBackoffMs());
+            }
+        }
+    }
+
+    private record Pending(KafkaDeadLetter deadLetter, CompletableFuture<Void> future) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import com.common.kafka.listener.aspect.annotation.CommonKafkaListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.common.kafka.consumer.dl.orchestrator.GenericRetryListener.RETRY_TOPIC;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "retry.worker", name = "batch-listener", havingValue = "true")
+public class GenericRetryBatchListener {
+
+    private final RetryOrchestrator retryOrchestrator;
+    private final RetryWorkerProperties properties;
+    private final RetryMetrics retryMetrics;
+    private final KeyedExecutor keyedExecutor;
+    // nack 으로 다시 poll 될 레코드 중 이미 적재를 마친 offset (파티션별). 다시 들어오면 적재하지 않고 건너뜀
+    private final Map<TopicPartition, Set<Long>> handledOffsets = new ConcurrentHashMap<>();
+
+    @CommonKafkaListener(
+            topics = RETRY_TOPIC,
+            groupId = "${spring.application.name}",
+            containerFactory = "retryKafkaListenerContainerFactory",
+            concurrency = "${retry.worker.concurrency:3}",
+            enableResiliency = false
+    )
+    public void onMessages(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        long start = System.nanoTime();
+        List<ConsumerRecord<String, byte[]>> pending = skipHandled(records);
+        List<ConsumerRecord<String, byte[]>> failed;
+        try {
+            log.info("received batch | topic: {}, records: {}, skipped: {}", RETRY_TOPIC, records.size(), records.size() - pending.size());
+            failed = pending.isEmpty() ? List.of() : retryOrchestrator.processBatch(pending);
+        } catch (Exception e) {
+            log.warn("batch processing failed, falling back to per record | records: {}, message: {}", pending.size(), e.getMessage(), e);
+            failed = pending;
+        }
+
+        // 적재하지 못한 레코드만 다시 처리
+        if (!failed.isEmpty()) {
+            failed = processEach(failed);
+        }
+
+        records.forEach(record -> handledOffsets.remove(new TopicPartition(record.topic(), record.partition())));
+        if (failed.isEmpty()) {
+            ack.acknowledge();
+        } else {
+            // 처음 실패한 레코드 앞까지만 커밋하고 그 위치부터 다시 poll. 그 뒤에서 이미 적재한 레코드는 기억해 두었다가 중복 적재하지 않음
+            int index = records.indexOf(failed.get(0));
+            Set<ConsumerRecord<String, byte[]>> failedSet = Set.copyOf(failed);
+            for (ConsumerRecord<String, byte[]> record : records.subList(index + 1, records.size())) {
+                if (!failedSet.contains(record)) {
+                    handledOffsets.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), k -> new HashSet<>()).add(record.offset());
+                }
+            }
+            log.warn("batch partially failed, seeking to first failed record | records: {}, failed: {}, index: {}", records.size(), failed.size(), index);
+            ack.nack(index, Duration.ofMillis(properties.getBatchNackSleepMs()));
+        }
+        retryMetrics.recordBatch(records.size(), System.nanoTime() - start);
+    }
+
+    private List<ConsumerRecord<String, byte[]>> skipHandled(List<ConsumerRecord<String, byte[]>> records) {
+        if (handledOffsets.isEmpty()) {
+            return records;
+        }
+
+        List<ConsumerRecord<String, byte[]>> pending = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            Set<Long> handled = handledOffsets.get(new TopicPartition(record.topic(), record.partition()));
+            if (handled == null || !handled.contains(record.offset())) {
+                pending.add(record);
+            }
+        }
+        return pending;
+    }
+
+    // virtual thread 모드에서는 key 가 다른 레코드를 동시에 처리하고 모두 끝난 뒤 실패한 레코드를 순서대로 반환
+    private List<ConsumerRecord<String, byte[]>> processEach(List<ConsumerRecord<String, byte[]>> records) {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            futures.add(keyedExecutor.submit(record.key(), () -> retryOrchestrator.process(record)).handle((result, e) -> {
+                if (e != null) {
+                    log.error("fatal error processing record | topic: {}, key: {}, payloadSize: {}", record.topic(), record.key(), record.value() != null ? record.value().length : 0, e);
+                }
+                return e == null;
+            }));
+        }
+
+        List<ConsumerRecord<String, byte[]>> failed = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            if (!futures.get(i).join()) {
+                failed.add(records.get(i));
+            }
+        }
+        return failed;
+    }
+}
@@ -1,19 +1,72 @@
 package com.common.kafka.consumer.dl.orchestrator;
 
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import com.common.kafka.consumer.dl.queue.ShardNotOwnedException;
 import com.common.kafka.listener.aspect.annotation.CommonKafkaListener;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 @Slf4j
 @Component
-@RequiredArgsConstructor
-public class GenericRetryListener {
-    private static final String RETRY_TOPIC = "common-retry-topic";
+@ConditionalOnProperty(prefix = "retry.worker", name = "batch-listener", havingValue = "false", matchIfMissing = true)
+public class GenericRetryListener implements ConsumerAwareRebalanceListener {
+    public static final String RETRY_TOPIC = "common-retry-topic";
 
     private final RetryOrchestrator retryOrchestrator;
+    private final KeyedExecutor keyedExecutor;
+    private final RetryWorkerProperties properties;
+    private final RetryWorkerProperties.Parallel parallel;
+    private final PartitionOffsetTracker offsetTracker = new PartitionOffsetTracker();
+    // parallel 모드의 worker pool. virtual thread 모드면 공용 executor 를 그대로 사용
+    private final KeyedExecutor parallelExecutor;
+    private final KafkaListenerEndpointRegistry registry;
+    // parallel 모드에서 멈춘 파티션과 그 파티션을 소비하는 container. 재개 / 회수 시 같은 container 에 재개 요청
+    private final Map<TopicPartition, MessageListenerContainer> pausedPartitions = new ConcurrentHashMap<>();
+    // consumer 별 마지막 커밋 시각
+    private final Map<Consumer<?, ?>, Long> lastCommitAt = new ConcurrentHashMap<>();
+    // 적재에 실패한 레코드의 재처리 thread
+    private final ScheduledExecutorService retryExecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("retry-process-retry-"));
+
+    public GenericRetryListener(RetryOrchestrator retryOrchestrator, KeyedExecutor keyedExecutor, RetryWorkerProperties properties, RetryMetrics retryMetrics,
+                                KafkaListenerEndpointRegistry registry) {
+        this.retryOrchestrator = retryOrchestrator;
+        this.registry = registry;
+        this.keyedExecutor = keyedExecutor;
+        this.properties = properties;
+        this.parallel = properties.getParallel();
+        if (!parallel.isEnabled()) {
+            this.parallelExecutor = null;
+        } else if (keyedExecutor.isVirtual()) {
+            this.parallelExecutor = keyedExecutor;
+        } else {
+            this.parallelExecutor = new KeyedExecutor(Executors.newFixedThreadPool(parallel.getMaxConcurrency(), new CustomizableThreadFactory("retry-parallel-")));
+        }
+        if (parallel.isEnabled()) {
+            retryMetrics.registerParallelPending(offsetTracker);
+        }
+    }
 
     @CommonKafkaListener(
             topics = RETRY_TOPIC,
@@ -22,14 +75,189 @@ public class GenericRetryListener {
             concurrency = "${retry.worker.concurrency:3}",
             enableResiliency = false
     )
-    public void onMessage(ConsumerRecord<String, String> record, Acknowledgment ack) {
+    public void onMessage(ConsumerRecord<String, byte[]> record, Acknowledgment ack, Consumer<?, ?> consumer) {
         try {
             log.info("received | topic: {}, key: {}", record.topic(), record.key());
-            retryOrchestrator.process(record);
+            if (parallelExecutor != null) {
+                dispatch(record, consumer);
+                return;
+            }
 
-            ack.acknowledge();
+            // dead letter 는 write-behind 로 적재되므로 insert 가 끝난 뒤 (다른 thread 에서) ack. 커밋 순서는 container 의 async acks 가 보장
+            // virtual thread 모드에서는 consumer thread 를 막지 않고 key 단위 순서만 유지하며 동시에 처리
+            // async acks 에서는 nack 할 수 없으므로 적재에 실패하면 성공할 때까지 backoff 후 다시 처리하여 파티션 커밋이 멈추지 않도록 함
+            keyedExecutor.submit(record.key(), () -> processUntilSuccess(record, properties.getProcessRetryBackoffMs())).whenComplete((result, ex) -> {
+                if (ex == null) {
+                    ack.acknowledge();
+                } else {
+                    log.error("failed to persist record, offset not committed | topic: {}, key: {}, message: {}", record.topic(), record.key(), ex.getMessage());
+                }
+            });
         } catch (Exception e) {
-            log.error("fatal error processing record | topic: {}, key: {}, payload: {}", record.topic(), record.key(), record.value(), e);
+            log.error("fatal error processing record | topic: {}, key: {}, payloadSize: {}", record.topic(), record.key(), record.value() != null ? record.value().length : 0, e);
+        }
+    }
+
+    // 레코드가 없어도 idle event (consumer thread) 에서 커밋 / 파티션 재개
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        if (parallelExecutor == null || event.getConsumer() == null || !isRetryTopic(event.getTopicPartitions())) {
+            return;
+        }
+        maintain(event.getConsumer(), true);
+    }
+
+    // 회수되는 파티션은 연속으로 끝난 위치까지 바로 커밋. 아직 처리 중인 레코드는 새 소유자가 다시 처리
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        clearPauses(partitions);
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.revoke(partitions);
+        if (!offsets.isEmpty()) {
+            try {
+                consumer.commitSync(offsets);
+            } catch (Exception e) {
+                log.warn("failed to commit revoked partitions | partitions: {}, message: {}", offsets.keySet(), e.getMessage());
+            }
+        }
+    }
+
+    // commit 할 수 없으므로 상태만 제거
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        clearPauses(partitions);
+        offsetTracker.revoke(partitions);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 재처리 중인 레코드는 커밋되지 않았으므로 재시작 / rebalance 후 새 소유자가 다시 처리
+        retryExecutor.shutdownNow();
+        if (parallelExecutor != null && parallelExecutor != keyedExecutor) {
+            parallelExecutor.shutdown();
+        }
+    }
+
+    // parallel 모드: 같은 key 는 순서대로, 다른 key 는 worker pool 에서 동시에 처리하고 커밋은 offset tracker 기준으로 직접 수행
+    // 처리에 실패한 레코드는 backoff 후 다시 처리하고 성공한 뒤에 완료 처리하므로, 커밋은 그동안 그 앞에서 멈췄다가 이어짐
+    // 종료로 재처리가 중단된 offset 은 완료 처리되지 않으므로 재시작 / rebalance 시 새 소유자가 다시 처리
+    private void dispatch(ConsumerRecord<String, byte[]> record, Consumer<?, ?> consumer) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        Runnable completion = offsetTracker.register(partition, record.offset());
+        parallelExecutor.submit(record.key(), () -> processUntilSuccess(record, properties.getProcessRetryBackoffMs())).whenComplete((result, ex) -> {
+            if (ex == null) {
+                completion.run();
+            } else {
+                log.error("failed to persist record, offset not committed | topic: {}, key: {}, offset: {}, message: {}", record.topic(), record.key(), record.offset(), ex.getMessage());
+            }
+        });
+
+        if (offsetTracker.pending(partition) >= parallel.getMaxPendingPerPartition()) {
+            pause(partition);
+        }
+        maintain(consumer, false);
+    }
+
+    // 반환된 future 는 적재가 성공해야 완료되므로, 같은 key 의 다음 레코드는 이 레코드가 적재된 뒤에 처리됨
+    private CompletableFuture<Void> processUntilSuccess(ConsumerRecord<String, byte[]> record, long backoffMs) {
+        CompletableFuture<Void> future;
+        try {
+            future = retryOrchestrator.process(record);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
         }
+
+        return future.handle((result, ex) -> ex).thenCompose(ex -> {
+            if (ex == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (isShardNotOwned(ex)) {
+                // 파티션이 회수되어 재시도해도 적재할 수 없으므로 커밋하지 않고 새 소유자에게 맡김
+                return CompletableFuture.failedFuture(ex);
+            }
+
+            log.warn("failed to persist record, retrying | topic: {}, key: {}, offset: {}, backoff: {}ms, message: {}",
+                    record.topic(), record.key(), record.offset(), backoffMs, ex.getMessage());
+            long nextBackoffMs = Math.min(backoffMs * 2, properties.getMaxProcessRetryBackoffMs());
+            // 종료 중이면 executor 가 거절하여 실패로 끝남
+            return CompletableFuture.supplyAsync(() -> processUntilSuccess(record, nextBackoffMs),
+                    CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS, retryExecutor)).thenCompose(retried -> retried);
+        });
+    }
+
+    private static boolean isShardNotOwned(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ShardNotOwnedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // container 에 요청하여 다음 poll 전에 반영 (consumer 를 직접 멈추면 container 의 pause 상태와 어긋남)
+    private void pause(TopicPartition partition) {
+        if (pausedPartitions.containsKey(partition)) {
+            return;
+        }
+        MessageListenerContainer container = getListenerContainer(partition);
+        if (container == null) {
+            return;
+        }
+
+        log.info("pausing partition, too many pending records | topic: {}, partition: {}, pending: {}", partition.topic(), partition.partition(), offsetTracker.pending(partition));
+        pausedPartitions.put(partition, container);
+        container.pausePartition(partition);
+    }
+
+    // @CommonKafkaListener 는 listener id 를 지정할 수 없으므로 파티션을 할당받은 container 를 찾음
+    private MessageListenerContainer getListenerContainer(TopicPartition partition) {
+        for (MessageListenerContainer container : registry.getAllListenerContainers()) {
+            Collection<TopicPartition> assigned = container.getAssignedPartitions();
+            if (assigned != null && assigned.contains(partition)) {
+                return container;
+            }
+        }
+        log.warn("no listener container found for partition, not pausing | topic: {}, partition: {}", partition.topic(), partition.partition());
+        return null;
+    }
+
+    // 회수된 파티션의 pause 요청은 container 에 남아 다시 할당받았을 때 멈춘 채로 시작하므로 함께 제거
+    private void clearPauses(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            MessageListenerContainer container = pausedPartitions.remove(partition);
+            if (container != null) {
+                container.resumePartition(partition);
+            }
+        }
+    }
+
+    // consumer thread 에서만 호출
+    private void maintain(Consumer<?, ?> consumer, boolean force) {
+        pausedPartitions.forEach((partition, container) -> {
+            if (offsetTracker.pending(partition) <= parallel.getMaxPendingPerPartition() / 2 && pausedPartitions.remove(partition, container)) {
+                container.resumePartition(partition);
+            }
+        });
+
+        long now = System.currentTimeMillis();
+        if (!force && now - lastCommitAt.getOrDefault(consumer, 0L) < parallel.getCommitIntervalMs()) {
+            return;
+        }
+        lastCommitAt.put(consumer, now);
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.committable(consumer.assignment());
+        if (!offsets.isEmpty()) {
+            // 커밋이 성공한 위치만 기록하므로 실패하면 다음 주기에 같은 위치부터 다시 커밋
+            consumer.commitAsync(offsets, (committed, ex) -> {
+                if (ex == null) {
+                    offsetTracker.committed(committed);
+                } else {
+                    log.warn("failed to commit parallel offsets | partitions: {}, message: {}", committed.keySet(), ex.getMessage());
+                }
+            });
+        }
+    }
+
+    private boolean isRetryTopic(Collection<TopicPartition> partitions) {
+        return partitions != null && partitions.stream().anyMatch(partition -> RETRY_TOPIC.equals(partition.topic()));
     }
 }
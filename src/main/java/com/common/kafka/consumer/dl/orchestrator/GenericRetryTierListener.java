@@ -0,0 +1,165 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.constant.ResiliencyHeader;
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 지연 단계 토픽 consumer. 파티션의 head 가 due (FORWARDED_AT + 단계 지연) 가 아니면 due 시각까지 파티션을 멈추고
+// due 가 된 레코드만 원본 토픽으로 재발행한 뒤 처리한 위치까지만 커밋
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "retry.worker.tier", name = "enabled", havingValue = "true")
+public class GenericRetryTierListener {
+    static final String LISTENER_ID = "retryTierListener";
+
+    private final RetryOrchestrator retryOrchestrator;
+    private final RetryTierRouter retryTierRouter;
+    private final RetryMetrics retryMetrics;
+    private final RetryWorkerProperties properties;
+    private final KafkaListenerEndpointRegistry registry;
+    private final ScheduledExecutorService resumeExecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("retry-tier-resume-"));
+    // 파티션을 멈출 때마다 증가. 예약된 재개는 자신이 멈춘 세대일 때만 재개하여, 더 늦게 다시 멈춘 파티션을 일찍 풀지 않음
+    private final Map<TopicPartition, Long> pauseGenerations = new ConcurrentHashMap<>();
+
+    public GenericRetryTierListener(RetryOrchestrator retryOrchestrator, RetryTierRouter retryTierRouter, RetryMetrics retryMetrics,
+                                    RetryWorkerProperties properties, KafkaListenerEndpointRegistry registry) {
+        this.retryOrchestrator = retryOrchestrator;
+        this.retryTierRouter = retryTierRouter;
+        this.retryMetrics = retryMetrics;
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @KafkaListener(
+            id = LISTENER_ID,
+            topics = "#{@retryTierRouter.topics}",
+            groupId = "${spring.application.name}",
+            containerFactory = "retryTierKafkaListenerContainerFactory",
+            concurrency = "${retry.worker.tier.concurrency:3}"
+    )
+    public void onMessages(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        long now = System.currentTimeMillis();
+
+        Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> recordsByPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            recordsByPartition.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), k -> new ArrayList<>()).add(record);
+        }
+
+        Map<TopicPartition, List<Resend>> resends = new LinkedHashMap<>();
+        recordsByPartition.forEach((partition, partitionRecords) -> {
+            List<Resend> partitionResends = new ArrayList<>();
+            // 앞 레코드의 전송이 성공한 뒤에 다음 레코드를 보내므로, 실패한 레코드부터 되돌려도 이미 보낸 레코드가 다시 나가지 않음
+            CompletableFuture<SendResult<String, byte[]>> previous = CompletableFuture.completedFuture(null);
+            for (ConsumerRecord<String, byte[]> record : partitionRecords) {
+                long dueAt = getDueAt(record);
+                if (dueAt > now) {
+                    // 같은 단계 안에서는 뒤의 레코드가 더 늦게 due 가 되므로 head 의 due 까지 파티션 전체를 멈춤
+                    consumer.seek(partition, record.offset());
+                    pause(partition, dueAt - now);
+                    break;
+                }
+
+                retryMetrics.recordSchedulingSkew(dueAt, now);
+                previous = previous.thenCompose(ignored -> send(record));
+                partitionResends.add(new Resend(record, previous));
+            }
+            resends.put(partition, partitionResends);
+        });
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = complete(consumer, resends);
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resumeExecutor.shutdownNow();
+    }
+
+    // 파티션마다 처음 실패한 레코드 직전까지 커밋하고, 실패한 레코드부터 다시 읽도록 되돌림 (뒤의 레코드는 보내지 않은 상태)
+    private Map<TopicPartition, OffsetAndMetadata> complete(Consumer<?, ?> consumer, Map<TopicPartition, List<Resend>> resends) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        resends.forEach((partition, partitionResends) -> {
+            for (Resend resend : partitionResends) {
+                try {
+                    resend.future().join();
+                    offsets.put(partition, new OffsetAndMetadata(resend.record().offset() + 1));
+                } catch (Exception ex) {
+                    log.warn("failed to resend from retry tier, rewinding | topic: {}, partition: {}, offset: {}, message: {}",
+                            partition.topic(), partition.partition(), resend.record().offset(), ex.getMessage());
+                    consumer.seek(partition, resend.record().offset());
+                    pause(partition, properties.getScheduler().getNackDelayMs());
+                    break;
+                }
+            }
+        });
+        return offsets;
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> send(ConsumerRecord<String, byte[]> record) {
+        try {
+            return retryOrchestrator.resendFromTier(record);
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private void pause(TopicPartition partition, long delayMs) {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+
+        // 다음 poll 전에 반영되며, due 가 되면 scheduler thread 에서 재개 요청
+        long generation = pauseGenerations.merge(partition, 1L, Long::sum);
+        container.pausePartition(partition);
+        resumeExecutor.schedule(() -> {
+            if (pauseGenerations.get(partition) == generation) {
+                container.resumePartition(partition);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private long getDueAt(ConsumerRecord<String, byte[]> record) {
+        long forwardedAt = record.timestamp();
+        Header header = record.headers().lastHeader(ResiliencyHeader.FORWARDED_AT.getKey());
+        if (header != null) {
+            try {
+                forwardedAt = Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+            } catch (NumberFormatException e) {
+                log.warn("invalid forwarded at header, using record timestamp | topic: {}, key: {}", record.topic(), record.key());
+            }
+        }
+        return forwardedAt + retryTierRouter.getDelay(record.topic());
+    }
+
+    private record Resend(ConsumerRecord<String, byte[]> record, CompletableFuture<SendResult<String, byte[]>> future) {
+    }
+}
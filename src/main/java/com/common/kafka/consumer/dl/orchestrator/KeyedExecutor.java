@@ -0,0 +1,87 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+// spring.threads.virtual.enabled 이면 작업을 virtual thread 에서 실행하되, 같은 key 의 작업은 앞 작업의 future 가 끝난 뒤에 시작 (key 단위 순서 유지)
+// 비활성화면 호출한 thread 에서 바로 실행 (기존 동작)
+@Component
+public class KeyedExecutor {
+    private final ExecutorService executor;
+    // key 별 마지막 작업. 끝나면 제거되므로 진행 중인 key 수만큼만 유지
+    private final Map<String, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+    @Autowired
+    public KeyedExecutor(Environment environment) {
+        this(Threading.VIRTUAL.isActive(environment)
+                ? newVirtualThreadExecutor("retry-vt-")
+                : null);
+    }
+
+    // 지정한 executor 에서 실행 (null 이면 호출한 thread 에서 바로 실행)
+    public KeyedExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    // baseline 은 Java 17 이므로 virtual thread API 는 reflection 으로 호출 (Threading.VIRTUAL 은 Java 21 이상에서만 활성화됨)
+    public static ExecutorService newVirtualThreadExecutor(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = builderType.getMethod("name", String.class, long.class)
+                    .invoke(Thread.class.getMethod("ofVirtual").invoke(null), prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("virtual threads are not supported by this runtime", e);
+        }
+    }
+
+    public boolean isVirtual() {
+        return executor != null;
+    }
+
+    public <T> CompletableFuture<T> submit(String key, Supplier<CompletableFuture<T>> task) {
+        if (executor == null) {
+            try {
+                return task.get();
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (key == null) {
+            return CompletableFuture.supplyAsync(task, executor).thenCompose(future -> future);
+        }
+
+        CompletableFuture<T> next = new CompletableFuture<>();
+        CompletableFuture<?> previous = tails.put(key, next);
+        // 앞 작업이 실패해도 다음 작업은 실행
+        CompletableFuture<?> ready = previous != null ? previous.handle((result, ex) -> null) : CompletableFuture.completedFuture(null);
+        ready.thenComposeAsync(ignored -> task.get(), executor).whenComplete((result, ex) -> {
+            tails.remove(key, next);
+            if (ex != null) {
+                next.completeExceptionally(ex);
+            } else {
+                next.complete(result);
+            }
+        });
+        return next;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// parallel 모드에서 파티션별로 처리 중인 offset 을 추적하고, 앞에서부터 연속으로 끝난 위치까지만 커밋 대상으로 반환
+// register / committable / revoke 는 consumer thread, complete 는 worker thread 에서 호출
+public class PartitionOffsetTracker {
+    private final Map<TopicPartition, PartitionState> partitions = new ConcurrentHashMap<>();
+
+    // 반환된 Runnable 로 완료를 알림. revoke 이후의 완료는 (같은 파티션을 다시 할당받았더라도) 무시
+    public Runnable register(TopicPartition partition, long offset) {
+        PartitionState state = partitions.computeIfAbsent(partition, k -> new PartitionState());
+        state.register(offset);
+        return () -> state.complete(offset);
+    }
+
+    public int pending(TopicPartition partition) {
+        PartitionState state = partitions.get(partition);
+        return state != null ? state.pending() : 0;
+    }
+
+    public int pendingCount() {
+        return partitions.values().stream().mapToInt(PartitionState::pending).sum();
+    }
+
+    // 마지막으로 커밋에 성공한 이후 전진한 파티션의 커밋 위치 (커밋이 실패하면 다음 호출에서 다시 반환)
+    public Map<TopicPartition, OffsetAndMetadata> committable(Collection<TopicPartition> assigned) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : assigned) {
+            PartitionState state = partitions.get(partition);
+            long offset = state != null ? state.advance() : -1;
+            if (offset >= 0) {
+                offsets.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+        return offsets;
+    }
+
+    // commitAsync 가 성공한 뒤 (consumer thread 의 callback 에서) 호출
+    public void committed(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        offsets.forEach((partition, offset) -> {
+            PartitionState state = partitions.get(partition);
+            if (state != null) {
+                state.committed(offset.offset());
+            }
+        });
+    }
+
+    // 회수된 파티션의 커밋 위치를 (이전 커밋이 실패했을 수 있으므로 전진 여부와 무관하게) 반환하고 상태를 제거
+    // 처리 중인 레코드는 새 소유자가 다시 처리
+    public Map<TopicPartition, OffsetAndMetadata> revoke(Collection<TopicPartition> revoked) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : revoked) {
+            PartitionState state = partitions.remove(partition);
+            long offset = state != null ? state.position() : -1;
+            if (offset >= 0) {
+                offsets.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+        return offsets;
+    }
+
+    private static class PartitionState {
+        private final TreeSet<Long> pending = new TreeSet<>();
+        // 마지막으로 등록된 offset + 1
+        private long next = -1;
+        private long committed = -1;
+
+        synchronized void register(long offset) {
+            pending.add(offset);
+            next = Math.max(next, offset + 1);
+        }
+
+        synchronized void complete(long offset) {
+            pending.remove(offset);
+        }
+
+        synchronized int pending() {
+            return pending.size();
+        }
+
+        // 가장 앞의 미완료 offset (없으면 마지막 offset 다음) 이 커밋 위치
+        synchronized long position() {
+            return pending.isEmpty() ? next : pending.first();
+        }
+
+        // 마지막으로 커밋된 위치보다 전진했으면 새 커밋 위치, 아니면 -1
+        synchronized long advance() {
+            long position = position();
+            return position > committed ? position : -1;
+        }
+
+        synchronized void committed(long offset) {
+            committed = Math.max(committed, offset);
+        }
+    }
+}
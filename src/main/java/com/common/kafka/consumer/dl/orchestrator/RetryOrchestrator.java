@@ -1,116 +1,401 @@
 package com.common.kafka.consumer.dl.orchestrator;
 
+import com.common.kafka.constant.ResiliencyHeader;
 import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
 import com.common.kafka.consumer.dl.domain.KafkaDeadLetter;
-import com.common.kafka.consumer.dl.domain.KafkaDeadLetterRepository;
 import com.common.kafka.consumer.dl.domain.KafkaDeadLetterStatus;
+import com.common.kafka.consumer.dl.domain.PayloadCodec;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import com.common.kafka.consumer.dl.policy.RetryPolicy;
+import com.common.kafka.consumer.dl.policy.RetryPolicyRegistry;
+import com.common.kafka.consumer.dl.policy.TopicThrottle;
+import com.common.kafka.consumer.dl.queue.RetryQueue;
+import com.common.kafka.consumer.dl.queue.ScoredRetryMessage;
 import com.common.kafka.consumer.dl.resource.RetryMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.common.kafka.consumer.dl.resource.RetryRecord;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.dao.NonTransientDataAccessException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 
 @Slf4j
 @Service
 public class RetryOrchestrator {
 
     private final RetryWorkerProperties properties;
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final KafkaDeadLetterRepository kafkaDeadLetterRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final RetryQueue retryQueue;
+    private final DeadLetterWriter deadLetterWriter;
+    private final DeadLetterAggregator deadLetterAggregator;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final RetryMetrics retryMetrics;
+    private final RetryPolicyRegistry retryPolicyRegistry;
+    private final RetryTierRouter retryTierRouter;
+    private final TopicThrottle topicThrottle;
+    private final Semaphore redisPermits;
 
-    public static final String REDIS_QUEUE_KEY = "platform:retry:queue";
     public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    public static final String RETRY_DELAY_HEADER = "x-retry-delay";
+    public static final String RETRY_DUE_AT_HEADER = "x-retry-due-at";
+    private static final Set<String> TIER_OVERRIDDEN_HEADERS = Set.of(ResiliencyHeader.FORWARDED_AT.getKey(), RETRY_DELAY_HEADER, RETRY_DUE_AT_HEADER);
 
-    public RetryOrchestrator(RetryWorkerProperties properties, RedisTemplate<String, Object> redisTemplate, KafkaDeadLetterRepository kafkaDeadLetterRepository, @Qualifier("commonKafkaTemplate") KafkaTemplate<String, Object> kafkaTemplate, ObjectMapper objectMapper) {
+    public RetryOrchestrator(RetryWorkerProperties properties, RetryQueue retryQueue, DeadLetterWriter deadLetterWriter, DeadLetterAggregator deadLetterAggregator, @Qualifier("retryKafkaTemplate") KafkaTemplate<String, byte[]> kafkaTemplate, RetryMetrics retryMetrics, RetryPolicyRegistry retryPolicyRegistry, RetryTierRouter retryTierRouter, TopicThrottle topicThrottle) {
         this.properties = properties;
-        this.redisTemplate = redisTemplate;
-        this.kafkaDeadLetterRepository = kafkaDeadLetterRepository;
+        this.retryQueue = retryQueue;
+        this.deadLetterWriter = deadLetterWriter;
+        this.deadLetterAggregator = deadLetterAggregator;
         this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+        this.retryMetrics = retryMetrics;
+        this.retryPolicyRegistry = retryPolicyRegistry;
+        this.retryTierRouter = retryTierRouter;
+        this.topicThrottle = topicThrottle;
+        this.redisPermits = new Semaphore(properties.getVirtualThreads().getRedisPermits());
     }
 
-    public void process(ConsumerRecord<String, String> record) {
+    // 반환된 future 가 완료된 뒤에 offset 을 커밋 (dead letter 는 batch insert 가 끝나야 완료)
+    public CompletableFuture<Void> process(ConsumerRecord<String, byte[]> record) {
         String originalTopic = getHeader(record, ResiliencyHeader.ORIGINAL_TOPIC.getKey());
         int currentRetryCount = getIntHeader(record, RETRY_COUNT_HEADER);
+        recordReturned(record, originalTopic, currentRetryCount);
+        RetryPolicy policy = getPolicy(record, originalTopic);
 
-        if (originalTopic == null) {
-            log.warn("missing original topic header | topic: {}, key: {}", record.topic(), record.key());
-            saveToDeadLetter(record, "missing x-original-topic header");
-            return;
+        String reason = getDeadLetterReason(record, originalTopic, currentRetryCount, policy);
+        if (reason != null) {
+            return saveToDeadLetter(record, reason);
         }
 
-        if (currentRetryCount >= properties.getMaxRetryCount()) {
-            log.warn("max retry reached ({}) | topic: {}, key: {}", currentRetryCount, record.topic(), record.key());
-            saveToDeadLetter(record, "max retry count exceeded");
-            return;
+        long delay = getDelay(record, currentRetryCount, policy);
+        if (retryTierRouter.isEnabled()) {
+            // 전송이 확인된 뒤에 완료되는 future 를 반환하여 호출한 thread 를 막지 않고 전송 이후에 ack
+            return forwardToTier(record, delay).thenRun(() -> retryMetrics.recordEnqueue(originalTopic, currentRetryCount));
         }
 
-        long delay = properties.getDelayMs() * (long) Math.pow(2, currentRetryCount);
-        long score = System.currentTimeMillis() + delay;
+        long score = getScore(record, System.currentTimeMillis(), delay);
 
-        Object value = record.value();
+        RetryMessage dto = toRetryMessage(record, originalTopic, currentRetryCount, delay);
+
+        acquireRedisPermit();
         try {
-            value = objectMapper.readValue(record.value(), Object.class);
-        } catch (Exception e) {
-            // ignore
+            retryQueue.add(dto, score);
+        } finally {
+            redisPermits.release();
         }
+        retryMetrics.recordEnqueue(originalTopic, currentRetryCount);
+        log.info("enqueued to redis | key: {}, score: {}, delay: {}ms", dto.getKey(), score, delay);
+        return CompletableFuture.completedFuture(null);
+    }
 
-        RetryMessage dto = RetryMessage.builder()
-                .key(record.key() != null ? record.key() : "null")
-                .value(value)
-                .originalTopic(originalTopic)
-                .headers(extractHeaders(record))
-                .retryCount(currentRetryCount)
-                .build();
+    // 적재하지 못한 레코드를 순서대로 반환 (listener 는 이 레코드만 다시 처리하므로 이미 적재된 레코드가 중복 적재되지 않음)
+    public List<ConsumerRecord<String, byte[]>> processBatch(List<ConsumerRecord<String, byte[]>> records) {
+        long now = System.currentTimeMillis();
+        List<CompletableFuture<?>> results = new ArrayList<>(Collections.nCopies(records.size(), null));
+        List<ScoredRetryMessage> messages = new ArrayList<>();
+        List<Integer> queued = new ArrayList<>();
+        int forwarded = 0;
+        int deadLetters = 0;
 
-        redisTemplate.opsForZSet().add(REDIS_QUEUE_KEY, dto, score);
-        log.info("enqueued to redis | key: {}, score: {}, delay: {}ms", dto.getKey(), score, delay);
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, byte[]> record = records.get(i);
+            try {
+                String originalTopic = getHeader(record, ResiliencyHeader.ORIGINAL_TOPIC.getKey());
+                int currentRetryCount = getIntHeader(record, RETRY_COUNT_HEADER);
+                recordReturned(record, originalTopic, currentRetryCount);
+                RetryPolicy policy = getPolicy(record, originalTopic);
+
+                String reason = getDeadLetterReason(record, originalTopic, currentRetryCount, policy);
+                if (reason != null) {
+                    KafkaDeadLetter deadLetter = toDeadLetter(record, reason);
+                    results.set(i, dropIfNotStorable(deadLetter, deadLetterWriter.add(deadLetter)));
+                    retryMetrics.recordDeadLetter(deadLetter.getTopic(), currentRetryCount);
+                    deadLetters++;
+                    continue;
+                }
+
+                long delay = getDelay(record, currentRetryCount, policy);
+                if (retryTierRouter.isEnabled()) {
+                    results.set(i, forwardToTier(record, delay));
+                    retryMetrics.recordEnqueue(originalTopic, currentRetryCount);
+                    forwarded++;
+                    continue;
+                }
+                messages.add(new ScoredRetryMessage(toRetryMessage(record, originalTopic, currentRetryCount, delay), getScore(record, now, delay)));
+                queued.add(i);
+            } catch (RuntimeException e) {
+                log.warn("failed to prepare record | topic: {}, key: {}, message: {}", record.topic(), record.key(), e.getMessage());
+                results.set(i, CompletableFuture.failedFuture(e));
+            }
+        }
+
+        // shard 별 ZADD 를 한 번의 round trip 에 적재
+        if (!messages.isEmpty()) {
+            CompletableFuture<Void> added = enqueueAll(messages);
+            queued.forEach(i -> results.set(i, added));
+        }
+
+        // 전송 / dead letter insert 가 끝날 때까지 대기하고 실패한 레코드만 모음
+        List<ConsumerRecord<String, byte[]>> failed = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                results.get(i).join();
+            } catch (CompletionException | CancellationException e) {
+                failed.add(records.get(i));
+            }
+        }
+
+        log.info("enqueued batch | records: {}, enqueued: {}, forwarded: {}, deadLetters: {}, failed: {}", records.size(), messages.size(), forwarded, deadLetters, failed.size());
+        return failed;
+    }
+
+    public CompletableFuture<SendResult<String, byte[]>> resend(RetryRecord record) {
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, byte[]>> future = kafkaTemplate.send(toProducerRecord(record));
+        future.whenComplete((result, ex) -> {
+            retryMetrics.recordResend(record.originalTopic(), record.retryCount(), ex == null, System.nanoTime() - start);
+            if (ex == null) {
+                log.info("resent to original topic | topic: {}, key: {}, nextRetry: {}", record.originalTopic(), record.key(), record.retryCount() + 1);
+            } else {
+                log.warn("failed to resend to original topic | topic: {}, key: {}, message: {}", record.originalTopic(), record.key(), ex.getMessage());
+            }
+        });
+        return future;
+    }
+
+    // due 가 된 지연 단계 토픽의 레코드를 원본 토픽으로 재발행 (단계 토픽에서 받은 header / value 를 그대로 사용)
+    public CompletableFuture<SendResult<String, byte[]>> resendFromTier(ConsumerRecord<String, byte[]> record) {
+        String originalTopic = getHeader(record, ResiliencyHeader.ORIGINAL_TOPIC.getKey());
+        List<Header> headers = record.headers() != null ? Arrays.asList(record.headers().toArray()) : List.of();
+        return resend(new RetryRecord(originalTopic, record.key() != null ? record.key() : "null", getIntHeader(record, RETRY_COUNT_HEADER),
+                record.value(), headers));
     }
 
-    public void resend(RetryMessage dto) {
-        List<Header> headers = dto.getHeaders().entrySet().stream()
-                .filter(entry -> !entry.getKey().equals(RETRY_COUNT_HEADER))
-                .map(entry -> new RecordHeader(entry.getKey(), entry.getValue().getBytes(StandardCharsets.UTF_8)))
-                .collect(Collectors.toList());
+    // 대기열 tuple 을 중간 Map / List 없이 바로 ProducerRecord 로 변환 (retry count header 만 다음 회차로 교체)
+    static ProducerRecord<String, byte[]> toProducerRecord(RetryRecord record) {
+        ProducerRecord<String, byte[]> producerRecord = new ProducerRecord<>(record.originalTopic(), null, record.key(), record.payload(), (Iterable<Header>) null);
+        for (Header header : record.headers()) {
+            if (!RETRY_COUNT_HEADER.equals(header.key())) {
+                producerRecord.headers().add(header);
+            }
+        }
+        producerRecord.headers().add(RETRY_COUNT_HEADER, String.valueOf(record.retryCount() + 1).getBytes(StandardCharsets.UTF_8));
+        return producerRecord;
+    }
 
-        int nextRetryCount = dto.getRetryCount() + 1;
-        headers.add(new RecordHeader(RETRY_COUNT_HEADER, String.valueOf(nextRetryCount).getBytes(StandardCharsets.UTF_8)));
+    private CompletableFuture<SendResult<String, byte[]>> forwardToTier(ConsumerRecord<String, byte[]> record, long delay) {
+        String tierTopic = retryTierRouter.getTopic(delay);
+        List<Header> headers = new ArrayList<>();
+        if (record.headers() != null) {
+            for (Header header : record.headers()) {
+                if (!TIER_OVERRIDDEN_HEADERS.contains(header.key())) {
+                    headers.add(header);
+                }
+            }
+        }
+        // 단계 consumer 는 FORWARDED_AT + 단계 지연을 due 시각으로 사용
+        headers.add(new RecordHeader(ResiliencyHeader.FORWARDED_AT.getKey(), String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8)));
+        headers.add(new RecordHeader(RETRY_DELAY_HEADER, String.valueOf(delay).getBytes(StandardCharsets.UTF_8)));
 
-        kafkaTemplate.send(new ProducerRecord<>(dto.getOriginalTopic(), null, dto.getKey(), dto.getValue(), headers));
-        log.info("resent to original topic | topic: {}, key: {}, nextRetry: {}", dto.getOriginalTopic(), dto.getKey(), nextRetryCount);
+        // key 를 유지하여 같은 key 는 단계 토픽에서도 같은 파티션 (순서 유지)
+        CompletableFuture<SendResult<String, byte[]>> future = kafkaTemplate.send(new ProducerRecord<>(tierTopic, null, record.key(), record.value(), headers));
+        future.whenComplete((result, ex) -> {
+            if (ex == null) {
+                log.info("forwarded to retry tier | key: {}, tier: {}, delay: {}ms", record.key(), tierTopic, delay);
+            } else {
+                log.warn("failed to forward to retry tier | key: {}, tier: {}, message: {}", record.key(), tierTopic, ex.getMessage());
+            }
+        });
+        return future;
     }
 
-    private void saveToDeadLetter(ConsumerRecord<String, String> record, String reason) {
+    private CompletableFuture<Void> saveToDeadLetter(ConsumerRecord<String, byte[]> record, String reason) {
+        KafkaDeadLetter kafkaDeadLetter = toDeadLetter(record, reason);
+        retryMetrics.recordDeadLetter(kafkaDeadLetter.getTopic(), getIntHeader(record, RETRY_COUNT_HEADER));
+        return dropIfNotStorable(kafkaDeadLetter, deadLetterWriter.add(kafkaDeadLetter)
+                .thenRun(() -> log.warn("saved to kafka dead letters table | key: {}, topic: {}, reason: {}", record.key(), kafkaDeadLetter.getTopic(), reason)));
+    }
+
+    // 제약 조건 위반처럼 다시 넣어도 저장할 수 없는 행은 버리고 완료로 처리 (원본 레코드를 재시도하면 consumer 가 영원히 멈춤)
+    private CompletableFuture<Void> dropIfNotStorable(KafkaDeadLetter deadLetter, CompletableFuture<Void> added) {
+        return added.exceptionallyCompose(ex -> {
+            if (!isNonTransient(ex)) {
+                return CompletableFuture.failedFuture(ex);
+            }
+
+            log.error("dropped dead letter that cannot be stored | key: {}, topic: {}, message: {}", deadLetter.getMessageKey(), deadLetter.getTopic(), ex.getMessage());
+            retryMetrics.recordDeadLetterDropped(deadLetter.getTopic());
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private static boolean isNonTransient(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NonTransientDataAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private KafkaDeadLetter toDeadLetter(ConsumerRecord<String, byte[]> record, String reason) {
         String originalTopic = getHeader(record, ResiliencyHeader.ORIGINAL_TOPIC.getKey());
         String topic = originalTopic != null ? originalTopic : record.topic();
+        String payload = record.value() != null ? new String(record.value(), StandardCharsets.UTF_8) : null;
+        // 설정이 커도 payload_preview 컬럼 길이를 넘지 않도록 제한
+        int previewLength = Math.min(properties.getAdmin().getPayloadPreviewLength(), KafkaDeadLetter.PAYLOAD_PREVIEW_LENGTH);
+        String exceptionType = getHeader(record, retryPolicyRegistry.getExceptionHeader());
 
-        KafkaDeadLetter kafkaDeadLetter = KafkaDeadLetter.builder()
+        // 문자열 컬럼은 모두 길이에 맞춰 자름 (한 행이라도 insert 에 실패하면 원본 레코드를 커밋할 수 없음)
+        KafkaDeadLetter.KafkaDeadLetterBuilder builder = KafkaDeadLetter.builder()
                 .topic(topic)
-                .messageKey(record.key())
-                .payload(String.valueOf(record.value()))
-                .exceptionMessage(reason)
-                .status(KafkaDeadLetterStatus.FAILED)
+                .messageKey(truncate(record.key(), KafkaDeadLetter.MESSAGE_KEY_LENGTH))
+                .exceptionType(truncate(exceptionType, KafkaDeadLetter.EXCEPTION_TYPE_LENGTH))
+                .fingerprint(deadLetterAggregator.fingerprint(topic, exceptionType, reason, record.value()))
+                .payloadSize(record.value() != null ? record.value().length : 0)
+                .payloadPreview(truncate(payload, previewLength))
+                .exceptionMessage(truncate(reason, KafkaDeadLetter.EXCEPTION_MESSAGE_LENGTH))
+                .status(KafkaDeadLetterStatus.FAILED);
+        return encodePayload(builder, record.value(), payload).build();
+    }
+
+    // compression-threshold-bytes 이상이면 압축하고, 인코딩 결과가 external-threshold-bytes 를 넘으면 외부 payload 테이블로 분리
+    private KafkaDeadLetter.KafkaDeadLetterBuilder encodePayload(KafkaDeadLetter.KafkaDeadLetterBuilder builder, byte[] value, String payload) {
+        RetryWorkerProperties.DeadLetter deadLetter = properties.getDeadLetter();
+        if (value == null) {
+            return builder;
+        }
+
+        PayloadCodec codec = PayloadCodec.NONE;
+        byte[] encoded = value;
+        if (deadLetter.getCompression() != PayloadCodec.NONE && value.length >= deadLetter.getCompressionThresholdBytes()) {
+            byte[] compressed = deadLetter.getCompression().compress(value);
+            // 압축 효과가 없으면 원문 유지
+            if (compressed.length < value.length) {
+                codec = deadLetter.getCompression();
+                encoded = compressed;
+            }
+        }
+
+        if (encoded.length > deadLetter.getExternalThresholdBytes()) {
+            return builder.payloadCodec(codec).payloadData(encoded).payloadExternal(true);
+        }
+        if (codec == PayloadCodec.NONE) {
+            return builder.payload(payload).payloadCodec(codec).payloadExternal(false);
+        }
+        return builder.payloadCodec(codec).payloadData(encoded).payloadExternal(false);
+    }
+
+    // virtual thread 모드에서는 동시 처리 수가 thread 수로 제한되지 않으므로 Redis 호출 수를 직접 제한
+    private void acquireRedisPermit() {
+        try {
+            redisPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for redis permit", e);
+        }
+    }
+
+    private CompletableFuture<Void> enqueueAll(List<ScoredRetryMessage> messages) {
+        try {
+            acquireRedisPermit();
+            try {
+                retryQueue.addAll(messages);
+            } finally {
+                redisPermits.release();
+            }
+        } catch (RuntimeException e) {
+            log.warn("failed to enqueue batch | messages: {}, message: {}", messages.size(), e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+        messages.forEach(message -> retryMetrics.recordEnqueue(message.message().getOriginalTopic(), message.message().getRetryCount()));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // 재시도 횟수가 있으면 재발행한 메시지가 원본 consumer 에서 다시 실패하여 되돌아온 것 (circuit breaker 판단에 사용)
+    // timing-wheel shard 를 넘겨받은 항목 (due 시각 header) 은 rebalance 로 옮겨진 것이므로 세지 않음
+    private void recordReturned(ConsumerRecord<String, byte[]> record, String originalTopic, int currentRetryCount) {
+        if (currentRetryCount > 0 && getHeader(record, RETRY_DUE_AT_HEADER) == null) {
+            topicThrottle.recordReturned(originalTopic);
+        }
+    }
+
+    private RetryPolicy getPolicy(ConsumerRecord<String, byte[]> record, String originalTopic) {
+        return retryPolicyRegistry.resolve(originalTopic, getHeader(record, retryPolicyRegistry.getExceptionHeader()));
+    }
+
+    private String getDeadLetterReason(ConsumerRecord<String, byte[]> record, String originalTopic, int currentRetryCount, RetryPolicy policy) {
+        if (originalTopic == null) {
+            log.warn("missing original topic header | topic: {}, key: {}", record.topic(), record.key());
+            return "missing x-original-topic header";
+        }
+
+        if (currentRetryCount >= policy.getMaxRetryCount()) {
+            log.warn("max retry reached ({}) | topic: {}, key: {}", currentRetryCount, record.topic(), record.key());
+            return "max retry count exceeded";
+        }
+
+        return null;
+    }
+
+    private long getDelay(ConsumerRecord<String, byte[]> record, int currentRetryCount, RetryPolicy policy) {
+        // timing-wheel shard 를 넘겨받은 항목은 이전 소유자가 계산한 지연을 유지
+        if (getHeader(record, RETRY_DUE_AT_HEADER) != null) {
+            return getIntHeader(record, RETRY_DELAY_HEADER);
+        }
+
+        // decorrelated jitter 는 직전 지연을 기준으로 계산하므로 재발행 시 header 로 전달
+        return policy.getDelay(currentRetryCount, getIntHeader(record, RETRY_DELAY_HEADER));
+    }
+
+    private long getScore(ConsumerRecord<String, byte[]> record, long now, long delay) {
+        String dueAt = getHeader(record, RETRY_DUE_AT_HEADER);
+        if (dueAt != null) {
+            try {
+                return Long.parseLong(dueAt);
+            } catch (NumberFormatException e) {
+                log.warn("invalid due at header | topic: {}, key: {}, dueAt: {}", record.topic(), record.key(), dueAt);
+            }
+        }
+        return now + delay;
+    }
+
+    private RetryMessage toRetryMessage(ConsumerRecord<String, byte[]> record, String originalTopic, int currentRetryCount, long delay) {
+        Map<String, String> headers = extractHeaders(record);
+        headers.remove(RETRY_DUE_AT_HEADER);
+        headers.put(RETRY_DELAY_HEADER, String.valueOf(delay));
+
+        // 원본 bytes 를 그대로 적재하고 재발행 (JSON 파싱 / 재직렬화 없음)
+        return RetryMessage.builder()
+                .key(record.key() != null ? record.key() : "null")
+                .payload(record.value())
+                .originalTopic(originalTopic)
+                .headers(headers)
+                .retryCount(currentRetryCount)
+                .sourcePartition(record.partition())
                 .build();
+    }
 
-        kafkaDeadLetterRepository.save(kafkaDeadLetter);
-        log.warn("saved to kafka dead letters table | key: {}, topic: {}, id: {}, reason: {}", record.key(), topic, kafkaDeadLetter.getId(), reason);
+    private static String truncate(String value, int length) {
+        return value != null && value.length() > length ? value.substring(0, length) : value;
     }
 
-    private Map<String, String> extractHeaders(ConsumerRecord<String, String> record) {
+    private Map<String, String> extractHeaders(ConsumerRecord<String, byte[]> record) {
         Map<String, String> headersMap = new HashMap<>();
         if (record.headers() != null) {
             for (Header header : record.headers()) {
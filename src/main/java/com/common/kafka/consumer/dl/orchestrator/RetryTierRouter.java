@@ -0,0 +1,56 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// 계산된 backoff 를 고정 지연 단계 토픽으로 매핑 (retry.worker.tier)
+@Component
+public class RetryTierRouter {
+    private final boolean enabled;
+    private final NavigableMap<Long, String> topicsByDelay = new TreeMap<>();
+    private final Map<String, Long> delaysByTopic = new HashMap<>();
+
+    public RetryTierRouter(RetryWorkerProperties properties) {
+        RetryWorkerProperties.Tier tier = properties.getTier();
+        this.enabled = tier.isEnabled();
+        if (enabled && tier.getDelays().isEmpty()) {
+            throw new IllegalStateException("retry.worker.tier.delays must not be empty when tier is enabled");
+        }
+
+        tier.getDelays().forEach((name, delayMs) -> {
+            String topic = tier.getTopicPrefix() + name;
+            topicsByDelay.put(delayMs, topic);
+            delaysByTopic.put(topic, delayMs);
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<String> getTopics() {
+        return Collections.unmodifiableList(new ArrayList<>(topicsByDelay.values()));
+    }
+
+    // backoff 보다 일찍 재시도하지 않도록 backoff 이상인 가장 짧은 단계 (backoff 가 가장 긴 단계보다 길면 가장 긴 단계)
+    public String getTopic(long delayMs) {
+        Map.Entry<Long, String> tier = topicsByDelay.ceilingEntry(delayMs);
+        return tier != null ? tier.getValue() : topicsByDelay.lastEntry().getValue();
+    }
+
+    public long getDelay(String topic) {
+        Long delayMs = delaysByTopic.get(topic);
+        if (delayMs == null) {
+            throw new IllegalArgumentException("unknown retry tier topic: " + topic);
+        }
+        return delayMs;
+    }
+}
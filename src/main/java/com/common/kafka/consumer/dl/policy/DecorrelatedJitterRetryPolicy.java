@@ -0,0 +1,31 @@
+package com.common.kafka.consumer.dl.policy;
+
+import lombok.Getter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@Getter
+public class DecorrelatedJitterRetryPolicy implements RetryPolicy {
+    private final long delayMs;
+    private final long maxDelayMs;
+    private final double multiplier;
+    private final int maxRetryCount;
+
+    public DecorrelatedJitterRetryPolicy(long delayMs, long maxDelayMs, double multiplier, int maxRetryCount) {
+        this.delayMs = delayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.multiplier = multiplier;
+        this.maxRetryCount = maxRetryCount;
+    }
+
+    @Override
+    public long getDelay(int retryCount, long previousDelayMs) {
+        // decorrelated jitter: [base, previous * multiplier] 에서 선택 (이전 지연을 기준으로 하므로 메시지마다 독립적으로 퍼짐)
+        long previous = Math.max(previousDelayMs, delayMs);
+        long upper = (long) Math.min(previous * multiplier, maxDelayMs);
+        if (upper <= delayMs) {
+            return Math.min(delayMs, maxDelayMs);
+        }
+        return ThreadLocalRandom.current().nextLong(delayMs, upper + 1);
+    }
+}
@@ -0,0 +1,31 @@
+package com.common.kafka.consumer.dl.policy;
+
+import lombok.Getter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@Getter
+public class ExponentialRetryPolicy implements RetryPolicy {
+    private final long delayMs;
+    private final long maxDelayMs;
+    private final double multiplier;
+    private final int maxRetryCount;
+    private final boolean fullJitter;
+
+    public ExponentialRetryPolicy(long delayMs, long maxDelayMs, double multiplier, int maxRetryCount, boolean fullJitter) {
+        this.delayMs = delayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.multiplier = multiplier;
+        this.maxRetryCount = maxRetryCount;
+        this.fullJitter = fullJitter;
+    }
+
+    @Override
+    public long getDelay(int retryCount, long previousDelayMs) {
+        double delay = delayMs * Math.pow(multiplier, Math.max(retryCount, 0));
+        long capped = (long) Math.min(delay, maxDelayMs);
+
+        // full jitter: [0, capped] 에서 균등 분포로 선택하여 동시에 실패한 메시지들이 같은 시각에 몰리지 않도록 분산
+        return fullJitter ? ThreadLocalRandom.current().nextLong(capped + 1) : capped;
+    }
+}
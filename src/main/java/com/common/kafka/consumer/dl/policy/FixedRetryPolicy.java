@@ -0,0 +1,19 @@
+package com.common.kafka.consumer.dl.policy;
+
+import lombok.Getter;
+
+@Getter
+public class FixedRetryPolicy implements RetryPolicy {
+    private final long delayMs;
+    private final int maxRetryCount;
+
+    public FixedRetryPolicy(long delayMs, int maxRetryCount) {
+        this.delayMs = delayMs;
+        this.maxRetryCount = maxRetryCount;
+    }
+
+    @Override
+    public long getDelay(int retryCount, long previousDelayMs) {
+        return delayMs;
+    }
+}
@@ -0,0 +1,9 @@
+package com.common.kafka.consumer.dl.policy;
+
+public interface RetryPolicy {
+
+    int getMaxRetryCount();
+
+    // previousDelayMs 는 직전 재시도에 적용된 지연 (첫 재시도이거나 알 수 없으면 0)
+    long getDelay(int retryCount, long previousDelayMs);
+}
@@ -0,0 +1,143 @@
+package com.common.kafka.consumer.dl.policy;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.resource.RetryPolicyResource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+public class RetryPolicyRegistry {
+    private static final String POLICY_PREFIX = "retry.worker.policy";
+    private static final long UNBOUNDED_DELAY_MS = Long.MAX_VALUE;
+    private static final double DEFAULT_MULTIPLIER = 2.0;
+
+    private final RetryWorkerProperties properties;
+    private final Environment environment;
+
+    // 설정을 미리 RetryPolicy 로 변환해 둔 lookup table (reload 시 통째로 교체)
+    private volatile PolicyTable policyTable;
+
+    public RetryPolicyRegistry(RetryWorkerProperties properties, Environment environment) {
+        this.properties = properties;
+        this.environment = environment;
+        this.policyTable = build(properties.getPolicy());
+    }
+
+    public RetryPolicy resolve(String topic, String exceptionType) {
+        PolicyTable table = policyTable;
+        TopicPolicy topicPolicy = topic != null ? table.topics().get(topic) : null;
+        if (topicPolicy == null) {
+            topicPolicy = table.defaults();
+        }
+
+        if (exceptionType != null) {
+            RetryPolicy exceptionPolicy = topicPolicy.exceptions().get(exceptionType);
+            if (exceptionPolicy != null) {
+                return exceptionPolicy;
+            }
+        }
+        return topicPolicy.policy();
+    }
+
+    public String getExceptionHeader() {
+        return policyTable.exceptionHeader();
+    }
+
+    public List<RetryPolicyResource> findPolicies() {
+        return policyTable.resources();
+    }
+
+    public List<RetryPolicyResource> reload() {
+        // 현재 Environment 의 retry.worker.policy 를 다시 바인딩하여 교체 (설정 오류 시 기존 정책 유지)
+        RetryWorkerProperties.Policy policy = Binder.get(environment)
+                .bind(POLICY_PREFIX, RetryWorkerProperties.Policy.class)
+                .orElseGet(RetryWorkerProperties.Policy::new);
+        policyTable = build(policy);
+        log.info("reloaded retry policies | topics: {}", policy.getTopics().keySet());
+        return policyTable.resources();
+    }
+
+    private PolicyTable build(RetryWorkerProperties.Policy policy) {
+        RetryWorkerProperties.PolicySpec base = new RetryWorkerProperties.PolicySpec();
+        base.setType(RetryWorkerProperties.PolicyType.EXPONENTIAL);
+        base.setDelayMs(properties.getDelayMs());
+        base.setMaxDelayMs(UNBOUNDED_DELAY_MS);
+        base.setMultiplier(DEFAULT_MULTIPLIER);
+        base.setMaxRetryCount(properties.getMaxRetryCount());
+
+        List<RetryPolicyResource> resources = new ArrayList<>();
+        RetryWorkerProperties.PolicySpec defaults = merge(base, policy.getDefaults());
+        TopicPolicy defaultPolicy = toTopicPolicy(null, defaults, resources);
+
+        Map<String, TopicPolicy> topics = new HashMap<>();
+        policy.getTopics().forEach((topic, spec) -> topics.put(topic, toTopicPolicy(topic, merge(defaults, spec), resources)));
+
+        return new PolicyTable(policy.getExceptionHeader(), defaultPolicy, Collections.unmodifiableMap(topics),
+                Collections.unmodifiableList(resources));
+    }
+
+    private TopicPolicy toTopicPolicy(String topic, RetryWorkerProperties.PolicySpec spec, List<RetryPolicyResource> resources) {
+        resources.add(toResource(topic, null, spec));
+
+        Map<String, RetryPolicy> exceptions = new HashMap<>();
+        spec.getExceptions().forEach((exceptionType, exceptionSpec) -> {
+            RetryWorkerProperties.PolicySpec merged = merge(spec, exceptionSpec);
+            exceptions.put(exceptionType, toPolicy(merged));
+            resources.add(toResource(topic, exceptionType, merged));
+        });
+        return new TopicPolicy(toPolicy(spec), Collections.unmodifiableMap(exceptions));
+    }
+
+    private RetryPolicy toPolicy(RetryWorkerProperties.PolicySpec spec) {
+        switch (spec.getType()) {
+            case FIXED:
+                return new FixedRetryPolicy(spec.getDelayMs(), spec.getMaxRetryCount());
+            case EXPONENTIAL_FULL_JITTER:
+                return new ExponentialRetryPolicy(spec.getDelayMs(), spec.getMaxDelayMs(), spec.getMultiplier(), spec.getMaxRetryCount(), true);
+            case DECORRELATED_JITTER:
+                return new DecorrelatedJitterRetryPolicy(spec.getDelayMs(), spec.getMaxDelayMs(), spec.getMultiplier(), spec.getMaxRetryCount());
+            case EXPONENTIAL:
+            default:
+                return new ExponentialRetryPolicy(spec.getDelayMs(), spec.getMaxDelayMs(), spec.getMultiplier(), spec.getMaxRetryCount(), false);
+        }
+    }
+
+    private RetryWorkerProperties.PolicySpec merge(RetryWorkerProperties.PolicySpec parent, RetryWorkerProperties.PolicySpec child) {
+        RetryWorkerProperties.PolicySpec merged = new RetryWorkerProperties.PolicySpec();
+        merged.setType(child != null && child.getType() != null ? child.getType() : parent.getType());
+        merged.setDelayMs(child != null && child.getDelayMs() != null ? child.getDelayMs() : parent.getDelayMs());
+        merged.setMaxDelayMs(child != null && child.getMaxDelayMs() != null ? child.getMaxDelayMs() : parent.getMaxDelayMs());
+        merged.setMultiplier(child != null && child.getMultiplier() != null ? child.getMultiplier() : parent.getMultiplier());
+        merged.setMaxRetryCount(child != null && child.getMaxRetryCount() != null ? child.getMaxRetryCount() : parent.getMaxRetryCount());
+        merged.setExceptions(child != null ? child.getExceptions() : Collections.emptyMap());
+        return merged;
+    }
+
+    private RetryPolicyResource toResource(String topic, String exceptionType, RetryWorkerProperties.PolicySpec spec) {
+        return RetryPolicyResource.builder()
+                .topic(topic)
+                .exceptionType(exceptionType)
+                .type(spec.getType())
+                .delayMs(spec.getDelayMs())
+                .maxDelayMs(spec.getMaxDelayMs() != UNBOUNDED_DELAY_MS ? spec.getMaxDelayMs() : null)
+                .multiplier(spec.getMultiplier())
+                .maxRetryCount(spec.getMaxRetryCount())
+                .build();
+    }
+
+    private record TopicPolicy(RetryPolicy policy, Map<String, RetryPolicy> exceptions) {
+    }
+
+    private record PolicyTable(String exceptionHeader, TopicPolicy defaults, Map<String, TopicPolicy> topics,
+                               List<RetryPolicyResource> resources) {
+    }
+}
@@ -0,0 +1,277 @@
+package com.common.kafka.consumer.dl.policy;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import com.common.kafka.consumer.dl.resource.TopicThrottleResource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 원본 토픽별 재발행 제한 (replica 단위)
+// - token bucket: 토픽별 초당 재발행 수 제한
+// - circuit breaker: 재발행한 메시지가 retry 토픽으로 되돌아오는 비율이 높으면 open 하여 open-ms 동안 재발행을 멈추고,
+//   half-open 에서 몇 건만 보내본 뒤 되돌아오는 비율로 closed / open 결정
+@Slf4j
+@Component
+public class TopicThrottle {
+    public static final String CIRCUIT_OPEN = "circuit_open";
+    public static final String RATE_LIMITED = "rate_limited";
+
+    private static final int WINDOW_SLOTS = 10;
+
+    private final RetryWorkerProperties.RateLimit rateLimit;
+    private final RetryWorkerProperties.CircuitBreaker circuitBreaker;
+    private final RetryMetrics retryMetrics;
+    private final Map<String, TopicState> topics = new ConcurrentHashMap<>();
+
+    public TopicThrottle(RetryWorkerProperties properties, RetryMetrics retryMetrics) {
+        this.rateLimit = properties.getThrottle().getRateLimit();
+        this.circuitBreaker = properties.getThrottle().getCircuitBreaker();
+        this.retryMetrics = retryMetrics;
+    }
+
+    // 재발행해도 되면 0, 아니면 다시 시도할 시각 (epoch millis)
+    public long acquire(String topic, long now) {
+        TopicState state = getState(topic);
+        if (state == null) {
+            return 0;
+        }
+
+        long deferUntil;
+        String reason;
+        synchronized (state) {
+            deferUntil = state.checkCircuit(now);
+            reason = CIRCUIT_OPEN;
+            if (deferUntil == 0) {
+                deferUntil = state.takePermit(now);
+                reason = RATE_LIMITED;
+                if (deferUntil != 0) {
+                    state.returnProbe();
+                }
+            }
+            if (deferUntil == 0) {
+                state.resent.add(now);
+            }
+        }
+
+        if (deferUntil != 0) {
+            retryMetrics.recordResendDeferred(topic, reason);
+        }
+        return deferUntil;
+    }
+
+    // 재발행한 메시지가 원본 consumer 에서 다시 실패하여 retry 토픽으로 돌아옴
+    public void recordReturned(String topic) {
+        if (!circuitBreaker.isEnabled() || topic == null) {
+            return;
+        }
+        TopicState state = getState(topic);
+        synchronized (state) {
+            state.returned.add(System.currentTimeMillis());
+        }
+    }
+
+    public List<TopicThrottleResource> describe() {
+        long now = System.currentTimeMillis();
+        return topics.values().stream()
+                .map(state -> state.toResource(now))
+                .sorted(Comparator.comparing(TopicThrottleResource::getTopic))
+                .toList();
+    }
+
+    // 운영자가 원인을 해결한 뒤 open-ms 를 기다리지 않고 바로 재개
+    public TopicThrottleResource close(String topic) {
+        TopicState state = topics.get(topic);
+        if (state == null) {
+            throw new IllegalArgumentException("no throttle state for topic | topic: " + topic);
+        }
+        synchronized (state) {
+            state.transition(CircuitState.CLOSED, System.currentTimeMillis());
+        }
+        return state.toResource(System.currentTimeMillis());
+    }
+
+    // 제한이 없는 토픽은 상태를 만들지 않음 (circuit breaker 를 쓰면 관측된 모든 토픽)
+    private TopicState getState(String topic) {
+        if (topic == null) {
+            return null;
+        }
+        double permitsPerSecond = rateLimit.getTopics().getOrDefault(topic, rateLimit.getPermitsPerSecond());
+        if (!circuitBreaker.isEnabled() && permitsPerSecond <= 0) {
+            return null;
+        }
+        return topics.computeIfAbsent(topic, key -> {
+            TopicState state = new TopicState(key, permitsPerSecond);
+            retryMetrics.registerCircuitState(key, state, s -> s.circuitState.ordinal());
+            return state;
+        });
+    }
+
+    public enum CircuitState {
+        CLOSED,
+        HALF_OPEN,
+        OPEN,
+    }
+
+    private class TopicState {
+        private final String topic;
+        private final double permitsPerSecond;
+        private final double capacity;
+        private final SlidingCounter resent = new SlidingCounter(circuitBreaker.getWindowMs());
+        private final SlidingCounter returned = new SlidingCounter(circuitBreaker.getWindowMs());
+
+        private double tokens;
+        private long refilledAt;
+        private volatile CircuitState circuitState = CircuitState.CLOSED;
+        private long until;
+        private int probesLeft;
+
+        TopicState(String topic, double permitsPerSecond) {
+            this.topic = topic;
+            this.permitsPerSecond = permitsPerSecond;
+            this.capacity = Math.max(1, permitsPerSecond * rateLimit.getBurstSeconds());
+            this.tokens = capacity;
+            this.refilledAt = System.currentTimeMillis();
+        }
+
+        long checkCircuit(long now) {
+            if (!circuitBreaker.isEnabled()) {
+                return 0;
+            }
+
+            switch (circuitState) {
+                case OPEN -> {
+                    if (now < until) {
+                        return until;
+                    }
+                    transition(CircuitState.HALF_OPEN, now);
+                }
+                case HALF_OPEN -> {
+                    if (now >= until) {
+                        // 시험 재발행이 되돌아오는지 확인할 시간이 지남
+                        transition(isFailing(1, now) ? CircuitState.OPEN : CircuitState.CLOSED, now);
+                        return circuitState == CircuitState.OPEN ? until : 0;
+                    }
+                }
+                case CLOSED -> {
+                    if (isFailing(circuitBreaker.getMinimumResends(), now)) {
+                        transition(CircuitState.OPEN, now);
+                        return until;
+                    }
+                    return 0;
+                }
+            }
+
+            if (probesLeft == 0) {
+                return until;
+            }
+            probesLeft--;
+            return 0;
+        }
+
+        // half-open 시험 재발행을 rate limit 으로 보내지 못했으면 되돌림
+        void returnProbe() {
+            if (circuitState == CircuitState.HALF_OPEN) {
+                probesLeft++;
+            }
+        }
+
+        long takePermit(long now) {
+            if (permitsPerSecond <= 0) {
+                return 0;
+            }
+
+            // drain thread 마다 now 를 따로 구하므로 시각이 뒤로 가는 경우는 무시
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerSecond / 1000);
+                refilledAt = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return now + Math.max(1, (long) Math.ceil((1 - tokens) * 1000 / permitsPerSecond));
+        }
+
+        void transition(CircuitState next, long now) {
+            if (next != circuitState) {
+                log.warn("circuit state changed | topic: {}, from: {}, to: {}, resent: {}, returned: {}",
+                        topic, circuitState, next, resent.sum(now), returned.sum(now));
+                retryMetrics.recordCircuitTransition(topic, next.name());
+            }
+            circuitState = next;
+            // 새 상태의 판단은 새로 관측한 값으로만 (open 이전 재발행이 늦게 되돌아오는 것은 half-open 판단에 섞일 수 있음)
+            resent.reset();
+            returned.reset();
+            switch (next) {
+                case OPEN -> until = now + circuitBreaker.getOpenMs();
+                case HALF_OPEN -> {
+                    until = now + circuitBreaker.getProbeWindowMs();
+                    probesLeft = circuitBreaker.getHalfOpenProbes();
+                }
+                case CLOSED -> until = 0;
+            }
+        }
+
+        private boolean isFailing(int minimumResends, long now) {
+            long resentCount = resent.sum(now);
+            return resentCount >= Math.max(1, minimumResends) && returned.sum(now) >= resentCount * circuitBreaker.getFailureRatio();
+        }
+
+        synchronized TopicThrottleResource toResource(long now) {
+            return TopicThrottleResource.builder()
+                    .topic(topic)
+                    .circuitState(circuitState)
+                    .until(circuitState != CircuitState.CLOSED ? LocalDateTime.ofInstant(Instant.ofEpochMilli(until), ZoneId.systemDefault()) : null)
+                    .resent(resent.sum(now))
+                    .returned(returned.sum(now))
+                    .permitsPerSecond(permitsPerSecond)
+                    .availablePermits(permitsPerSecond > 0 ? Math.min(capacity, tokens + Math.max(0, now - refilledAt) * permitsPerSecond / 1000) : 0)
+                    .build();
+        }
+    }
+
+    // windowMs 를 WINDOW_SLOTS 개 구간으로 나눈 건수 (오래된 구간은 다음 사용 시 비움)
+    private static class SlidingCounter {
+        private final long slotMs;
+        private final long[] counts = new long[WINDOW_SLOTS];
+        private final long[] slots = new long[WINDOW_SLOTS];
+
+        SlidingCounter(long windowMs) {
+            this.slotMs = Math.max(1, windowMs / WINDOW_SLOTS);
+        }
+
+        void add(long now) {
+            long slot = now / slotMs;
+            int index = (int) (slot % WINDOW_SLOTS);
+            if (slots[index] != slot) {
+                slots[index] = slot;
+                counts[index] = 0;
+            }
+            counts[index]++;
+        }
+
+        long sum(long now) {
+            long current = now / slotMs;
+            long sum = 0;
+            for (int i = 0; i < WINDOW_SLOTS; i++) {
+                if (current - slots[i] < WINDOW_SLOTS) {
+                    sum += counts[i];
+                }
+            }
+            return sum;
+        }
+
+        void reset() {
+            Arrays.fill(counts, 0);
+        }
+    }
+}
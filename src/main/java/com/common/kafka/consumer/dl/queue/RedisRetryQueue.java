@@ -0,0 +1,692 @@
+package com.common.kafka.consumer.dl.queue;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import com.common.kafka.consumer.dl.queue.codec.RetryMessageRedisSerializer;
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "retry.worker.queue", name = "engine", havingValue = "redis", matchIfMissing = true)
+public class RedisRetryQueue implements RetryQueue {
+    public static final String LEGACY_QUEUE_KEY = "platform:retry:queue";
+    private static final String LEGACY_SHARD_KEY_FORMAT = "platform:retry:queue:{%d}";
+    private static final String SHARD_PREFIX_FORMAT = "platform:retry:{%d}:";
+    // 지금까지 사용한 가장 큰 shard 수
+    private static final String SHARD_COUNT_KEY = "platform:retry:shard-count";
+    private static final String QUEUE_SUFFIX = "queue";
+    private static final String INFLIGHT_SUFFIX = "inflight";
+    private static final String REF_SUFFIX = "ref";
+    private static final String TOPICS_SUFFIX = "topics";
+    private static final String INDEXES_SUFFIX = "indexes";
+    // script 공통 key (RetryQueueScripts 의 KEYS[1..8])
+    private static final List<String> SCRIPT_KEY_SUFFIXES = List.of(QUEUE_SUFFIX, INFLIGHT_SUFFIX, "data", REF_SUFFIX, "latest", TOPICS_SUFFIX, INDEXES_SUFFIX, "seq");
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    private static final byte[] COALESCE = toBytes("1");
+    private static final byte[] NO_COALESCE = toBytes("0");
+
+    // script 결과를 value serializer 로 역직렬화하지 않고 raw bytes 로 받아 필요한 필드만 직접 복원
+    @SuppressWarnings("unchecked")
+    private static final RedisSerializer<List<Object>> RAW_RESULT_SERIALIZER =
+            (RedisSerializer<List<Object>>) (RedisSerializer<?>) RedisSerializer.byteArray();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RetryMessageRedisSerializer serializer;
+    private final byte[] enqueueSha = toBytes(RetryQueueScripts.ENQUEUE_SCRIPT.getSha1());
+    private final RetryWorkerProperties.Queue properties;
+    private final RetryMetrics retryMetrics;
+    private final List<String> shardPrefixes;
+    private final List<String> shardKeys;
+    private final List<String> legacyKeys;
+    // shard-count 를 줄여 범위를 벗어났지만 아직 항목이 남은 shard 의 prefix. 적재하지 않고 drain / 조회 / 삭제만 함
+    private volatile List<String> retiredPrefixes = List.of();
+    // 토픽별 대기열 backfill 을 마친 shard
+    private final Set<String> backfilled = ConcurrentHashMap.newKeySet();
+
+    public RedisRetryQueue(RedisTemplate<String, Object> redisTemplate, RetryWorkerProperties properties, RetryMetrics retryMetrics) {
+        this.redisTemplate = redisTemplate;
+        this.serializer = (RetryMessageRedisSerializer) redisTemplate.getValueSerializer();
+        this.properties = properties.getQueue();
+        this.retryMetrics = retryMetrics;
+
+        List<String> prefixes = new ArrayList<>(this.properties.getShardCount());
+        List<String> keys = new ArrayList<>(this.properties.getShardCount());
+        List<String> legacy = new ArrayList<>(this.properties.getShardCount() + 1);
+        for (int shard = 0; shard < this.properties.getShardCount(); shard++) {
+            // hash tag 로 shard 마다 서로 다른 cluster slot 에 배치 (shard 내부 key 들은 같은 slot)
+            String prefix = String.format(SHARD_PREFIX_FORMAT, shard);
+            prefixes.add(prefix);
+            keys.add(prefix + QUEUE_SUFFIX);
+            legacy.add(String.format(LEGACY_SHARD_KEY_FORMAT, shard));
+        }
+        legacy.add(LEGACY_QUEUE_KEY);
+
+        this.shardPrefixes = Collections.unmodifiableList(prefixes);
+        this.shardKeys = Collections.unmodifiableList(keys);
+        this.legacyKeys = Collections.unmodifiableList(legacy);
+    }
+
+    // 기록된 shard 수보다 줄었으면 범위를 벗어난 shard 를 비워질 때까지 함께 drain (모두 비어 있으면 기록을 현재 shard 수로 갱신)
+    @PostConstruct
+    public void retireShards() {
+        int shardCount = shardKeys.size();
+        Object recorded = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(toBytes(SHARD_COUNT_KEY)));
+        int recordedCount = recorded != null ? Integer.parseInt(toText(recorded)) : 0;
+
+        List<String> retired = new ArrayList<>();
+        long remaining = 0;
+        for (int shard = shardCount; shard < recordedCount; shard++) {
+            String prefix = String.format(SHARD_PREFIX_FORMAT, shard);
+            long size = size(prefix + QUEUE_SUFFIX) + size(prefix + INFLIGHT_SUFFIX);
+            if (size > 0) {
+                retired.add(prefix);
+                remaining += size;
+            }
+        }
+
+        retiredPrefixes = Collections.unmodifiableList(retired);
+        if (!retired.isEmpty()) {
+            log.warn("retired shards still hold entries, draining them until empty | shardCount: {}, recordedShardCount: {}, retiredShards: {}, remaining: {}",
+                    shardCount, recordedCount, retired.size(), remaining);
+            return;
+        }
+        if (recordedCount != shardCount) {
+            redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.stringCommands().set(toBytes(SHARD_COUNT_KEY), toBytes(String.valueOf(shardCount))));
+        }
+    }
+
+    public List<String> getShardKeys() {
+        return shardKeys;
+    }
+
+    @Override
+    public List<String> getDrainKeys() {
+        // 신규 항목은 인덱스가 있는 shard 에만 적재되고, 이전 layout 의 key 들은 drain-legacy 가 켜져 있는 동안 함께 drain 되어 자연스럽게 비워짐
+        List<String> retired = retiredPrefixes;
+        if (!properties.isDrainLegacy() && retired.isEmpty()) {
+            return shardKeys;
+        }
+
+        List<String> keys = new ArrayList<>(shardKeys);
+        retired.forEach(prefix -> keys.add(prefix + QUEUE_SUFFIX));
+        if (properties.isDrainLegacy()) {
+            keys.addAll(legacyKeys);
+        }
+        return keys;
+    }
+
+    public String getShardKey(RetryMessage dto) {
+        return shardKeys.get(getShard(dto));
+    }
+
+    @Override
+    public void add(RetryMessage dto, long score) {
+        addAll(List.of(new ScoredRetryMessage(dto, score)));
+    }
+
+    @Override
+    public void addAll(List<ScoredRetryMessage> messages) {
+        Map<Integer, ScriptCall> callsByShard = new LinkedHashMap<>();
+        for (ScoredRetryMessage message : messages) {
+            RetryMessage dto = message.message();
+            int shard = getShard(dto);
+            ScriptCall call = callsByShard.computeIfAbsent(shard, k -> new ScriptCall(getScriptKeys(shardPrefixes.get(shard))));
+            addIndexKeys(call.keys, shardPrefixes.get(shard), nullToEmpty(dto.getOriginalTopic()), nullToEmpty(dto.getKey()));
+            List<byte[]> args = call.args;
+            args.add(toBytes(String.valueOf(message.score())));
+            args.add(toBytes(nullToEmpty(dto.getOriginalTopic())));
+            args.add(toBytes(nullToEmpty(dto.getKey())));
+            args.add(properties.getCoalesceTopics().contains(dto.getOriginalTopic()) ? COALESCE : NO_COALESCE);
+            args.add(serializer.serialize(dto));
+        }
+
+        long start = System.nanoTime();
+        long coalesced;
+        if (callsByShard.size() == 1) {
+            coalesced = toCount(enqueue(callsByShard.values().iterator().next()));
+        } else {
+            coalesced = enqueuePipelined(callsByShard).stream().mapToLong(RedisRetryQueue::toCount).sum();
+        }
+        retryMetrics.recordRedisScript("enqueue", System.nanoTime() - start);
+        if (coalesced > 0) {
+            retryMetrics.recordCoalesced(coalesced);
+        }
+    }
+
+    @Override
+    public boolean isLegacy(String queueKey) {
+        return legacyKeys.contains(queueKey);
+    }
+
+    @Override
+    public List<RetryQueueEntry> drain(String queueKey, long maxScore, int limit, long leaseUntil) {
+        if (isLegacy(queueKey)) {
+            // 이전 layout 은 inflight 가 없으므로 drain 시점에 바로 삭제
+            return toEntries(execute("drain", RetryQueueScripts.LEGACY_DRAIN_SCRIPT, queueKey, String.valueOf(maxScore), String.valueOf(limit)), false);
+        }
+
+        return toEntries(execute("drain", RetryQueueScripts.DRAIN_SCRIPT, getScriptKeys(getPrefix(queueKey)), String.valueOf(maxScore),
+                String.valueOf(limit), String.valueOf(leaseUntil)), true);
+    }
+
+    @Override
+    public boolean supportsTopicDrain() {
+        return true;
+    }
+
+    @Override
+    public List<String> getDueTopics(String queueKey, long maxScore, int limit) {
+        if (isLegacy(queueKey)) {
+            return List.of();
+        }
+
+        String prefix = getPrefix(queueKey);
+        // 실패하면 다음 조회에서 다시 시도하도록 script 가 끝난 뒤에 완료로 표시
+        if (!backfilled.contains(queueKey)) {
+            backfill(queueKey, prefix);
+            backfilled.add(queueKey);
+        }
+        Set<byte[]> topics = redisTemplate.execute((RedisCallback<Set<byte[]>>) connection ->
+                connection.zSetCommands().zRangeByScore(toBytes(prefix + TOPICS_SUFFIX), 0, maxScore, 0, limit));
+        if (topics == null || topics.isEmpty()) {
+            return List.of();
+        }
+        return topics.stream().map(RedisRetryQueue::toText).toList();
+    }
+
+    @Override
+    public List<RetryQueueEntry> drainTopics(String queueKey, long maxScore, Map<String, Integer> limits, long leaseUntil) {
+        String prefix = getPrefix(queueKey);
+        List<String> keys = getScriptKeys(prefix);
+        List<String> args = new ArrayList<>(limits.size() * 2 + 2);
+        args.add(String.valueOf(maxScore));
+        args.add(String.valueOf(leaseUntil));
+        limits.forEach((topic, limit) -> {
+            keys.add(prefix + "due:" + topic);
+            args.add(topic);
+            args.add(String.valueOf(limit));
+        });
+        return toEntries(execute("drain", RetryQueueScripts.FAIR_DRAIN_SCRIPT, keys, args.toArray(new String[0])), true);
+    }
+
+    @Override
+    public long ack(String queueKey, List<RetryQueueEntry> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        String prefix = getPrefix(queueKey);
+        List<String> keys = getScriptKeys(prefix);
+        List<String> args = new ArrayList<>(entries.size() * 2);
+        addEntries(keys, args, prefix, entries);
+        Long count = count("ack", RetryQueueScripts.ACK_SCRIPT, keys, args.toArray(new String[0]));
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public long nack(String queueKey, List<RetryQueueEntry> entries, long score) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        String prefix = getPrefix(queueKey);
+        List<String> keys = getScriptKeys(prefix);
+        List<String> args = new ArrayList<>(entries.size() * 2 + 1);
+        args.add(String.valueOf(score));
+        addEntries(keys, args, prefix, entries);
+        Long count = count("nack", RetryQueueScripts.NACK_SCRIPT, keys, args.toArray(new String[0]));
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public long requeueExpired(String queueKey, long now, int limit) {
+        if (isLegacy(queueKey)) {
+            return 0;
+        }
+
+        // 만료된 id 와 ref 를 먼저 조회하여 script 가 접근할 인덱스 key 를 KEYS 로 전달
+        String prefix = getPrefix(queueKey);
+        List<String> ids = toTexts(redisTemplate.execute((RedisCallback<Set<byte[]>>) connection ->
+                connection.zSetCommands().zRangeByScore(toBytes(prefix + INFLIGHT_SUFFIX), Double.NEGATIVE_INFINITY, now, 0, limit)));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<String> keys = getScriptKeys(prefix);
+        List<String> args = new ArrayList<>(ids.size() * 2 + 1);
+        args.add(String.valueOf(now));
+        addRefs(keys, args, prefix, ids);
+        Long count = count("requeue", RetryQueueScripts.REQUEUE_EXPIRED_SCRIPT, keys, args.toArray(new String[0]));
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public String getInFlightKey(String queueKey) {
+        return isLegacy(queueKey) ? null : getPrefix(queueKey) + INFLIGHT_SUFFIX;
+    }
+
+    @Override
+    public Long getHeadScore(String queueKey) {
+        // member 는 layout 에 따라 id 또는 인코딩된 메시지이므로 역직렬화 없이 score 만 조회
+        Set<Tuple> head = redisTemplate.execute((RedisCallback<Set<Tuple>>) connection ->
+                connection.zSetCommands().zRangeWithScores(toBytes(queueKey), 0, 0));
+        if (head == null || head.isEmpty()) {
+            return null;
+        }
+
+        Double score = head.iterator().next().getScore();
+        return score != null ? score.longValue() : null;
+    }
+
+    @Override
+    public long size(String queueKey) {
+        Long size = redisTemplate.execute((RedisCallback<Long>) connection -> connection.zSetCommands().zCard(toBytes(queueKey)));
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public long deleteAll() {
+        long count = 0;
+        for (String prefix : getAllPrefixes()) {
+            count += size(prefix + QUEUE_SUFFIX);
+        }
+        for (String legacyKey : legacyKeys) {
+            count += size(legacyKey);
+        }
+
+        for (String prefix : getAllPrefixes()) {
+            List<String> keys = getScriptKeys(prefix);
+            keys.addAll(toTexts(redisTemplate.execute((RedisCallback<Set<byte[]>>) connection ->
+                    connection.setCommands().sMembers(toBytes(prefix + INDEXES_SUFFIX)))));
+            count("delete", RetryQueueScripts.DELETE_SHARD_SCRIPT, keys);
+        }
+        redisTemplate.delete(legacyKeys);
+        return count;
+    }
+
+    @Override
+    public long deleteByKey(String key) {
+        long count = deleteByIndex(getIndexPrefixes(RetryWorkerProperties.ShardBy.KEY, key), "key:" + key);
+        for (String legacyKey : legacyKeys) {
+            count += deleteLegacyByKey(legacyKey, key);
+        }
+        return count;
+    }
+
+    @Override
+    public long deleteByTopic(String topic) {
+        return deleteByIndex(getIndexPrefixes(RetryWorkerProperties.ShardBy.TOPIC, topic), "topic:" + topic);
+    }
+
+    @Override
+    public List<RetryQueueEntry> findByKey(String key, int limit) {
+        return findByIndex(getIndexPrefixes(RetryWorkerProperties.ShardBy.KEY, key), "key:" + key, limit);
+    }
+
+    @Override
+    public List<RetryQueueEntry> findByTopic(String topic, int limit) {
+        return findByIndex(getIndexPrefixes(RetryWorkerProperties.ShardBy.TOPIC, topic), "topic:" + topic, limit);
+    }
+
+    private Object enqueue(ScriptCall call) {
+        try {
+            return redisTemplate.execute((RedisCallback<Object>) connection -> enqueue(connection, call));
+        } catch (RuntimeException ex) {
+            if (!isNoScript(ex)) {
+                throw ex;
+            }
+            // 재시작 / failover 로 script cache 가 비워진 경우. NOSCRIPT 는 실행 전에 거절되므로 다시 load 후 재시도해도 중복 적재 없음
+            loadEnqueueScript();
+            return redisTemplate.execute((RedisCallback<Object>) connection -> enqueue(connection, call));
+        }
+    }
+
+    // shard 별 script 결과 (교체된 항목 수)
+    private List<Object> enqueuePipelined(Map<Integer, ScriptCall> callsByShard) {
+        try {
+            // shard 별 enqueue 를 하나의 pipeline 으로 전송
+            return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                callsByShard.values().forEach(call -> enqueue(connection, call));
+                return null;
+            });
+        } catch (RedisPipelineException ex) {
+            // 이미 적재된 shard 를 다시 보내면 중복되므로 NOSCRIPT 로 거절된 shard 만 재전송
+            List<ScriptCall> rejected = new ArrayList<>();
+            List<Object> results = ex.getPipelineResult();
+            int index = 0;
+            for (ScriptCall call : callsByShard.values()) {
+                Object result = index < results.size() ? results.get(index) : null;
+                index++;
+                if (result instanceof Throwable) {
+                    if (!isNoScript((Throwable) result)) {
+                        throw ex;
+                    }
+                    rejected.add(call);
+                }
+            }
+            if (rejected.isEmpty()) {
+                throw ex;
+            }
+
+            loadEnqueueScript();
+            List<Object> retried = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                rejected.forEach(call -> enqueue(connection, call));
+                return null;
+            });
+            List<Object> combined = new ArrayList<>(results);
+            combined.addAll(retried);
+            return combined;
+        }
+    }
+
+    private Object enqueue(RedisConnection connection, ScriptCall call) {
+        byte[][] keysAndArgs = new byte[call.keys.size() + call.args.size()][];
+        int index = 0;
+        for (String key : call.keys) {
+            keysAndArgs[index++] = toBytes(key);
+        }
+        for (byte[] arg : call.args) {
+            keysAndArgs[index++] = arg;
+        }
+        // 매 호출마다 script 본문을 보내지 않도록 SHA 로 실행
+        return connection.scriptingCommands().evalSha(enqueueSha, ReturnType.INTEGER, call.keys.size(), keysAndArgs);
+    }
+
+    private void loadEnqueueScript() {
+        redisTemplate.execute((RedisCallback<String>) connection ->
+                connection.scriptingCommands().scriptLoad(toBytes(RetryQueueScripts.ENQUEUE_LUA_SCRIPT)));
+    }
+
+    private long deleteByIndex(List<String> prefixes, String index) {
+        int batchSize = properties.getIndexDeleteBatchSize();
+        long count = 0;
+        for (String prefix : prefixes) {
+            byte[] indexKey = toBytes(prefix + index);
+            // 인덱스에 남은 id 가 없을 때까지 batch 단위로 삭제 (한 번의 script 가 Redis 를 오래 점유하지 않도록)
+            while (true) {
+                List<String> ids = toTexts(redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                        connection.setCommands().sRandMember(indexKey, batchSize)));
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                List<String> keys = getScriptKeys(prefix);
+                keys.add(prefix + index);
+                List<String> args = new ArrayList<>(ids.size() * 2);
+                addRefs(keys, args, prefix, ids);
+                Long deleted = count("delete", RetryQueueScripts.DELETE_BY_INDEX_SCRIPT, keys, args.toArray(new String[0]));
+                count += deleted != null ? deleted : 0;
+            }
+        }
+        return count;
+    }
+
+    private List<RetryQueueEntry> findByIndex(List<String> prefixes, String index, int limit) {
+        List<RetryQueueEntry> entries = new ArrayList<>();
+        for (String prefix : prefixes) {
+            if (entries.size() >= limit) {
+                break;
+            }
+
+            List<String> keys = getScriptKeys(prefix);
+            keys.add(prefix + index);
+            entries.addAll(toEntries(execute("find", RetryQueueScripts.FIND_BY_INDEX_SCRIPT, keys, String.valueOf(limit - entries.size())), true));
+        }
+        return entries;
+    }
+
+    private long deleteLegacyByKey(String queueKey, String key) {
+        // 이전 layout 은 인덱스가 없으므로 전체 scan. codec 이 바뀌어도 기존 member 를 그대로 지울 수 있도록 raw bytes 로 비교 / 삭제
+        Long deleted = redisTemplate.execute((RedisCallback<Long>) connection -> {
+            byte[] rawQueueKey = toBytes(queueKey);
+            long count = 0;
+            long offset = 0;
+            long limit = 100;
+
+            while (true) {
+                Set<byte[]> items = connection.zSetCommands().zRange(rawQueueKey, offset, offset + limit - 1);
+                if (items == null || items.isEmpty()) {
+                    break;
+                }
+
+                long removed = 0;
+                for (byte[] item : items) {
+                    if (key.equals(serializer.deserializeRecord(item).key())) {
+                        connection.zSetCommands().zRem(rawQueueKey, item);
+                        removed++;
+                    }
+                }
+                count += removed;
+                // 삭제된 만큼 뒤의 항목이 앞으로 당겨지므로 offset 은 남은 항목 수만큼만 이동
+                offset += items.size() - removed;
+            }
+
+            return count;
+        });
+        return deleted != null ? deleted : 0;
+    }
+
+    // 토픽별 대기열이 생기기 전에 적재된 항목을 프로세스 시작 후 shard 마다 한 번 등록 (여러 replica 가 동시에 해도 결과는 같음)
+    // 진행 중에 drain 된 만큼 순위가 당겨져 일부를 건너뛰더라도 그 항목은 토픽별 due 가 없을 때의 일반 drain 으로 처리됨
+    private void backfill(String queueKey, String prefix) {
+        long start = 0;
+        int count;
+        do {
+            long offset = start;
+            List<String> ids = toTexts(redisTemplate.execute((RedisCallback<Set<byte[]>>) connection ->
+                    connection.zSetCommands().zRange(toBytes(queueKey), offset, offset + BACKFILL_BATCH_SIZE - 1)));
+            count = ids.size();
+            if (count > 0) {
+                List<String> keys = getScriptKeys(prefix);
+                List<String> args = new ArrayList<>(count * 2);
+                addRefs(keys, args, prefix, ids);
+                // ref 가 없는 항목은 토픽을 알 수 없으므로 제외
+                for (int i = args.size() - 2; i >= 0; i -= 2) {
+                    if (args.get(i + 1).isEmpty()) {
+                        args.subList(i, i + 2).clear();
+                    }
+                }
+                if (!args.isEmpty()) {
+                    count("backfill", RetryQueueScripts.BACKFILL_DUE_SCRIPT, keys, args.toArray(new String[0]));
+                }
+            }
+            start += count;
+        } while (count == BACKFILL_BATCH_SIZE);
+    }
+
+    private List<Object> execute(String name, RedisScript<List<Object>> script, String key, String... args) {
+        return execute(name, script, Collections.singletonList(key), args);
+    }
+
+    private List<Object> execute(String name, RedisScript<List<Object>> script, List<String> keys, String... args) {
+        long start = System.nanoTime();
+        try {
+            return redisTemplate.execute(script, redisTemplate.getStringSerializer(), RAW_RESULT_SERIALIZER, keys, (Object[]) args);
+        } finally {
+            retryMetrics.recordRedisScript(name, System.nanoTime() - start);
+        }
+    }
+
+    private Long count(String name, RedisScript<Long> script, List<String> keys, String... args) {
+        long start = System.nanoTime();
+        try {
+            return redisTemplate.execute(script, redisTemplate.getStringSerializer(), new GenericToStringSerializer<>(Long.class),
+                    keys, (Object[]) args);
+        } finally {
+            retryMetrics.recordRedisScript(name, System.nanoTime() - start);
+        }
+    }
+
+    private List<RetryQueueEntry> toEntries(List<Object> items, boolean withId) {
+        if (items == null || items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // script 결과는 ([id], score, data) 반복. data 는 RetryMessage 를 거치지 않고 재발행용 tuple 로 바로 복원
+        int width = withId ? 3 : 2;
+        List<RetryQueueEntry> entries = new ArrayList<>(items.size() / width);
+        for (int i = 0; i + width - 1 < items.size(); i += width) {
+            String id = withId ? toText(items.get(i)) : null;
+            Object score = items.get(i + width - 2);
+            long dueAt = score != null ? (long) Double.parseDouble(toText(score)) : 0;
+            entries.add(new RetryQueueEntry(id, serializer.deserializeRecord((byte[]) items.get(i + width - 1)), dueAt));
+        }
+        return entries;
+    }
+
+    // 수정 가능한 목록으로 반환 (항목별 인덱스 key 를 이어서 추가)
+    private static List<String> getScriptKeys(String prefix) {
+        List<String> keys = new ArrayList<>();
+        for (String suffix : SCRIPT_KEY_SUFFIXES) {
+            keys.add(prefix + suffix);
+        }
+        return keys;
+    }
+
+    private static void addIndexKeys(List<String> keys, String prefix, String topic, String key) {
+        keys.add(prefix + "topic:" + topic);
+        keys.add(prefix + "key:" + key);
+        keys.add(prefix + "due:" + topic);
+    }
+
+    // drain 된 항목은 재발행용 tuple 에 원본 토픽 / key 가 있으므로 ref 를 다시 조회하지 않음
+    private static void addEntries(List<String> keys, List<String> args, String prefix, List<RetryQueueEntry> entries) {
+        for (RetryQueueEntry entry : entries) {
+            String topic = nullToEmpty(entry.record().originalTopic());
+            String key = nullToEmpty(entry.record().key());
+            addIndexKeys(keys, prefix, topic, key);
+            args.add(entry.id());
+            args.add(topic + "\n" + key);
+        }
+    }
+
+    // id 별 ref 를 조회하여 (id, ref) 를 args 에, ref 가 있는 항목의 인덱스 key 를 keys 에 추가 (ref 가 없으면 빈 문자열)
+    private void addRefs(List<String> keys, List<String> args, String prefix, List<String> ids) {
+        byte[][] fields = new byte[ids.size()][];
+        for (int i = 0; i < ids.size(); i++) {
+            fields[i] = toBytes(ids.get(i));
+        }
+        List<byte[]> refs = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.hashCommands().hMGet(toBytes(prefix + REF_SUFFIX), fields));
+
+        for (int i = 0; i < ids.size(); i++) {
+            byte[] ref = refs != null ? refs.get(i) : null;
+            args.add(ids.get(i));
+            if (ref == null) {
+                args.add("");
+                continue;
+            }
+
+            String text = toText(ref);
+            int separator = text.indexOf('\n');
+            if (separator < 0) {
+                args.add("");
+                continue;
+            }
+            addIndexKeys(keys, prefix, text.substring(0, separator), text.substring(separator + 1));
+            args.add(text);
+        }
+    }
+
+    private String getPrefix(String queueKey) {
+        return queueKey.substring(0, queueKey.length() - QUEUE_SUFFIX.length());
+    }
+
+    // 인덱스 기준과 shard 기준이 같으면 해당 shard 하나만, 다르면 모든 shard 의 인덱스를 조회 (retired shard 는 어느 항목이 있는지 알 수 없으므로 항상 포함)
+    private List<String> getIndexPrefixes(RetryWorkerProperties.ShardBy indexType, String routingKey) {
+        if (properties.getShardBy() != indexType) {
+            return getAllPrefixes();
+        }
+
+        List<String> prefixes = new ArrayList<>(retiredPrefixes.size() + 1);
+        prefixes.add(shardPrefixes.get(getShard(routingKey)));
+        prefixes.addAll(retiredPrefixes);
+        return prefixes;
+    }
+
+    private List<String> getAllPrefixes() {
+        List<String> retired = retiredPrefixes;
+        if (retired.isEmpty()) {
+            return shardPrefixes;
+        }
+
+        List<String> prefixes = new ArrayList<>(shardPrefixes);
+        prefixes.addAll(retired);
+        return prefixes;
+    }
+
+    private int getShard(RetryMessage dto) {
+        return getShard(properties.getShardBy() == RetryWorkerProperties.ShardBy.TOPIC ? dto.getOriginalTopic() : dto.getKey());
+    }
+
+    private int getShard(String routingKey) {
+        return Math.floorMod(routingKey != null ? routingKey.hashCode() : 0, shardKeys.size());
+    }
+
+    private static boolean isNoScript(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 거절된 shard 의 결과 (Throwable) 는 0
+    private static long toCount(Object result) {
+        return result instanceof Long ? (Long) result : 0;
+    }
+
+    private static List<String> toTexts(Collection<byte[]> items) {
+        if (items == null || items.isEmpty()) {
+            return List.of();
+        }
+        return items.stream().map(RedisRetryQueue::toText).toList();
+    }
+
+    private static String toText(Object item) {
+        return item instanceof byte[] ? new String((byte[]) item, StandardCharsets.UTF_8) : String.valueOf(item);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // 한 shard 에 대한 enqueue script 호출 (공통 key + 항목별 인덱스 key, 항목별 인자)
+    private static class ScriptCall {
+        private final List<String> keys;
+        private final List<byte[]> args = new ArrayList<>();
+
+        private ScriptCall(List<String> keys) {
+            this.keys = keys;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.common.kafka.consumer.dl.queue;
+
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+
+import java.util.List;
+import java.util.Map;
+
+// 재시도 대기열 (retry.worker.queue.engine 으로 redis / timing-wheel 선택)
+// drain 된 항목은 ack 될 때까지 inflight 로 유지되고, lease 가 만료되면 requeueExpired 로 다시 due 가 됨
+public interface RetryQueue {
+
+    List<String> getDrainKeys();
+
+    // 모든 replica 가 같은 drain key 를 공유하는지 여부 (공유하면 ShardOwnership 으로 나누어 drain)
+    default boolean isShared() {
+        return true;
+    }
+
+    void add(RetryMessage dto, long score);
+
+    void addAll(List<ScoredRetryMessage> messages);
+
+    // ack / nack 없이 drain 시점에 삭제되는 대기열인지 여부
+    boolean isLegacy(String queueKey);
+
+    List<RetryQueueEntry> drain(String queueKey, long maxScore, int limit, long leaseUntil);
+
+    // 원본 토픽별 due 대기열을 유지하여 getDueTopics / drainTopics 로 토픽마다 나누어 drain 할 수 있는지 여부
+    // false 면 scheduler 는 fairness 설정과 관계없이 drain 으로 전체 score 순 drain
+    default boolean supportsTopicDrain() {
+        return false;
+    }
+
+    // due 항목이 있는 원본 토픽 (가장 이른 항목 순). 토픽별 대기열을 유지하지 않는 engine / 대기열이면 빈 목록
+    default List<String> getDueTopics(String queueKey, long maxScore, int limit) {
+        return List.of();
+    }
+
+    // 원본 토픽마다 지정한 개수까지 drain. 토픽별 대기열이 없으면 배정 합계만큼 전체 score 순으로 drain
+    default List<RetryQueueEntry> drainTopics(String queueKey, long maxScore, Map<String, Integer> limits, long leaseUntil) {
+        int limit = limits.values().stream().mapToInt(Integer::intValue).sum();
+        return drain(queueKey, maxScore, limit, leaseUntil);
+    }
+
+    // drain 으로 받은 항목을 그대로 전달 (Redis 엔진은 항목의 원본 토픽 / key 로 정리할 인덱스 key 를 구성)
+    long ack(String queueKey, List<RetryQueueEntry> entries);
+
+    long nack(String queueKey, List<RetryQueueEntry> entries, long score);
+
+    long requeueExpired(String queueKey, long now, int limit);
+
+    // size 로 조회할 수 있는 inflight key (없으면 null)
+    String getInFlightKey(String queueKey);
+
+    Long getHeadScore(String queueKey);
+
+    long size(String queueKey);
+
+    long deleteAll();
+
+    long deleteByKey(String key);
+
+    long deleteByTopic(String topic);
+
+    List<RetryQueueEntry> findByKey(String key, int limit);
+
+    List<RetryQueueEntry> findByTopic(String topic, int limit);
+}
@@ -0,0 +1,7 @@
+package com.common.kafka.consumer.dl.queue;
+
+import com.common.kafka.consumer.dl.resource.RetryRecord;
+
+// id 는 이전 layout (member 에 메시지를 직접 저장) 에서 drain 된 항목이면 null
+public record RetryQueueEntry(String id, RetryRecord record, long score) {
+}
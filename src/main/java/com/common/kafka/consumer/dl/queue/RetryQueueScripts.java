@@ -0,0 +1,304 @@
+package com.common.kafka.consumer.dl.queue;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+final class RetryQueueScripts {
+
+    // shard 별 key 구성 (모두 같은 hash tag 를 사용하므로 하나의 slot 에 위치)
+    //   {prefix}queue        : ZSET  id -> due score
+    //   {prefix}inflight     : ZSET  id -> lease 만료 시각 (drain 되어 전송 완료를 기다리는 항목)
+    //   {prefix}data         : HASH  id -> 인코딩된 RetryMessage
+    //   {prefix}ref          : HASH  id -> "originalTopic\nkey" (인덱스 정리용)
+    //   {prefix}latest       : HASH  "originalTopic\nkey" -> 마지막으로 적재된 id (coalesce 토픽만)
+    //   {prefix}topics       : ZSET  원본 토픽 -> due:{topic} 의 가장 이른 score (실제보다 이를 수 있으며 fair drain 시 보정)
+    //   {prefix}indexes      : SET   존재하는 인덱스 key 목록 (전체 삭제용)
+    //   {prefix}seq          : member id 발급용 카운터
+    //   {prefix}topic:{topic}: SET   원본 토픽 별 id 인덱스
+    //   {prefix}key:{key}    : SET   key 별 id 인덱스
+    //   {prefix}due:{topic}  : ZSET  원본 토픽 별 id -> due score (queue 의 부분 집합, fair drain 용)
+    // script 가 접근하는 key 는 모두 KEYS 로 전달 (cluster 에서 slot 검증 / script 재사용이 가능하도록 script 안에서 key 를 만들지 않음)
+    //   KEYS[1..8] = queue, inflight, data, ref, latest, topics, indexes, seq (RedisRetryQueue.getScriptKeys 순서)
+    //   항목별 인덱스 key 는 (topic:{topic}, key:{key}, due:{topic}) 3개씩 이어서 전달
+    // 일반 drain 은 항목의 토픽을 미리 알 수 없으므로 due:{topic} 을 건드리지 않음. inflight 로 옮겨진 항목이 due:{topic} 에 남아 있으면
+    // fair drain 이 queue 에 없는 항목으로 보고 건너뛰며 정리하고, ack / nack 시에도 정리됨
+    private static final String REMOVE_FUNCTION = "local function untrack(index, id)\n" +
+            "    redis.call('SREM', index, id)\n" +
+            "    if redis.call('SCARD', index) == 0 then\n" +
+            "        redis.call('SREM', KEYS[7], index)\n" +
+            "    end\n" +
+            "end\n" +
+            "-- k = 항목의 인덱스 key 가 KEYS 에서 시작하는 위치 (ref 를 모르는 항목은 nil)\n" +
+            "local function remove(id, k, ref)\n" +
+            "    if k and redis.call('HGET', KEYS[4], id) == ref then\n" +
+            "        untrack(KEYS[k], id)\n" +
+            "        untrack(KEYS[k + 1], id)\n" +
+            "        redis.call('ZREM', KEYS[k + 2], id)\n" +
+            "        if redis.call('ZCARD', KEYS[k + 2]) == 0 then\n" +
+            "            redis.call('ZREM', KEYS[6], string.sub(ref, 1, string.find(ref, '\\n', 1, true) - 1))\n" +
+            "            redis.call('SREM', KEYS[7], KEYS[k + 2])\n" +
+            "        end\n" +
+            "        if redis.call('HGET', KEYS[5], ref) == id then\n" +
+            "            redis.call('HDEL', KEYS[5], ref)\n" +
+            "        end\n" +
+            "    end\n" +
+            "    redis.call('ZREM', KEYS[1], id)\n" +
+            "    redis.call('ZREM', KEYS[2], id)\n" +
+            "    redis.call('HDEL', KEYS[3], id)\n" +
+            "    redis.call('HDEL', KEYS[4], id)\n" +
+            "end\n";
+
+    private static final String DUE_FUNCTION = "local function topicOf(ref)\n" +
+            "    return string.sub(ref, 1, string.find(ref, '\\n', 1, true) - 1)\n" +
+            "end\n" +
+            "local function due(k, id, score, topic)\n" +
+            "    redis.call('ZADD', KEYS[k + 2], score, id)\n" +
+            "    redis.call('ZADD', KEYS[6], 'LT', score, topic)\n" +
+            "end\n";
+
+    // KEYS = 공통 key + 항목별 인덱스 key, ARGV = (score, originalTopic, key, coalesce, data) 반복
+    // coalesce 가 '1' 이고 같은 (originalTopic, key) 의 항목이 아직 drain 되지 않았으면 새 항목을 만들지 않고
+    // 그 항목의 data 를 교체하며 둘 중 이른 due 를 유지. 교체한 항목 수를 반환
+    static final String ENQUEUE_LUA_SCRIPT = DUE_FUNCTION +
+            "local coalesced = 0\n" +
+            "local k = 9\n" +
+            "for i = 1, #ARGV, 5 do\n" +
+            "    local ref = ARGV[i + 1] .. '\\n' .. ARGV[i + 2]\n" +
+            "    local pending = ARGV[i + 3] == '1' and redis.call('HGET', KEYS[5], ref)\n" +
+            "    local pendingScore = pending and redis.call('ZSCORE', KEYS[1], pending)\n" +
+            "    if pendingScore then\n" +
+            "        local score = tonumber(ARGV[i]) < tonumber(pendingScore) and ARGV[i] or pendingScore\n" +
+            "        redis.call('HSET', KEYS[3], pending, ARGV[i + 4])\n" +
+            "        redis.call('ZADD', KEYS[1], score, pending)\n" +
+            "        due(k, pending, score, ARGV[i + 1])\n" +
+            "        coalesced = coalesced + 1\n" +
+            "    else\n" +
+            "        local id = tostring(redis.call('INCR', KEYS[8]))\n" +
+            "        redis.call('HSET', KEYS[3], id, ARGV[i + 4])\n" +
+            "        redis.call('HSET', KEYS[4], id, ref)\n" +
+            "        redis.call('ZADD', KEYS[1], ARGV[i], id)\n" +
+            "        redis.call('SADD', KEYS[k], id)\n" +
+            "        redis.call('SADD', KEYS[k + 1], id)\n" +
+            "        due(k, id, ARGV[i], ARGV[i + 1])\n" +
+            "        redis.call('SADD', KEYS[7], KEYS[k], KEYS[k + 1], KEYS[k + 2])\n" +
+            "        if ARGV[i + 3] == '1' then\n" +
+            "            redis.call('HSET', KEYS[5], ref, id)\n" +
+            "        end\n" +
+            "    end\n" +
+            "    k = k + 3\n" +
+            "end\n" +
+            "return coalesced";
+
+    // KEYS = 공통 key, ARGV[1] = maxScore, ARGV[2] = limit, ARGV[3] = lease 만료 시각
+    // due 항목을 inflight 로 옮기고 (id, score, data) 반복으로 반환. data 와 인덱스는 ack 시점에 삭제
+    // data 가 없는 항목은 queue 에서만 제거 (인덱스에 남은 id 는 조회 시 건너뛰고 인덱스 기반 삭제 시 정리)
+    static final String DRAIN_LUA_SCRIPT = "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', 0, ARGV[2])\n" +
+            "local items = {}\n" +
+            "for i = 1, #ids, 2 do\n" +
+            "    local data = redis.call('HGET', KEYS[3], ids[i])\n" +
+            "    redis.call('ZREM', KEYS[1], ids[i])\n" +
+            "    if data then\n" +
+            "        redis.call('ZADD', KEYS[2], ARGV[3], ids[i])\n" +
+            "        items[#items + 1] = ids[i]\n" +
+            "        items[#items + 1] = ids[i + 1]\n" +
+            "        items[#items + 1] = data\n" +
+            "    else\n" +
+            "        redis.call('HDEL', KEYS[4], ids[i])\n" +
+            "    end\n" +
+            "end\n" +
+            "return items";
+
+    // KEYS = 공통 key + 항목별 인덱스 key, ARGV = (전송 완료된 id, ref) 반복
+    static final String ACK_LUA_SCRIPT = REMOVE_FUNCTION +
+            "for i = 1, #ARGV, 2 do\n" +
+            "    remove(ARGV[i], 9 + (i - 1) / 2 * 3, ARGV[i + 1])\n" +
+            "end\n" +
+            "return #ARGV / 2";
+
+    // KEYS = 공통 key + 항목별 인덱스 key, ARGV[1] = 다시 due 가 될 시각, ARGV[2..] = (전송 실패한 id, ref) 반복
+    static final String NACK_LUA_SCRIPT = DUE_FUNCTION +
+            "local count = 0\n" +
+            "for i = 2, #ARGV, 2 do\n" +
+            "    if redis.call('ZREM', KEYS[2], ARGV[i]) == 1 then\n" +
+            "        redis.call('ZADD', KEYS[1], ARGV[1], ARGV[i])\n" +
+            "        if redis.call('HGET', KEYS[4], ARGV[i]) == ARGV[i + 1] then\n" +
+            "            due(9 + (i - 2) / 2 * 3, ARGV[i], ARGV[1], topicOf(ARGV[i + 1]))\n" +
+            "        end\n" +
+            "        count = count + 1\n" +
+            "    end\n" +
+            "end\n" +
+            "return count";
+
+    // KEYS = 공통 key + ref 가 있는 항목별 인덱스 key, ARGV[1] = now, ARGV[2..] = (lease 가 만료된 id, ref) 반복 (ref 가 없으면 빈 문자열)
+    // lease 가 만료된 (ack / nack 되지 않은) 항목을 즉시 due 로 되돌림. 조회 후 ack 된 항목은 건너뜀
+    static final String REQUEUE_EXPIRED_LUA_SCRIPT = DUE_FUNCTION +
+            "local count = 0\n" +
+            "local k = 9\n" +
+            "for i = 2, #ARGV, 2 do\n" +
+            "    local id = ARGV[i]\n" +
+            "    local ref = ARGV[i + 1]\n" +
+            "    local lease = redis.call('ZSCORE', KEYS[2], id)\n" +
+            "    if lease and tonumber(lease) <= tonumber(ARGV[1]) then\n" +
+            "        redis.call('ZREM', KEYS[2], id)\n" +
+            "        redis.call('ZADD', KEYS[1], ARGV[1], id)\n" +
+            "        if ref ~= '' and redis.call('HGET', KEYS[4], id) == ref then\n" +
+            "            due(k, id, ARGV[1], topicOf(ref))\n" +
+            "        end\n" +
+            "        count = count + 1\n" +
+            "    end\n" +
+            "    if ref ~= '' then\n" +
+            "        k = k + 3\n" +
+            "    end\n" +
+            "end\n" +
+            "return count";
+
+    // KEYS = 공통 key + 인덱스 SET + ref 가 있는 항목별 인덱스 key, ARGV = (인덱스에서 조회한 id, ref) 반복 (ref 가 없으면 빈 문자열)
+    static final String DELETE_BY_INDEX_LUA_SCRIPT = REMOVE_FUNCTION +
+            "local k = 10\n" +
+            "for i = 1, #ARGV, 2 do\n" +
+            "    if ARGV[i + 1] ~= '' then\n" +
+            "        remove(ARGV[i], k, ARGV[i + 1])\n" +
+            "        k = k + 3\n" +
+            "    else\n" +
+            "        remove(ARGV[i], nil, nil)\n" +
+            "    end\n" +
+            "    untrack(KEYS[9], ARGV[i])\n" +
+            "end\n" +
+            "return #ARGV / 2";
+
+    // KEYS = 공통 key + 인덱스 SET, ARGV[1] = 최대 조회 개수 -> (id, score, data) 반복 (inflight 항목은 lease 만료 시각)
+    // SSCAN 으로 앞에서부터 최대 개수만큼 모아 (score, id) 순으로 정렬하므로 같은 상태에서는 항상 같은 결과
+    static final String FIND_BY_INDEX_LUA_SCRIPT = "local limit = tonumber(ARGV[1])\n" +
+            "local entries = {}\n" +
+            "local seen = {}\n" +
+            "local cursor = '0'\n" +
+            "repeat\n" +
+            "    local page = redis.call('SSCAN', KEYS[9], cursor, 'COUNT', limit)\n" +
+            "    cursor = page[1]\n" +
+            "    for _, id in ipairs(page[2]) do\n" +
+            "        if #entries < limit and not seen[id] then\n" +
+            "            seen[id] = true\n" +
+            "            local data = redis.call('HGET', KEYS[3], id)\n" +
+            "            if data then\n" +
+            "                local score = redis.call('ZSCORE', KEYS[1], id) or redis.call('ZSCORE', KEYS[2], id)\n" +
+            "                entries[#entries + 1] = {id, score, data, tonumber(score) or 0}\n" +
+            "            end\n" +
+            "        end\n" +
+            "    end\n" +
+            "until cursor == '0' or #entries >= limit\n" +
+            "table.sort(entries, function(a, b)\n" +
+            "    if a[4] ~= b[4] then\n" +
+            "        return a[4] < b[4]\n" +
+            "    end\n" +
+            "    return a[1] < b[1]\n" +
+            "end)\n" +
+            "local items = {}\n" +
+            "for _, entry in ipairs(entries) do\n" +
+            "    items[#items + 1] = entry[1]\n" +
+            "    items[#items + 1] = entry[2]\n" +
+            "    items[#items + 1] = entry[3]\n" +
+            "end\n" +
+            "return items";
+
+    // KEYS = 공통 key + 조회한 인덱스 key
+    // 조회 이후 새로 생긴 인덱스는 indexes 에 남겨 두어 다음 삭제 때 정리
+    static final String DELETE_SHARD_LUA_SCRIPT = "for i = 9, #KEYS do\n" +
+            "    redis.call('UNLINK', KEYS[i])\n" +
+            "    redis.call('SREM', KEYS[7], KEYS[i])\n" +
+            "end\n" +
+            "redis.call('UNLINK', KEYS[1], KEYS[2], KEYS[3], KEYS[4], KEYS[5], KEYS[6])\n" +
+            "return #KEYS - 8";
+
+    // KEYS = 공통 key + 토픽별 due:{topic}, ARGV[1] = maxScore, ARGV[2] = lease 만료 시각, ARGV[3..] = (originalTopic, limit) 반복
+    // 토픽마다 due:{topic} 에서 limit 만큼 inflight 로 옮기고 (id, score, data) 반복으로 반환. topics 의 head score 를 실제 값으로 보정
+    static final String FAIR_DRAIN_LUA_SCRIPT = "local items = {}\n" +
+            "for i = 3, #ARGV, 2 do\n" +
+            "    local dueKey = KEYS[9 + (i - 3) / 2]\n" +
+            "    local ids = redis.call('ZRANGEBYSCORE', dueKey, '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', 0, ARGV[i + 1])\n" +
+            "    for j = 1, #ids, 2 do\n" +
+            "        local data = redis.call('HGET', KEYS[3], ids[j])\n" +
+            "        redis.call('ZREM', dueKey, ids[j])\n" +
+            "        if not data then\n" +
+            "            redis.call('ZREM', KEYS[1], ids[j])\n" +
+            "            redis.call('HDEL', KEYS[4], ids[j])\n" +
+            "        elseif redis.call('ZREM', KEYS[1], ids[j]) == 1 then\n" +
+            "            redis.call('ZADD', KEYS[2], ARGV[2], ids[j])\n" +
+            "            items[#items + 1] = ids[j]\n" +
+            "            items[#items + 1] = ids[j + 1]\n" +
+            "            items[#items + 1] = data\n" +
+            "        end\n" +
+            "    end\n" +
+            "    local head = redis.call('ZRANGE', dueKey, 0, 0, 'WITHSCORES')\n" +
+            "    if #head > 0 then\n" +
+            "        redis.call('ZADD', KEYS[6], head[2], ARGV[i])\n" +
+            "    else\n" +
+            "        redis.call('ZREM', KEYS[6], ARGV[i])\n" +
+            "    end\n" +
+            "end\n" +
+            "return items";
+
+    // KEYS = 공통 key + 항목별 인덱스 key, ARGV = (queue 에서 조회한 id, ref) 반복
+    // due:{topic} 이 도입되기 전에 적재된 항목을 토픽별 대기열에 등록 (이미 있으면 변화 없음, 조회 후 drain 된 항목은 건너뜀)
+    static final String BACKFILL_DUE_LUA_SCRIPT = DUE_FUNCTION +
+            "local count = 0\n" +
+            "for i = 1, #ARGV, 2 do\n" +
+            "    local k = 9 + (i - 1) / 2 * 3\n" +
+            "    local score = redis.call('ZSCORE', KEYS[1], ARGV[i])\n" +
+            "    if score and redis.call('HGET', KEYS[4], ARGV[i]) == ARGV[i + 1] then\n" +
+            "        due(k, ARGV[i], score, topicOf(ARGV[i + 1]))\n" +
+            "        redis.call('SADD', KEYS[7], KEYS[k + 2])\n" +
+            "        count = count + 1\n" +
+            "    end\n" +
+            "end\n" +
+            "return count";
+
+    // 이전 layout (ZSET member 에 RetryMessage 를 직접 저장) 의 drain -> (score, data) 반복
+    static final String LEGACY_DRAIN_LUA_SCRIPT = "local queue = KEYS[1]\n" +
+            "local maxScore = ARGV[1]\n" +
+            "local limit = ARGV[2]\n" +
+            "local items = redis.call('ZRANGEBYSCORE', queue, '-inf', maxScore, 'WITHSCORES', 'LIMIT', 0, limit)\n" +
+            "if #items > 0 then\n" +
+            "    local members = {}\n" +
+            "    for i = 1, #items, 2 do\n" +
+            "        members[#members + 1] = items[i]\n" +
+            "        items[i], items[i + 1] = items[i + 1], items[i]\n" +
+            "    end\n" +
+            "    redis.call('ZREM', queue, unpack(members))\n" +
+            "end\n" +
+            "return items";
+
+    static final RedisScript<Long> ENQUEUE_SCRIPT = new DefaultRedisScript<>(ENQUEUE_LUA_SCRIPT, Long.class);
+
+    @SuppressWarnings("unchecked")
+    static final RedisScript<List<Object>> DRAIN_SCRIPT =
+            new DefaultRedisScript<>(DRAIN_LUA_SCRIPT, (Class<List<Object>>) (Class<?>) List.class);
+
+    @SuppressWarnings("unchecked")
+    static final RedisScript<List<Object>> FAIR_DRAIN_SCRIPT =
+            new DefaultRedisScript<>(FAIR_DRAIN_LUA_SCRIPT, (Class<List<Object>>) (Class<?>) List.class);
+
+    static final RedisScript<Long> BACKFILL_DUE_SCRIPT = new DefaultRedisScript<>(BACKFILL_DUE_LUA_SCRIPT, Long.class);
+
+    static final RedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>(ACK_LUA_SCRIPT, Long.class);
+
+    static final RedisScript<Long> NACK_SCRIPT = new DefaultRedisScript<>(NACK_LUA_SCRIPT, Long.class);
+
+    static final RedisScript<Long> REQUEUE_EXPIRED_SCRIPT = new DefaultRedisScript<>(REQUEUE_EXPIRED_LUA_SCRIPT, Long.class);
+
+    static final RedisScript<Long> DELETE_BY_INDEX_SCRIPT = new DefaultRedisScript<>(DELETE_BY_INDEX_LUA_SCRIPT, Long.class);
+
+    @SuppressWarnings("unchecked")
+    static final RedisScript<List<Object>> FIND_BY_INDEX_SCRIPT =
+            new DefaultRedisScript<>(FIND_BY_INDEX_LUA_SCRIPT, (Class<List<Object>>) (Class<?>) List.class);
+
+    static final RedisScript<Long> DELETE_SHARD_SCRIPT = new DefaultRedisScript<>(DELETE_SHARD_LUA_SCRIPT, Long.class);
+
+    @SuppressWarnings("unchecked")
+    static final RedisScript<List<Object>> LEGACY_DRAIN_SCRIPT =
+            new DefaultRedisScript<>(LEGACY_DRAIN_LUA_SCRIPT, (Class<List<Object>>) (Class<?>) List.class);
+
+    private RetryQueueScripts() {
+    }
+}
@@ -0,0 +1,7 @@
+package com.common.kafka.consumer.dl.queue;
+
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+
+// 대기열에 적재할 메시지와 due 시각. 내용이 같은 메시지도 각각 적재되도록 Map key 대신 목록으로 전달
+public record ScoredRetryMessage(RetryMessage message, long score) {
+}
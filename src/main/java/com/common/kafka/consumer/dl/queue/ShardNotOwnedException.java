@@ -0,0 +1,9 @@
+package com.common.kafka.consumer.dl.queue;
+
+// 레코드를 받은 파티션의 shard 를 이 노드가 더 이상 소유하지 않음 (재시도해도 성공하지 않으며, 커밋하지 않으면 새 소유자가 다시 처리)
+public class ShardNotOwnedException extends IllegalStateException {
+
+    public ShardNotOwnedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,380 @@
+package com.common.kafka.consumer.dl.queue;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.queue.codec.BinaryRetryMessageCodec;
+import com.common.kafka.consumer.dl.queue.codec.RetryMessageCodec;
+import com.common.kafka.consumer.dl.queue.wheel.SegmentLog;
+import com.common.kafka.consumer.dl.queue.wheel.TimingWheel;
+import com.common.kafka.consumer.dl.queue.wheel.TimingWheelShard;
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.common.kafka.consumer.dl.resource.RetryRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import static com.common.kafka.consumer.dl.orchestrator.GenericRetryListener.RETRY_TOPIC;
+import static com.common.kafka.consumer.dl.orchestrator.RetryOrchestrator.RETRY_DUE_AT_HEADER;
+
+// common-retry-topic 파티션마다 in-process timing wheel 을 두고, 파티션을 할당받은 노드만 해당 shard 를 소유
+// 파티션이 회수되면 남은 항목을 due 시각 header 와 함께 같은 파티션으로 재발행하여 새 소유자에게 넘김
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "retry.worker.queue", name = "engine", havingValue = "timing-wheel")
+public class TimingWheelRetryQueue implements RetryQueue, ConsumerRebalanceListener {
+    private static final String QUEUE_KEY_PREFIX = "wheel:";
+    private static final String PARTITION_DIR_PREFIX = "partition-";
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final RetryWorkerProperties.Wheel properties;
+    private final RetryMessageCodec codec;
+    private final Path dataDir;
+    private final Map<Integer, TimingWheelShard> shards = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Object> locks = new ConcurrentHashMap<>();
+
+    private volatile long lastRebalanceAt = System.currentTimeMillis();
+
+    public TimingWheelRetryQueue(@Qualifier("retryKafkaTemplate") KafkaTemplate<String, byte[]> kafkaTemplate, ObjectMapper objectMapper, RetryWorkerProperties properties) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties.getQueue().getWheel();
+        // segment 에는 항상 binary envelope 로 기록 (redis 용 codec 설정과 무관)
+        this.codec = new BinaryRetryMessageCodec(objectMapper,
+                properties.getQueue().getCompression() == RetryWorkerProperties.Compression.LZ4, properties.getQueue().getCompressionThresholdBytes());
+        this.dataDir = toDataDir(this.properties.getDataDir());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        lastRebalanceAt = System.currentTimeMillis();
+        for (TopicPartition partition : partitions) {
+            if (!RETRY_TOPIC.equals(partition.topic())) {
+                continue;
+            }
+
+            synchronized (getLock(partition.partition())) {
+                if (shards.containsKey(partition.partition())) {
+                    continue;
+                }
+                TimingWheelShard shard = newShard(partition.partition());
+                int recovered = shard.open();
+                shards.put(partition.partition(), shard);
+                log.info("opened timing wheel shard | partition: {}, recovered: {}", partition.partition(), recovered);
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        lastRebalanceAt = System.currentTimeMillis();
+        for (TopicPartition partition : partitions) {
+            if (!RETRY_TOPIC.equals(partition.topic())) {
+                continue;
+            }
+
+            synchronized (getLock(partition.partition())) {
+                TimingWheelShard shard = shards.remove(partition.partition());
+                if (shard != null) {
+                    handOff(partition.partition(), shard);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        lastRebalanceAt = System.currentTimeMillis();
+        // 이미 다른 노드가 소유했을 수 있으므로 재발행하지 않고 닫기만 함 (할당받지 못하면 orphan sweep 이 넘김)
+        for (TopicPartition partition : partitions) {
+            if (!RETRY_TOPIC.equals(partition.topic())) {
+                continue;
+            }
+
+            synchronized (getLock(partition.partition())) {
+                TimingWheelShard shard = shards.remove(partition.partition());
+                if (shard != null) {
+                    shard.close();
+                    log.warn("closed timing wheel shard of lost partition | partition: {}", partition.partition());
+                }
+            }
+        }
+    }
+
+    // 비정상 종료 등으로 남았지만 더 이상 할당되지 않는 파티션 디렉토리의 항목을 현재 소유자에게 넘김
+    @Scheduled(fixedDelayString = "${retry.worker.queue.wheel.orphan-grace-ms:60000}")
+    public void handOffOrphans() {
+        if (System.currentTimeMillis() - lastRebalanceAt < properties.getOrphanGraceMs() || !Files.isDirectory(dataDir)) {
+            return;
+        }
+
+        for (int partition : listPartitionDirs()) {
+            synchronized (getLock(partition)) {
+                if (shards.containsKey(partition)) {
+                    continue;
+                }
+
+                TimingWheelShard shard = newShard(partition);
+                int recovered = shard.open();
+                log.warn("handing off orphaned timing wheel shard | partition: {}, entries: {}", partition, recovered);
+                handOff(partition, shard);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 종료 전 rebalance 에서 넘기지 못한 shard 는 파일로 남겨 재시작 시 복구
+        shards.values().forEach(TimingWheelShard::close);
+    }
+
+    @Override
+    public boolean isShared() {
+        // 할당받은 파티션의 shard 만 가지고 있으므로 replica 간 조정이 필요 없음
+        return false;
+    }
+
+    @Override
+    public List<String> getDrainKeys() {
+        List<String> keys = new ArrayList<>(shards.size());
+        for (Integer partition : shards.keySet()) {
+            keys.add(QUEUE_KEY_PREFIX + partition);
+        }
+        return keys;
+    }
+
+    @Override
+    public void add(RetryMessage dto, long score) {
+        addAll(List.of(new ScoredRetryMessage(dto, score)));
+    }
+
+    @Override
+    public void addAll(List<ScoredRetryMessage> messages) {
+        Map<TimingWheelShard, List<ScoredRetryMessage>> messagesByShard = new LinkedHashMap<>();
+        messages.forEach(message -> messagesByShard.computeIfAbsent(getShard(message.message()), k -> new ArrayList<>()).add(message));
+        // 일부 shard 에만 적재된 채 실패하면 호출자의 재시도로 중복되므로 먼저 모든 shard 의 여유를 확인
+        messagesByShard.forEach((shard, shardMessages) -> {
+            if (!shard.hasCapacity(shardMessages.size())) {
+                throw new IllegalStateException("timing wheel shard is full | entries: " + shard.size() + ", maxEntries: " + properties.getMaxEntries());
+            }
+        });
+        messagesByShard.forEach(TimingWheelShard::addAll);
+    }
+
+    @Override
+    public boolean isLegacy(String queueKey) {
+        return false;
+    }
+
+    @Override
+    public List<RetryQueueEntry> drain(String queueKey, long maxScore, int limit, long leaseUntil) {
+        TimingWheelShard shard = shards.get(toPartition(queueKey));
+        return shard != null ? shard.drain(maxScore, limit, leaseUntil) : List.of();
+    }
+
+    @Override
+    public long ack(String queueKey, List<RetryQueueEntry> entries) {
+        TimingWheelShard shard = shards.get(toPartition(queueKey));
+        return shard != null && !entries.isEmpty() ? shard.ack(getIds(entries)) : 0;
+    }
+
+    @Override
+    public long nack(String queueKey, List<RetryQueueEntry> entries, long score) {
+        TimingWheelShard shard = shards.get(toPartition(queueKey));
+        return shard != null && !entries.isEmpty() ? shard.nack(getIds(entries), score) : 0;
+    }
+
+    @Override
+    public long requeueExpired(String queueKey, long now, int limit) {
+        TimingWheelShard shard = shards.get(toPartition(queueKey));
+        return shard != null ? shard.requeueExpired(now, limit) : 0;
+    }
+
+    @Override
+    public String getInFlightKey(String queueKey) {
+        return null;
+    }
+
+    @Override
+    public Long getHeadScore(String queueKey) {
+        TimingWheelShard shard = shards.get(toPartition(queueKey));
+        return shard != null ? shard.getHeadScore() : null;
+    }
+
+    @Override
+    public long size(String queueKey) {
+        TimingWheelShard shard = shards.get(toPartition(queueKey));
+        return shard != null ? shard.size() : 0;
+    }
+
+    @Override
+    public long deleteAll() {
+        long count = 0;
+        for (Map.Entry<Integer, TimingWheelShard> entry : shards.entrySet()) {
+            synchronized (getLock(entry.getKey())) {
+                count += entry.getValue().deleteAll();
+                // segment 디렉토리를 지웠으므로 같은 파티션의 빈 shard 로 교체
+                TimingWheelShard shard = newShard(entry.getKey());
+                shard.open();
+                shards.put(entry.getKey(), shard);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long deleteByKey(String key) {
+        return shards.values().stream().mapToLong(shard -> shard.deleteByKey(key)).sum();
+    }
+
+    @Override
+    public long deleteByTopic(String topic) {
+        return shards.values().stream().mapToLong(shard -> shard.deleteByTopic(topic)).sum();
+    }
+
+    @Override
+    public List<RetryQueueEntry> findByKey(String key, int limit) {
+        List<RetryQueueEntry> found = new ArrayList<>();
+        for (TimingWheelShard shard : shards.values()) {
+            found.addAll(shard.findByKey(key, limit - found.size()));
+            if (found.size() >= limit) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<RetryQueueEntry> findByTopic(String topic, int limit) {
+        List<RetryQueueEntry> found = new ArrayList<>();
+        for (TimingWheelShard shard : shards.values()) {
+            found.addAll(shard.findByTopic(topic, limit - found.size()));
+            if (found.size() >= limit) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    private static List<String> getIds(List<RetryQueueEntry> entries) {
+        return entries.stream().map(RetryQueueEntry::id).toList();
+    }
+
+    private TimingWheelShard getShard(RetryMessage dto) {
+        Integer partition = dto.getSourcePartition();
+        TimingWheelShard shard = partition != null ? shards.get(partition) : null;
+        if (shard == null) {
+            // 다른 shard 에 적재하면 새 소유자가 받는 같은 key 의 레코드와 순서가 어긋나므로 거절 (커밋하지 않은 레코드는 새 소유자가 다시 처리)
+            throw new ShardNotOwnedException("timing wheel shard is not owned by this node | partition: " + partition + ", key: " + dto.getKey());
+        }
+        return shard;
+    }
+
+    // rebalance callback 을 hand-off-timeout-ms 보다 오래 막지 않음. 기한 안에 전송하지 못한 항목은 파일로 남겨 재할당 시 복구하거나 orphan sweep 이 넘김
+    private void handOff(int partition, TimingWheelShard shard) {
+        List<RetryQueueEntry> entries = shard.getAll();
+        List<RetryQueueEntry> sending = new ArrayList<>(entries.size());
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(entries.size());
+        long deadline = System.currentTimeMillis() + properties.getHandOffTimeoutMs();
+        try {
+            for (RetryQueueEntry entry : entries) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new TimeoutException("hand-off deadline exceeded while sending");
+                }
+                futures.add(kafkaTemplate.send(toHandOffRecord(partition, entry)));
+                sending.add(entry);
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+
+            shard.deleteAll();
+            log.info("handed off timing wheel shard | partition: {}, entries: {}", partition, entries.size());
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            // 전송을 마친 항목만 지워 다음 hand-off 에서 다시 보내지 않음
+            List<String> sent = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                CompletableFuture<SendResult<String, byte[]>> future = futures.get(i);
+                if (future.isDone() && !future.isCompletedExceptionally()) {
+                    sent.add(sending.get(i).id());
+                }
+            }
+            if (!sent.isEmpty()) {
+                shard.ack(sent);
+            }
+            shard.close();
+            log.error("failed to hand off timing wheel shard | partition: {}, entries: {}, handedOff: {}, message: {}", partition, entries.size(), sent.size(), ex.getMessage(), ex);
+        }
+    }
+
+    private ProducerRecord<String, byte[]> toHandOffRecord(int partition, RetryQueueEntry entry) {
+        RetryRecord record = entry.record();
+        List<Header> headers = new ArrayList<>(record.headers().size() + 1);
+        headers.addAll(record.headers());
+        headers.add(new RecordHeader(RETRY_DUE_AT_HEADER, String.valueOf(entry.score()).getBytes(StandardCharsets.UTF_8)));
+
+        // 같은 파티션으로 보내야 새 소유자가 같은 key 순서로 이어서 처리
+        return new ProducerRecord<>(RETRY_TOPIC, partition, record.key(), record.payload(), headers);
+    }
+
+    private TimingWheelShard newShard(int partition) {
+        SegmentLog segmentLog = new SegmentLog(dataDir.resolve(PARTITION_DIR_PREFIX + partition), properties.getSegmentBytes(), properties.isFsync());
+        TimingWheel wheel = new TimingWheel(properties.getTickMs(), properties.getWheelSize(), System.currentTimeMillis());
+        return new TimingWheelShard(wheel, segmentLog, codec, properties.getMaxSegments(), properties.getMaxEntries());
+    }
+
+    // 상대 경로는 작업 디렉토리에 따라 달라져 재시작 후 복구하지 못하므로 절대 경로만 허용
+    private static Path toDataDir(String dataDir) {
+        if (dataDir == null || dataDir.isBlank() || !Paths.get(dataDir).isAbsolute()) {
+            throw new IllegalStateException("retry.worker.queue.wheel.data-dir must be an absolute path on a persistent volume | dataDir: " + dataDir);
+        }
+        return Paths.get(dataDir);
+    }
+
+    private List<Integer> listPartitionDirs() {
+        try (Stream<Path> dirs = Files.list(dataDir)) {
+            return dirs.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PARTITION_DIR_PREFIX))
+                    .map(name -> Integer.valueOf(name.substring(PARTITION_DIR_PREFIX.length())))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Object getLock(int partition) {
+        return locks.computeIfAbsent(partition, k -> new Object());
+    }
+
+    private static Integer toPartition(String queueKey) {
+        return Integer.valueOf(queueKey.substring(QUEUE_KEY_PREFIX.length()));
+    }
+}
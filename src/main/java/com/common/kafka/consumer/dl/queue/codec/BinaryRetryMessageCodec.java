@@ -0,0 +1,244 @@
+package com.common.kafka.consumer.dl.queue.codec;
+
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.common.kafka.consumer.dl.resource.RetryRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versioned binary envelope for queue entries.
+ *
+ * <pre>
+ * magic(1) version(1) flags(1) [originalLength(4) if LZ4] body
+ * body = retryCount(4) key originalTopic valueType(1) value headerCount(4) (headerKey headerValue)*
+ * </pre>
+ * Every variable length field is a 4 byte length prefix (-1 for null) followed by the raw bytes.
+ */
+public class BinaryRetryMessageCodec implements RetryMessageCodec {
+    public static final byte MAGIC = (byte) 0xC7;
+    static final byte VERSION = 1;
+
+    private static final byte FLAG_LZ4 = 0x01;
+    private static final int PREAMBLE_LENGTH = 3;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_BYTES = 2;
+    private static final byte VALUE_JSON = 3;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final ObjectMapper objectMapper;
+    private final boolean compress;
+    private final int compressionThresholdBytes;
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+
+    public BinaryRetryMessageCodec(ObjectMapper objectMapper, boolean compress, int compressionThresholdBytes) {
+        this.objectMapper = objectMapper;
+        this.compress = compress;
+        this.compressionThresholdBytes = compressionThresholdBytes;
+    }
+
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length >= PREAMBLE_LENGTH && bytes[0] == MAGIC;
+    }
+
+    @Override
+    public byte[] encode(RetryMessage message) {
+        byte[] key = toBytes(message.getKey());
+        byte[] originalTopic = toBytes(message.getOriginalTopic());
+        byte valueType = message.getPayload() != null ? VALUE_BYTES : getValueType(message.getValue());
+        byte[] value = message.getPayload() != null ? message.getPayload() : getValueBytes(valueType, message.getValue());
+
+        Map<String, String> headers = message.getHeaders() != null ? message.getHeaders() : Map.of();
+        List<byte[]> headerBytes = new ArrayList<>(headers.size() * 2);
+        int bodyLength = 4 + sizeOf(key) + sizeOf(originalTopic) + 1 + sizeOf(value) + 4;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            byte[] headerKey = toBytes(header.getKey());
+            byte[] headerValue = toBytes(header.getValue());
+            headerBytes.add(headerKey);
+            headerBytes.add(headerValue);
+            bodyLength += sizeOf(headerKey) + sizeOf(headerValue);
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        body.putInt(message.getRetryCount());
+        put(body, key);
+        put(body, originalTopic);
+        body.put(valueType);
+        put(body, value);
+        body.putInt(headers.size());
+        for (byte[] bytes : headerBytes) {
+            put(body, bytes);
+        }
+
+        if (compress && bodyLength >= compressionThresholdBytes) {
+            byte[] compressed = new byte[compressor.maxCompressedLength(bodyLength)];
+            int compressedLength = compressor.compress(body.array(), 0, bodyLength, compressed, 0, compressed.length);
+            if (compressedLength + 4 < bodyLength) {
+                ByteBuffer envelope = ByteBuffer.allocate(PREAMBLE_LENGTH + 4 + compressedLength);
+                envelope.put(MAGIC).put(VERSION).put(FLAG_LZ4).putInt(bodyLength);
+                envelope.put(compressed, 0, compressedLength);
+                return envelope.array();
+            }
+        }
+
+        ByteBuffer envelope = ByteBuffer.allocate(PREAMBLE_LENGTH + bodyLength);
+        envelope.put(MAGIC).put(VERSION).put((byte) 0);
+        envelope.put(body.array());
+        return envelope.array();
+    }
+
+    @Override
+    public RetryMessage decode(byte[] bytes) {
+        ByteBuffer body = openBody(bytes);
+
+        int retryCount = body.getInt();
+        String key = toString(get(body));
+        String originalTopic = toString(get(body));
+        byte valueType = body.get();
+        byte[] valueBytes = get(body);
+
+        int headerCount = body.getInt();
+        Map<String, String> headers = new HashMap<>(Math.max(4, headerCount * 2));
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(toString(get(body)), toString(get(body)));
+        }
+
+        return RetryMessage.builder()
+                .key(key)
+                .payload(valueType == VALUE_BYTES ? valueBytes : null)
+                .value(valueType == VALUE_BYTES ? null : toValue(valueType, valueBytes))
+                .originalTopic(originalTopic)
+                .headers(headers)
+                .retryCount(retryCount)
+                .build();
+    }
+
+    @Override
+    public RetryRecord decodeRecord(byte[] bytes) {
+        ByteBuffer body = openBody(bytes);
+
+        int retryCount = body.getInt();
+        String key = toString(get(body));
+        String originalTopic = toString(get(body));
+        body.get();
+        // STRING / JSON value 도 저장된 bytes 가 그대로 전송할 payload 이므로 value type 과 관계없이 재사용
+        byte[] payload = get(body);
+
+        int headerCount = body.getInt();
+        List<Header> headers = new ArrayList<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(new RecordHeader(toString(get(body)), get(body)));
+        }
+
+        return new RetryRecord(originalTopic, key, retryCount, payload, headers);
+    }
+
+    private ByteBuffer openBody(byte[] bytes) {
+        if (!isBinary(bytes)) {
+            throw new IllegalArgumentException("not a binary retry message envelope");
+        }
+        if (bytes[1] != VERSION) {
+            throw new IllegalArgumentException("unsupported retry message envelope version: " + bytes[1]);
+        }
+
+        if ((bytes[2] & FLAG_LZ4) != 0) {
+            int originalLength = ByteBuffer.wrap(bytes, PREAMBLE_LENGTH, 4).getInt();
+            byte[] restored = new byte[originalLength];
+            decompressor.decompress(bytes, PREAMBLE_LENGTH + 4, restored, 0, originalLength);
+            return ByteBuffer.wrap(restored);
+        }
+        return ByteBuffer.wrap(bytes, PREAMBLE_LENGTH, bytes.length - PREAMBLE_LENGTH);
+    }
+
+    private byte getValueType(Object value) {
+        if (value == null) {
+            return VALUE_NULL;
+        }
+        if (value instanceof String) {
+            return VALUE_STRING;
+        }
+        if (value instanceof byte[]) {
+            return VALUE_BYTES;
+        }
+        return VALUE_JSON;
+    }
+
+    private byte[] getValueBytes(byte valueType, Object value) {
+        switch (valueType) {
+            case VALUE_STRING:
+                return ((String) value).getBytes(StandardCharsets.UTF_8);
+            case VALUE_BYTES:
+                return (byte[]) value;
+            case VALUE_JSON:
+                try {
+                    return objectMapper.writeValueAsBytes(value);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            default:
+                return null;
+        }
+    }
+
+    private Object toValue(byte valueType, byte[] bytes) {
+        switch (valueType) {
+            case VALUE_STRING:
+                return toString(bytes);
+            case VALUE_JSON:
+                try {
+                    return objectMapper.readValue(bytes, Object.class);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            default:
+                return null;
+        }
+    }
+
+    private static int sizeOf(byte[] bytes) {
+        return 4 + (bytes != null ? bytes.length : 0);
+    }
+
+    private static void put(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] get(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String toString(byte[] bytes) {
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+}
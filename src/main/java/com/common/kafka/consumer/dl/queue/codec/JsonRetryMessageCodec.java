@@ -0,0 +1,69 @@
+package com.common.kafka.consumer.dl.queue.codec;
+
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.common.kafka.consumer.dl.resource.RetryRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+
+public class JsonRetryMessageCodec implements RetryMessageCodec {
+    private final GenericJackson2JsonRedisSerializer serializer;
+    private final ObjectMapper objectMapper;
+    // value 는 type 정보 없이 원본 JSON 으로 재발행
+    private final ObjectMapper payloadMapper = new ObjectMapper();
+
+    public JsonRetryMessageCodec(ObjectMapper typedObjectMapper) {
+        this.serializer = new GenericJackson2JsonRedisSerializer(typedObjectMapper);
+        this.objectMapper = typedObjectMapper;
+    }
+
+    @Override
+    public byte[] encode(RetryMessage message) {
+        return serializer.serialize(message);
+    }
+
+    @Override
+    public RetryMessage decode(byte[] bytes) {
+        Object value = serializer.deserialize(bytes);
+        if (value == null || value instanceof RetryMessage) {
+            return (RetryMessage) value;
+        }
+        return objectMapper.convertValue(value, RetryMessage.class);
+    }
+
+    @Override
+    public RetryRecord decodeRecord(byte[] bytes) {
+        RetryMessage message = decode(bytes);
+        return message != null ? RetryRecord.of(message, toPayload(message)) : null;
+    }
+
+    public byte[] encodeValue(Object value) {
+        return serializer.serialize(value);
+    }
+
+    public Object decodeValue(byte[] bytes) {
+        return serializer.deserialize(bytes);
+    }
+
+    private byte[] toPayload(RetryMessage message) {
+        if (message.getPayload() != null) {
+            return message.getPayload();
+        }
+
+        // payload 필드 도입 이전에 적재된 항목
+        Object value = message.getValue();
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return payloadMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
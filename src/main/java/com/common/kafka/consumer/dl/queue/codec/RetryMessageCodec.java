@@ -0,0 +1,13 @@
+package com.common.kafka.consumer.dl.queue.codec;
+
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.common.kafka.consumer.dl.resource.RetryRecord;
+
+public interface RetryMessageCodec {
+    byte[] encode(RetryMessage message);
+
+    RetryMessage decode(byte[] bytes);
+
+    // 재발행 경로 전용. RetryMessage 를 거치지 않고 바로 전송 가능한 형태로 복원
+    RetryRecord decodeRecord(byte[] bytes);
+}
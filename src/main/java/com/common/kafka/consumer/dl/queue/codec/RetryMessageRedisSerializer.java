@@ -0,0 +1,50 @@
+package com.common.kafka.consumer.dl.queue.codec;
+
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.common.kafka.consumer.dl.resource.RetryRecord;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+public class RetryMessageRedisSerializer implements RedisSerializer<Object> {
+    private final RetryMessageCodec codec;
+    private final BinaryRetryMessageCodec binaryCodec;
+    private final JsonRetryMessageCodec jsonCodec;
+
+    public RetryMessageRedisSerializer(RetryMessageCodec codec, BinaryRetryMessageCodec binaryCodec, JsonRetryMessageCodec jsonCodec) {
+        this.codec = codec;
+        this.binaryCodec = binaryCodec;
+        this.jsonCodec = jsonCodec;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof RetryMessage) {
+            return codec.encode((RetryMessage) value);
+        }
+        return jsonCodec.encodeValue(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        // envelope magic 으로 판별하여 설정과 관계없이 기존 JSON 항목도 읽을 수 있음
+        if (BinaryRetryMessageCodec.isBinary(bytes)) {
+            return binaryCodec.decode(bytes);
+        }
+        return jsonCodec.decodeValue(bytes);
+    }
+
+    public RetryRecord deserializeRecord(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        if (BinaryRetryMessageCodec.isBinary(bytes)) {
+            return binaryCodec.decodeRecord(bytes);
+        }
+        return jsonCodec.decodeRecord(bytes);
+    }
+}
@@ -0,0 +1,251 @@
+package com.common.kafka.consumer.dl.queue.wheel;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only segment files for one partition.
+ *
+ * <pre>
+ * ENQUEUE = type(1) id(8) score(8) length(4) blob
+ * ACK     = type(1) id(8)
+ * </pre>
+ * A later ENQUEUE with the same id replaces the earlier one (nack / compaction). Segments are only deleted from the oldest
+ * end once every entry enqueued in them is acked, so an ACK is never dropped while the ENQUEUE it cancels is still on disk.
+ */
+@Slf4j
+public class SegmentLog implements Closeable {
+    private static final byte ENQUEUE = 1;
+    private static final byte ACK = 2;
+    private static final String SEGMENT_FORMAT = "%020d.log";
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final boolean fsync;
+    // segment 번호 -> 아직 ack 되지 않은 항목 수
+    private final TreeMap<Long, Integer> liveCounts = new TreeMap<>();
+
+    private long activeSegment;
+    private FileChannel channel;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+
+    public SegmentLog(Path dir, long segmentBytes, boolean fsync) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    // 디렉토리의 segment 를 순서대로 읽어 살아있는 항목 (id -> record) 을 반환하고 마지막 segment 에 이어서 기록
+    public Map<Long, LogRecord> open() {
+        try {
+            Files.createDirectories(dir);
+            Map<Long, LogRecord> records = new LinkedHashMap<>();
+            List<Path> segments = listSegments();
+            for (Path segment : segments) {
+                long base = toSegment(segment);
+                liveCounts.put(base, 0);
+                replay(segment, base, records);
+            }
+
+            activeSegment = segments.isEmpty() ? 0 : toSegment(segments.get(segments.size() - 1));
+            openActive();
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getActiveSegment() {
+        return activeSegment;
+    }
+
+    public long getOldestSegment() {
+        return liveCounts.isEmpty() ? activeSegment : liveCounts.firstKey();
+    }
+
+    public int getSegmentCount() {
+        return liveCounts.size();
+    }
+
+    // 기록한 segment 번호를 반환 (항목은 이 segment 의 live count 에 포함)
+    public long appendEnqueue(long id, long score, byte[] blob, long previousSegment) {
+        ensureCapacity(1 + 8 + 8 + 4 + blob.length);
+        pending.put(ENQUEUE).putLong(id).putLong(score).putInt(blob.length).put(blob);
+        if (previousSegment >= 0) {
+            release(previousSegment);
+        }
+        liveCounts.merge(activeSegment, 1, Integer::sum);
+        return activeSegment;
+    }
+
+    public void appendAck(long id, long segment) {
+        ensureCapacity(1 + 8);
+        pending.put(ACK).putLong(id);
+        release(segment);
+    }
+
+    // 모아둔 record 를 파일에 기록하고 필요 시 fsync, segment 크기를 넘으면 새 segment 로 교체
+    public void commit() {
+        try {
+            if (pending.position() > 0) {
+                pending.flip();
+                while (pending.hasRemaining()) {
+                    channel.write(pending);
+                }
+                pending.clear();
+                if (fsync) {
+                    channel.force(false);
+                }
+            }
+
+            if (channel.size() >= segmentBytes) {
+                roll();
+            }
+            deleteReleasedSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void deleteAll() {
+        try {
+            close();
+            for (Path segment : listSegments()) {
+                Files.deleteIfExists(segment);
+            }
+            Files.deleteIfExists(dir);
+            liveCounts.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (channel != null && channel.isOpen()) {
+                commit();
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void replay(Path segment, long base, Map<Long, LogRecord> records) throws IOException {
+        long validLength = 0;
+        try (InputStream file = Files.newInputStream(segment);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                try {
+                    long id = in.readLong();
+                    if (type == ENQUEUE) {
+                        long score = in.readLong();
+                        byte[] blob = new byte[in.readInt()];
+                        in.readFully(blob);
+                        LogRecord previous = records.put(id, new LogRecord(id, score, blob, base));
+                        if (previous != null) {
+                            release(previous.segment());
+                        }
+                        liveCounts.merge(base, 1, Integer::sum);
+                        validLength += 1 + 8 + 8 + 4 + blob.length;
+                    } else if (type == ACK) {
+                        LogRecord previous = records.remove(id);
+                        if (previous != null) {
+                            release(previous.segment());
+                        }
+                        validLength += 1 + 8;
+                    } else {
+                        throw new EOFException("unknown record type " + type);
+                    }
+                } catch (EOFException e) {
+                    // 마지막 record 를 쓰던 중 종료된 경우 손상된 꼬리를 잘라내고 이어서 기록
+                    log.warn("truncating partial record in retry segment | segment: {}, validLength: {}", segment, validLength);
+                    try (FileChannel truncate = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                        truncate.truncate(validLength);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private void release(long segment) {
+        liveCounts.computeIfPresent(segment, (key, count) -> count - 1);
+    }
+
+    private void deleteReleasedSegments() throws IOException {
+        // ack 가 앞선 segment 의 enqueue 를 취소할 수 있으므로 가장 오래된 쪽부터 연속으로만 삭제
+        while (!liveCounts.isEmpty() && liveCounts.firstKey() != activeSegment && liveCounts.firstEntry().getValue() <= 0) {
+            long segment = liveCounts.pollFirstEntry().getKey();
+            Files.deleteIfExists(dir.resolve(String.format(SEGMENT_FORMAT, segment)));
+        }
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        activeSegment++;
+        openActive();
+    }
+
+    private void openActive() throws IOException {
+        liveCounts.putIfAbsent(activeSegment, 0);
+        channel = FileChannel.open(dir.resolve(String.format(SEGMENT_FORMAT, activeSegment)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void ensureCapacity(int length) {
+        if (pending.remaining() >= length) {
+            return;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + length));
+        pending.flip();
+        grown.put(pending);
+        pending = grown;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                    .sorted(Comparator.comparingLong(SegmentLog::toSegment))
+                    .toList();
+        }
+    }
+
+    private static long toSegment(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - ".log".length()));
+    }
+
+    public record LogRecord(long id, long score, byte[] blob, long segment) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.common.kafka.consumer.dl.queue.wheel;
+
+import java.util.function.Consumer;
+
+// 같은 tick 에 만료되는 항목들의 이중 연결 리스트 (삽입 / 삭제 O(1))
+class TimerBucket implements Comparable<TimerBucket> {
+    private final TimerEntry root = new TimerEntry();
+    private long expiration = -1;
+    private int size;
+
+    TimerBucket() {
+        root.next = root;
+        root.prev = root;
+    }
+
+    long getExpiration() {
+        return expiration;
+    }
+
+    // 만료 시각이 바뀌었으면 true (bucket 을 새로 우선순위 큐에 넣어야 함)
+    boolean setExpiration(long expiration) {
+        long previous = this.expiration;
+        this.expiration = expiration;
+        return previous != expiration;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(TimerEntry entry) {
+        entry.unlink();
+
+        TimerEntry tail = root.prev;
+        entry.next = root;
+        entry.prev = tail;
+        entry.bucket = this;
+        tail.next = entry;
+        root.prev = entry;
+        size++;
+    }
+
+    void remove(TimerEntry entry) {
+        if (entry.bucket != this) {
+            return;
+        }
+
+        entry.next.prev = entry.prev;
+        entry.prev.next = entry.next;
+        entry.next = null;
+        entry.prev = null;
+        entry.bucket = null;
+        size--;
+    }
+
+    // 모든 항목을 꺼내 다시 배치 (상위 wheel 에서 하위 wheel 로 내려가거나 만료 처리)
+    void flush(Consumer<TimerEntry> consumer) {
+        TimerEntry head = root.next;
+        while (head != root) {
+            TimerEntry next = head.next;
+            remove(head);
+            consumer.accept(head);
+            head = next;
+        }
+        expiration = -1;
+    }
+
+    @Override
+    public int compareTo(TimerBucket other) {
+        return Long.compare(expiration, other.expiration);
+    }
+}
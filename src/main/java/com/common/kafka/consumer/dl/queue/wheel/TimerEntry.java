@@ -0,0 +1,46 @@
+package com.common.kafka.consumer.dl.queue.wheel;
+
+import lombok.Getter;
+
+@Getter
+public class TimerEntry {
+    private final long id;
+    private final String key;
+    private final String originalTopic;
+    // segment 에 기록된 인코딩 그대로 보관 (nack / compaction 시 재인코딩 없이 다시 기록하고, drain 시점에만 복원)
+    private final byte[] blob;
+    private long score;
+    private long segment;
+
+    // 소속된 bucket 의 이중 연결 리스트 (bucket 에 없으면 null)
+    TimerBucket bucket;
+    TimerEntry prev;
+    TimerEntry next;
+
+    TimerEntry(long id, String key, String originalTopic, byte[] blob, long score, long segment) {
+        this.id = id;
+        this.key = key;
+        this.originalTopic = originalTopic;
+        this.blob = blob;
+        this.score = score;
+        this.segment = segment;
+    }
+
+    TimerEntry() {
+        this(-1, null, null, null, -1, -1);
+    }
+
+    void setScore(long score) {
+        this.score = score;
+    }
+
+    void setSegment(long segment) {
+        this.segment = segment;
+    }
+
+    void unlink() {
+        if (bucket != null) {
+            bucket.remove(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.common.kafka.consumer.dl.queue.wheel;
+
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Each level covers tickMs * wheelSize; an entry beyond the current level goes to a lazily
+ * created overflow wheel whose tick is the interval of the level below. Insert and removal are O(1), and only non empty
+ * buckets are tracked in the priority queue, so advancing to the next expiration costs O(log buckets) rather than
+ * O(log entries). Not thread safe; callers synchronize.
+ */
+public class TimingWheel {
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final TimerBucket[] buckets;
+    private final PriorityQueue<TimerBucket> queue;
+    private long currentTime;
+    private TimingWheel overflowWheel;
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this(tickMs, wheelSize, startMs, new PriorityQueue<>());
+    }
+
+    private TimingWheel(long tickMs, int wheelSize, long startMs, PriorityQueue<TimerBucket> queue) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.queue = queue;
+        this.currentTime = startMs - (startMs % tickMs);
+        this.buckets = new TimerBucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new TimerBucket();
+        }
+    }
+
+    // 이미 만료된 (현재 tick 안의) 항목이면 false
+    public boolean add(TimerEntry entry) {
+        long expiration = entry.getScore();
+        if (expiration < currentTime + tickMs) {
+            return false;
+        }
+
+        if (expiration < currentTime + interval) {
+            long virtualId = expiration / tickMs;
+            TimerBucket bucket = buckets[(int) (virtualId % wheelSize)];
+            bucket.add(entry);
+            if (bucket.setExpiration(virtualId * tickMs)) {
+                queue.add(bucket);
+            }
+            return true;
+        }
+
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel(interval, wheelSize, currentTime, queue);
+        }
+        return overflowWheel.add(entry);
+    }
+
+    // 만료 시각이 timeMs 이하인 bucket 을 모두 꺼내 reinsert 에 전달 (하위 wheel 로 내려가거나 만료 처리)
+    public void advance(long timeMs, Consumer<TimerEntry> reinsert) {
+        TimerBucket bucket = queue.peek();
+        while (bucket != null && bucket.getExpiration() <= timeMs) {
+            queue.poll();
+            advanceClock(bucket.getExpiration());
+            bucket.flush(reinsert);
+            bucket = queue.peek();
+        }
+    }
+
+    // 가장 이른 bucket 의 만료 시각 (없으면 null)
+    public Long getNextExpiration() {
+        TimerBucket bucket = queue.peek();
+        return bucket != null ? bucket.getExpiration() : null;
+    }
+
+    private void advanceClock(long timeMs) {
+        if (timeMs >= currentTime + tickMs) {
+            currentTime = timeMs - (timeMs % tickMs);
+            if (overflowWheel != null) {
+                overflowWheel.advanceClock(currentTime);
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.common.kafka.consumer.dl.queue.wheel;
+
+import com.common.kafka.consumer.dl.queue.RetryQueueEntry;
+import com.common.kafka.consumer.dl.queue.ScoredRetryMessage;
+import com.common.kafka.consumer.dl.queue.codec.RetryMessageCodec;
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.common.kafka.consumer.dl.resource.RetryRecord;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// 파티션 하나의 timing wheel + segment log. 모든 public 메서드는 shard 단위로 직렬화
+public class TimingWheelShard {
+    private final TimingWheel wheel;
+    private final SegmentLog segmentLog;
+    private final RetryMessageCodec codec;
+    private final int maxSegments;
+    private final int maxEntries;
+
+    private final Map<Long, TimerEntry> entries = new HashMap<>();
+    private final ArrayDeque<TimerEntry> ready = new ArrayDeque<>();
+    // id -> lease 만료 시각 (drain 순서 = lease 만료 순서)
+    private final LinkedHashMap<Long, Long> inFlight = new LinkedHashMap<>();
+    private final Map<String, Set<Long>> keyIndex = new HashMap<>();
+    private final Map<String, Set<Long>> topicIndex = new HashMap<>();
+    private long nextId = 1;
+
+    public TimingWheelShard(TimingWheel wheel, SegmentLog segmentLog, RetryMessageCodec codec, int maxSegments, int maxEntries) {
+        this.wheel = wheel;
+        this.segmentLog = segmentLog;
+        this.codec = codec;
+        this.maxSegments = maxSegments;
+        this.maxEntries = maxEntries;
+    }
+
+    // segment 를 읽어 남아있는 항목을 복구 (drain 후 ack 되지 못한 항목도 다시 대기 상태로)
+    public synchronized int open() {
+        Map<Long, SegmentLog.LogRecord> records = segmentLog.open();
+        for (SegmentLog.LogRecord record : records.values()) {
+            RetryRecord retryRecord = codec.decodeRecord(record.blob());
+            TimerEntry entry = new TimerEntry(record.id(), retryRecord.key(), retryRecord.originalTopic(), record.blob(), record.score(), record.segment());
+            track(entry);
+            schedule(entry);
+            nextId = Math.max(nextId, record.id() + 1);
+        }
+        return records.size();
+    }
+
+    // 모든 항목의 blob 을 heap 에 들고 있으므로 maxEntries 를 넘는 적재는 기록 전에 거절 (호출자가 재시도)
+    public synchronized void addAll(List<ScoredRetryMessage> messages) {
+        if (!hasCapacity(messages.size())) {
+            throw new IllegalStateException("timing wheel shard is full | entries: " + entries.size() + ", maxEntries: " + maxEntries);
+        }
+
+        for (ScoredRetryMessage scored : messages) {
+            RetryMessage message = scored.message();
+            long id = nextId++;
+            byte[] blob = codec.encode(message);
+            long segment = segmentLog.appendEnqueue(id, scored.score(), blob, -1);
+            TimerEntry entry = new TimerEntry(id, message.getKey(), message.getOriginalTopic(), blob, scored.score(), segment);
+            track(entry);
+            schedule(entry);
+        }
+        commit();
+    }
+
+    public synchronized boolean hasCapacity(int count) {
+        return entries.size() + count <= maxEntries;
+    }
+
+    public synchronized List<RetryQueueEntry> drain(long maxScore, int limit, long leaseUntil) {
+        wheel.advance(maxScore, this::schedule);
+
+        List<RetryQueueEntry> drained = new ArrayList<>(Math.min(limit, ready.size()));
+        while (drained.size() < limit && !ready.isEmpty()) {
+            TimerEntry entry = ready.pollFirst();
+            inFlight.put(entry.getId(), leaseUntil);
+            drained.add(toRetryQueueEntry(entry));
+        }
+        return drained;
+    }
+
+    public synchronized long ack(List<String> ids) {
+        long count = 0;
+        for (String id : ids) {
+            TimerEntry entry = entries.get(Long.valueOf(id));
+            if (entry != null) {
+                remove(entry);
+                count++;
+            }
+        }
+        commit();
+        return count;
+    }
+
+    public synchronized long nack(List<String> ids, long score) {
+        long count = 0;
+        for (String id : ids) {
+            Long entryId = Long.valueOf(id);
+            TimerEntry entry = entries.get(entryId);
+            if (entry != null && inFlight.remove(entryId) != null) {
+                // 새 due 시각도 재시작 후 복구되도록 같은 id 로 다시 기록
+                entry.setScore(score);
+                entry.setSegment(segmentLog.appendEnqueue(entry.getId(), score, entry.getBlob(), entry.getSegment()));
+                schedule(entry);
+                count++;
+            }
+        }
+        commit();
+        return count;
+    }
+
+    public synchronized long requeueExpired(long now, int limit) {
+        long count = 0;
+        Iterator<Map.Entry<Long, Long>> iterator = inFlight.entrySet().iterator();
+        while (iterator.hasNext() && count < limit) {
+            Map.Entry<Long, Long> lease = iterator.next();
+            if (lease.getValue() > now) {
+                break;
+            }
+
+            iterator.remove();
+            TimerEntry entry = entries.get(lease.getKey());
+            if (entry != null) {
+                ready.addLast(entry);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized Long getHeadScore() {
+        if (!ready.isEmpty()) {
+            return ready.peekFirst().getScore();
+        }
+        return wheel.getNextExpiration();
+    }
+
+    public synchronized long size() {
+        return entries.size() - inFlight.size();
+    }
+
+    public synchronized long deleteByKey(String key) {
+        return delete(keyIndex.get(key));
+    }
+
+    public synchronized long deleteByTopic(String topic) {
+        return delete(topicIndex.get(topic));
+    }
+
+    public synchronized List<RetryQueueEntry> findByKey(String key, int limit) {
+        return find(keyIndex.get(key), limit);
+    }
+
+    public synchronized List<RetryQueueEntry> findByTopic(String topic, int limit) {
+        return find(topicIndex.get(topic), limit);
+    }
+
+    // 소유권을 넘길 때 inflight 를 포함한 모든 항목
+    public synchronized List<RetryQueueEntry> getAll() {
+        List<RetryQueueEntry> all = new ArrayList<>(entries.size());
+        for (TimerEntry entry : entries.values()) {
+            all.add(toRetryQueueEntry(entry));
+        }
+        return all;
+    }
+
+    public synchronized void close() {
+        segmentLog.close();
+    }
+
+    public synchronized long deleteAll() {
+        long count = entries.size();
+        entries.values().forEach(TimerEntry::unlink);
+        entries.clear();
+        ready.clear();
+        inFlight.clear();
+        keyIndex.clear();
+        topicIndex.clear();
+        segmentLog.deleteAll();
+        return count;
+    }
+
+    private void schedule(TimerEntry entry) {
+        if (!wheel.add(entry)) {
+            ready.addLast(entry);
+        }
+    }
+
+    private void track(TimerEntry entry) {
+        entries.put(entry.getId(), entry);
+        keyIndex.computeIfAbsent(nullToEmpty(entry.getKey()), k -> new LinkedHashSet<>()).add(entry.getId());
+        topicIndex.computeIfAbsent(nullToEmpty(entry.getOriginalTopic()), k -> new LinkedHashSet<>()).add(entry.getId());
+    }
+
+    private void remove(TimerEntry entry) {
+        entries.remove(entry.getId());
+        entry.unlink();
+        // drain 된 항목은 ready 에 없으므로 선형 탐색은 lease 만료 후 늦게 도착한 ack / 관리자 삭제에서만 발생
+        if (inFlight.remove(entry.getId()) == null) {
+            ready.remove(entry);
+        }
+        untrack(keyIndex, nullToEmpty(entry.getKey()), entry.getId());
+        untrack(topicIndex, nullToEmpty(entry.getOriginalTopic()), entry.getId());
+        segmentLog.appendAck(entry.getId(), entry.getSegment());
+    }
+
+    private long delete(Set<Long> ids) {
+        if (ids == null) {
+            return 0;
+        }
+
+        List<TimerEntry> targets = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            targets.add(entries.get(id));
+        }
+        targets.forEach(this::remove);
+        commit();
+        return targets.size();
+    }
+
+    private List<RetryQueueEntry> find(Set<Long> ids, int limit) {
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+
+        List<RetryQueueEntry> found = new ArrayList<>(Math.min(limit, ids.size()));
+        for (Long id : ids) {
+            if (found.size() >= limit) {
+                break;
+            }
+            found.add(toRetryQueueEntry(entries.get(id)));
+        }
+        return found;
+    }
+
+    private void commit() {
+        segmentLog.commit();
+
+        // 오래 대기하는 항목이 오래된 segment 를 붙잡고 있으면 새 segment 로 옮겨 삭제될 수 있게 함
+        if (segmentLog.getSegmentCount() > maxSegments) {
+            long oldest = segmentLog.getOldestSegment();
+            for (TimerEntry entry : entries.values()) {
+                if (entry.getSegment() == oldest) {
+                    entry.setSegment(segmentLog.appendEnqueue(entry.getId(), entry.getScore(), entry.getBlob(), oldest));
+                }
+            }
+            segmentLog.commit();
+        }
+    }
+
+    private RetryQueueEntry toRetryQueueEntry(TimerEntry entry) {
+        return new RetryQueueEntry(String.valueOf(entry.getId()), codec.decodeRecord(entry.getBlob()), entry.getScore());
+    }
+
+    private static void untrack(Map<String, Set<Long>> index, String value, long id) {
+        Set<Long> ids = index.get(value);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(value);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,7 @@
+package com.common.kafka.consumer.dl.resource;
+
+public enum CountMode {
+    EXACT,
+    ESTIMATE,
+    NONE,
+}
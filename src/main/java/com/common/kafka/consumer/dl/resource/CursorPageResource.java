@@ -0,0 +1,21 @@
+package com.common.kafka.consumer.dl.resource;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResource<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private Long nextCursor;
+    private Long totalElements;
+    private boolean totalEstimated;
+}
@@ -0,0 +1,23 @@
+package com.common.kafka.consumer.dl.resource;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterGroupResource {
+    private String fingerprint;
+    private String topic;
+    private String exceptionType;
+    private String exceptionMessage;
+    private String payloadPreview;
+    private long failureCount;
+    private LocalDateTime firstSeenAt;
+    private LocalDateTime lastSeenAt;
+}
@@ -16,7 +16,8 @@ public class KafkaDeadLetterResource {
     private Long kafkaDeadLetterId;
     private String topic;
     private String messageKey;
-    private String payload;
+    private Integer payloadSize;
+    private String payloadPreview;
     private String exceptionMessage;
     private KafkaDeadLetterStatus status;
     private LocalDateTime regDttm;
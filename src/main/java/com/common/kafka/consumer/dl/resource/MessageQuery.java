@@ -21,4 +21,7 @@ public class MessageQuery {
     private KafkaDeadLetterStatus status;
     private LocalDate fromDate;
     private LocalDate toDate;
+    private Long cursor;
+    @Builder.Default
+    private CountMode countMode = CountMode.EXACT;
 }
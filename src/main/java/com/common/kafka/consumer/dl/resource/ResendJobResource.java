@@ -0,0 +1,27 @@
+package com.common.kafka.consumer.dl.resource;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResendJobResource {
+    private String jobId;
+    private ResendJobStatus status;
+    private Long startId;
+    private Long endId;
+    private String fingerprint;
+    private Long lastProcessedId;
+    private long sentCount;
+    private long failedCount;
+    private double ratePerSecond;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
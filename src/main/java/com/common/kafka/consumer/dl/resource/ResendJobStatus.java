@@ -0,0 +1,8 @@
+package com.common.kafka.consumer.dl.resource;
+
+public enum ResendJobStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED,
+}
@@ -1,5 +1,6 @@
 package com.common.kafka.consumer.dl.resource;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,8 +14,13 @@ import java.util.Map;
 @AllArgsConstructor
 public class RetryMessage {
     private String key;
+    private byte[] payload;
     private Object value;
     private String originalTopic;
     private Map<String, String> headers;
     private int retryCount;
+
+    // 수신한 common-retry-topic 파티션 (timing-wheel 엔진의 shard 선택용, 대기열에는 저장하지 않음)
+    @JsonIgnore
+    private transient Integer sourcePartition;
 }
@@ -0,0 +1,21 @@
+package com.common.kafka.consumer.dl.resource;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryPolicyResource {
+    private String topic;
+    private String exceptionType;
+    private RetryWorkerProperties.PolicyType type;
+    private Long delayMs;
+    private Long maxDelayMs;
+    private Double multiplier;
+    private Integer maxRetryCount;
+}
@@ -0,0 +1,21 @@
+package com.common.kafka.consumer.dl.resource;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryQueueItemResource {
+    private String key;
+    private String originalTopic;
+    private int retryCount;
+    private LocalDateTime dueAt;
+    private Integer payloadSize;
+    private String payloadPreview;
+}
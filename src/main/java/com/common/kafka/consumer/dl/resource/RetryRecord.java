@@ -0,0 +1,37 @@
+package com.common.kafka.consumer.dl.resource;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 재발행에 필요한 값만 담은 대기열 항목. header 값은 bytes 그대로 유지하여 String 변환 없이 ProducerRecord 로 전달
+public record RetryRecord(String originalTopic, String key, int retryCount, byte[] payload, List<Header> headers) {
+
+    public static RetryRecord of(RetryMessage message, byte[] payload) {
+        Map<String, String> headers = message.getHeaders() != null ? message.getHeaders() : Map.of();
+        List<Header> recordHeaders = new ArrayList<>(headers.size() + 1);
+        headers.forEach((key, value) -> recordHeaders.add(new RecordHeader(key, value != null ? value.getBytes(StandardCharsets.UTF_8) : null)));
+        return new RetryRecord(message.getOriginalTopic(), message.getKey(), message.getRetryCount(), payload, recordHeaders);
+    }
+
+    // 대기열에 다시 적재할 때 사용 (적재 경로는 RetryMessage 기준)
+    public RetryMessage toRetryMessage() {
+        Map<String, String> headerMap = new HashMap<>(Math.max(4, headers.size() * 2));
+        for (Header header : headers) {
+            headerMap.put(header.key(), header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null);
+        }
+
+        return RetryMessage.builder()
+                .key(key)
+                .payload(payload)
+                .originalTopic(originalTopic)
+                .headers(headerMap)
+                .retryCount(retryCount)
+                .build();
+    }
+}
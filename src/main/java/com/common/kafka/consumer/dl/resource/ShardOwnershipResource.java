@@ -0,0 +1,21 @@
+package com.common.kafka.consumer.dl.resource;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardOwnershipResource {
+    private String instanceId;
+    private boolean enabled;
+    private List<String> members;
+    private List<String> ownedKeys;
+    private Map<String, String> owners;
+}
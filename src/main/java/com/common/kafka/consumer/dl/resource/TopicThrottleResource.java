@@ -0,0 +1,24 @@
+package com.common.kafka.consumer.dl.resource;
+
+import com.common.kafka.consumer.dl.policy.TopicThrottle;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopicThrottleResource {
+    private String topic;
+    private TopicThrottle.CircuitState circuitState;
+    // open / half-open 이 끝나는 시각 (closed 면 null)
+    private LocalDateTime until;
+    private long resent;
+    private long returned;
+    private double permitsPerSecond;
+    private double availablePermits;
+}
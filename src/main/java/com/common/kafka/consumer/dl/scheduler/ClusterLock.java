@@ -0,0 +1,40 @@
+package com.common.kafka.consumer.dl.scheduler;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+
+// 여러 replica 중 하나만 실행해야 하는 주기 작업 (보존 기간 정리, partition 관리) 용 Redis lease
+@Component
+public class ClusterLock {
+    static final String LOCK_KEY_PREFIX = "platform:retry:lock:";
+
+    // KEYS[1] = lock key, ARGV[1] = instance id -> 자신이 잡은 경우에만 삭제
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then\n" +
+            "    return redis.call('DEL', KEYS[1])\n" +
+            "end\n" +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String instanceId;
+
+    public ClusterLock(StringRedisTemplate redisTemplate, ShardOwnership shardOwnership) {
+        this.redisTemplate = redisTemplate;
+        this.instanceId = shardOwnership.getInstanceId();
+    }
+
+    // ttl 은 작업이 끝나지 않고 죽었을 때 다른 replica 가 다시 잡을 수 있는 시간
+    public boolean tryLock(String name, long ttlMs) {
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY_PREFIX + name, instanceId, Duration.ofMillis(ttlMs));
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    public void unlock(String name) {
+        redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(LOCK_KEY_PREFIX + name), instanceId);
+    }
+}
@@ -0,0 +1,103 @@
+package com.common.kafka.consumer.dl.scheduler;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterPartitionRepository;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// 일 단위 partition 을 precreate-days 만큼 미리 만들고, retention-ms 가 지난 partition 은 DELETE 대신 DROP PARTITION
+@Slf4j
+@Component
+public class DeadLetterPartitionScheduler {
+    static final String LOCK_NAME = "dead-letter-partition";
+
+    private final KafkaDeadLetterPartitionRepository kafkaDeadLetterPartitionRepository;
+    private final RetryWorkerProperties.Retention retention;
+    private final RetryWorkerProperties.Partitioning properties;
+    private final RetryMetrics retryMetrics;
+    private final ClusterLock clusterLock;
+
+    public DeadLetterPartitionScheduler(KafkaDeadLetterPartitionRepository kafkaDeadLetterPartitionRepository, RetryWorkerProperties properties, RetryMetrics retryMetrics, ClusterLock clusterLock) {
+        this.kafkaDeadLetterPartitionRepository = kafkaDeadLetterPartitionRepository;
+        this.retention = properties.getRetention();
+        this.properties = properties.getRetention().getPartitioning();
+        this.retryMetrics = retryMetrics;
+        this.clusterLock = clusterLock;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${retry.worker.retention.partitioning.interval-ms:3600000}")
+    public void maintain() {
+        if (!properties.isEnabled() || !clusterLock.tryLock(LOCK_NAME, retention.getMaxRunMs())) {
+            return;
+        }
+
+        try {
+            List<String> partitions = kafkaDeadLetterPartitionRepository.findPartitions();
+            if (!partitions.contains(KafkaDeadLetterPartitionRepository.MAX_PARTITION)) {
+                log.warn("kafka_dead_letters is not partitioned by day, skip partition maintenance | partitions: {}", partitions.size());
+                return;
+            }
+
+            addPartitions(partitions);
+            dropPartitions(partitions);
+        } catch (Exception ex) {
+            log.warn("failed to maintain dead letter partitions | message: {}", ex.getMessage(), ex);
+        } finally {
+            clusterLock.unlock(LOCK_NAME);
+        }
+    }
+
+    private void addPartitions(List<String> partitions) {
+        LocalDate lastDay = null;
+        for (String partition : partitions) {
+            LocalDate day = KafkaDeadLetterPartitionRepository.toDay(partition);
+            if (day != null && (lastDay == null || day.isAfter(lastDay))) {
+                lastDay = day;
+            }
+        }
+
+        // 마지막 partition 이후부터 순서대로만 추가 가능 (그 사이 날짜의 행은 다음 partition 에 함께 들어감)
+        LocalDate today = LocalDate.now();
+        LocalDate from = lastDay != null && !lastDay.isBefore(today) ? lastDay.plusDays(1) : today;
+        for (LocalDate day = from; !day.isAfter(today.plusDays(properties.getPrecreateDays())); day = day.plusDays(1)) {
+            kafkaDeadLetterPartitionRepository.addPartition(day);
+            log.info("added dead letter partition | partition: {}", KafkaDeadLetterPartitionRepository.toPartitionName(day));
+        }
+    }
+
+    private void dropPartitions(List<String> partitions) {
+        if (properties.getRetentionMs() == null) {
+            return;
+        }
+
+        // partition 의 마지막 행 (다음 날 0시 직전) 까지 보존 기간이 지난 것만
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(properties.getRetentionMs()));
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            LocalDate day = KafkaDeadLetterPartitionRepository.toDay(partition);
+            if (day != null && !day.plusDays(1).atStartOfDay().isAfter(cutoff)) {
+                expired.add(partition);
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        kafkaDeadLetterPartitionRepository.dropPartitions(expired);
+        retryMetrics.recordPartitionDrop(expired.size());
+        log.info("dropped expired dead letter partitions | partitions: {}", expired);
+
+        int deleted;
+        do {
+            deleted = kafkaDeadLetterPartitionRepository.deleteOrphanPayloads(retention.getChunkSize());
+        } while (deleted >= retention.getChunkSize());
+    }
+}
@@ -0,0 +1,111 @@
+package com.common.kafka.consumer.dl.scheduler;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterJdbcRepository;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterJdbcRepository.ExpiredRow;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterStatus;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// 상태별 / 토픽별 보존 기간이 지난 dead letter 를 작은 chunk 단위로 삭제
+// 한 번에 큰 DELETE 를 하지 않고 (created_at, id) keyset 으로 chunk-size 건씩 지우며 chunk 사이에 쉬어 table lock / replication 지연을 피함
+@Slf4j
+@Component
+public class DeadLetterPurgeScheduler {
+    static final String LOCK_NAME = "dead-letter-purge";
+
+    private final KafkaDeadLetterJdbcRepository kafkaDeadLetterJdbcRepository;
+    private final RetryWorkerProperties.Retention properties;
+    private final RetryMetrics retryMetrics;
+    private final ClusterLock clusterLock;
+
+    public DeadLetterPurgeScheduler(KafkaDeadLetterJdbcRepository kafkaDeadLetterJdbcRepository, RetryWorkerProperties properties, RetryMetrics retryMetrics, ClusterLock clusterLock) {
+        this.kafkaDeadLetterJdbcRepository = kafkaDeadLetterJdbcRepository;
+        this.properties = properties.getRetention();
+        this.retryMetrics = retryMetrics;
+        this.clusterLock = clusterLock;
+    }
+
+    @Scheduled(fixedDelayString = "${retry.worker.retention.interval-ms:600000}")
+    public void purge() {
+        if (!properties.isEnabled() || !clusterLock.tryLock(LOCK_NAME, properties.getMaxRunMs())) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = System.currentTimeMillis() + properties.getMaxRunMs();
+        long lagMs = 0;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // 토픽별 보존 기간 먼저
+            for (Map.Entry<String, Map<KafkaDeadLetterStatus, Long>> topic : properties.getTopics().entrySet()) {
+                for (Map.Entry<KafkaDeadLetterStatus, Long> ttl : topic.getValue().entrySet()) {
+                    lagMs = Math.max(lagMs, purge(ttl.getKey(), topic.getKey(), Collections.emptySet(), now.minus(Duration.ofMillis(ttl.getValue())), deadline));
+                }
+            }
+
+            // 상태별 기본 보존 기간 (해당 상태에 토픽별 값이 있는 토픽은 제외)
+            for (Map.Entry<KafkaDeadLetterStatus, Long> ttl : properties.getTtlMs().entrySet()) {
+                lagMs = Math.max(lagMs, purge(ttl.getKey(), null, getOverriddenTopics(ttl.getKey()), now.minus(Duration.ofMillis(ttl.getValue())), deadline));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.warn("failed to purge dead letters | message: {}", ex.getMessage(), ex);
+        } finally {
+            retryMetrics.recordPurgeRun(System.nanoTime() - start, lagMs);
+            clusterLock.unlock(LOCK_NAME);
+        }
+    }
+
+    // 반환값은 끝내지 못한 경우 남은 가장 오래된 행이 보존 기간을 넘긴 시간 (다 지웠으면 0)
+    private long purge(KafkaDeadLetterStatus status, String topic, Set<String> excludedTopics, LocalDateTime cutoff, long deadline) throws InterruptedException {
+        ExpiredRow after = null;
+        long deleted = 0;
+        while (true) {
+            List<ExpiredRow> chunk = kafkaDeadLetterJdbcRepository.findExpired(status, topic, excludedTopics, cutoff, after, properties.getChunkSize());
+            if (chunk.isEmpty()) {
+                break;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                log.info("dead letter purge stopped at max run time | status: {}, topic: {}, deleted: {}", status, topic, deleted);
+                return Duration.between(chunk.get(0).createdAt(), cutoff).toMillis();
+            }
+
+            int count = kafkaDeadLetterJdbcRepository.deleteAll(chunk.stream().map(ExpiredRow::id).toList());
+            deleted += count;
+            retryMetrics.recordPurge(status.name(), count);
+            if (chunk.size() < properties.getChunkSize()) {
+                break;
+            }
+
+            after = chunk.get(chunk.size() - 1);
+            Thread.sleep(properties.getChunkPauseMs());
+        }
+
+        if (deleted > 0) {
+            log.info("purged expired dead letters | status: {}, topic: {}, deleted: {}", status, topic, deleted);
+        }
+        return 0;
+    }
+
+    private Set<String> getOverriddenTopics(KafkaDeadLetterStatus status) {
+        Set<String> topics = new TreeSet<>();
+        properties.getTopics().forEach((topic, ttls) -> {
+            if (ttls.containsKey(status)) {
+                topics.add(topic);
+            }
+        });
+        return topics;
+    }
+}
@@ -0,0 +1,115 @@
+package com.common.kafka.consumer.dl.scheduler;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.queue.RetryQueueEntry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// shard 별 deficit round robin: due 토픽을 priority -> 토픽 이름 순으로 돌며 라운드마다 quantum * weight 만큼 drain 할 수를 배정
+// 다음 drain 은 이전 drain 이 멈춘 토픽부터 이어가므로, 한 토픽에 backlog 가 몰려도 다른 토픽은 한 라운드 안에 차례가 옴
+class FairDrainPlanner {
+    private static final RetryWorkerProperties.TopicShare DEFAULT_SHARE = new RetryWorkerProperties.TopicShare();
+
+    private final RetryWorkerProperties.Fairness fairness;
+    private final Comparator<String> order;
+    private final Map<String, Round> rounds = new ConcurrentHashMap<>();
+
+    FairDrainPlanner(RetryWorkerProperties.Fairness fairness) {
+        this.fairness = fairness;
+        this.order = Comparator.<String, RetryWorkerProperties.Priority>comparing(topic -> getShare(topic).getPriority())
+                .thenComparing(Comparator.naturalOrder());
+    }
+
+    boolean isEnabled() {
+        return fairness.isEnabled();
+    }
+
+    // 토픽 -> 이번 drain 에서 가져올 최대 개수 (합계는 limit)
+    Map<String, Integer> plan(String queueKey, List<String> dueTopics, int limit) {
+        Round round = rounds.computeIfAbsent(queueKey, k -> new Round());
+        List<String> topics = new ArrayList<>(dueTopics);
+        topics.sort(order);
+        // due 항목이 없어진 토픽은 남은 deficit 을 잃음
+        round.deficits.keySet().retainAll(new HashSet<>(topics));
+
+        int index = 0;
+        if (round.cursor != null) {
+            while (index < topics.size() && compare(topics.get(index), round) < 0) {
+                index++;
+            }
+        }
+
+        // 이전 drain 에서 deficit 을 남긴 토픽은 quantum 을 더하지 않고 남은 deficit 부터 사용
+        boolean resumed = round.inclusive && index < topics.size() && topics.get(index).equals(round.cursor) && round.deficits.containsKey(round.cursor);
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        int remaining = limit;
+        while (remaining > 0) {
+            String topic = topics.get(index % topics.size());
+            int deficit = resumed ? round.deficits.get(topic) : round.deficits.merge(topic, getQuantum(topic), Integer::sum);
+            resumed = false;
+            int taken = Math.min(deficit, remaining);
+            limits.merge(topic, taken, Integer::sum);
+            round.deficits.put(topic, deficit - taken);
+            remaining -= taken;
+
+            // deficit 이 남은 토픽은 다음 drain 에서 이어서, 다 쓴 토픽은 다음 토픽부터
+            round.cursor = topic;
+            round.inclusive = deficit > taken;
+            index++;
+        }
+        return limits;
+    }
+
+    // 배정보다 적게 drain 된 토픽은 due 항목을 모두 가져간 것이므로 deficit 을 비움
+    void record(String queueKey, Map<String, Integer> limits, List<RetryQueueEntry> drained) {
+        Round round = rounds.get(queueKey);
+        if (round == null) {
+            return;
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (RetryQueueEntry entry : drained) {
+            // 원본 토픽이 없는 항목은 빈 문자열 토픽으로 적재됨
+            counts.merge(Objects.toString(entry.record().originalTopic(), ""), 1, Integer::sum);
+        }
+        limits.forEach((topic, limit) -> {
+            if (counts.getOrDefault(topic, 0) < limit) {
+                round.deficits.remove(topic);
+            }
+        });
+    }
+
+    int getMaxTopics() {
+        return fairness.getMaxTopicsPerDrain();
+    }
+
+    private int compare(String topic, Round round) {
+        int compared = order.compare(topic, round.cursor);
+        return round.inclusive ? compared : (compared == 0 ? -1 : compared);
+    }
+
+    private int getQuantum(String topic) {
+        RetryWorkerProperties.TopicShare share = getShare(topic);
+        int priorityWeight = fairness.getPriorityWeights().getOrDefault(share.getPriority(), 1);
+        return Math.max(1, fairness.getQuantum() * share.getWeight() * priorityWeight);
+    }
+
+    private RetryWorkerProperties.TopicShare getShare(String topic) {
+        return fairness.getTopics().getOrDefault(topic, DEFAULT_SHARE);
+    }
+
+    private static class Round {
+        private final Map<String, Integer> deficits = new HashMap<>();
+        // 이전 drain 이 마지막으로 배정한 토픽. inclusive 면 그 토픽부터, 아니면 다음 토픽부터 이어감
+        private String cursor;
+        private boolean inclusive;
+    }
+}
@@ -0,0 +1,83 @@
+package com.common.kafka.consumer.dl.scheduler;
+
+import com.common.kafka.consumer.dl.queue.RetryQueueEntry;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// 전송 결과를 기다리는 재발행 수를 제한하고, 완료된 항목을 shard 별로 모아 drain 스레드가 ack / nack 하도록 전달
+class InFlightWindow {
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final Map<String, Queue<RetryQueueEntry>> succeeded = new ConcurrentHashMap<>();
+    private final Map<String, Queue<RetryQueueEntry>> failed = new ConcurrentHashMap<>();
+
+    InFlightWindow(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    int acquire(int max, long timeoutMs) throws InterruptedException {
+        if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            return 0;
+        }
+
+        int acquired = 1;
+        while (acquired < max && permits.tryAcquire()) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    void release(int count) {
+        if (count > 0) {
+            permits.release(count);
+        }
+    }
+
+    void complete(String queueKey, RetryQueueEntry entry, boolean success) {
+        // producer I/O 스레드에서 호출되므로 Redis 호출 없이 결과만 기록
+        (success ? succeeded : failed).computeIfAbsent(queueKey, k -> new ConcurrentLinkedQueue<>()).add(entry);
+        permits.release();
+    }
+
+    List<RetryQueueEntry> pollSucceeded(String queueKey) {
+        return poll(succeeded.get(queueKey));
+    }
+
+    List<RetryQueueEntry> pollFailed(String queueKey) {
+        return poll(failed.get(queueKey));
+    }
+
+    // 결과가 기록된 적 있는 shard (소유권을 넘긴 shard 의 늦게 도착한 결과도 반영하기 위해 사용)
+    Set<String> getQueueKeys() {
+        Set<String> keys = new HashSet<>(succeeded.keySet());
+        keys.addAll(failed.keySet());
+        return keys;
+    }
+
+    int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    private List<RetryQueueEntry> poll(Queue<RetryQueueEntry> queue) {
+        List<RetryQueueEntry> entries = new ArrayList<>();
+        if (queue == null) {
+            return entries;
+        }
+
+        RetryQueueEntry entry;
+        while ((entry = queue.poll()) != null) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+}
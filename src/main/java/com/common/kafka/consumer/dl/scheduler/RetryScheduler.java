@@ -1,60 +1,297 @@
 package com.common.kafka.consumer.dl.scheduler;
 
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import com.common.kafka.consumer.dl.orchestrator.KeyedExecutor;
 import com.common.kafka.consumer.dl.orchestrator.RetryOrchestrator;
-import com.common.kafka.consumer.dl.resource.RetryMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.common.kafka.consumer.dl.policy.TopicThrottle;
+import com.common.kafka.consumer.dl.queue.RetryQueue;
+import com.common.kafka.consumer.dl.queue.RetryQueueEntry;
+import com.common.kafka.consumer.dl.queue.ScoredRetryMessage;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
-import org.springframework.data.redis.serializer.RedisSerializer;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
-public class RetryScheduler {
-    private final RedisTemplate<String, Object> redisTemplate;
+public class RetryScheduler implements SchedulingConfigurer {
+    private final RetryQueue retryQueue;
     private final RetryOrchestrator retryOrchestrator;
-    private final ObjectMapper objectMapper;
-
-    private static final String LUA_SCRIPT = "local queue = KEYS[1]\n" +
-            "local maxScore = ARGV[1]\n" +
-            "local limit = ARGV[2]\n" +
-            "local items = redis.call('ZRANGEBYSCORE', queue, '-inf', maxScore, 'LIMIT', 0, limit)\n" +
-            "if #items > 0 then\n" +
-            "    redis.call('ZREM', queue, unpack(items))\n" +
-            "end\n" +
-            "return items";
-
-    @SuppressWarnings("unchecked")
-    @Scheduled(fixedDelay = 1000)
+    private final RetryWorkerProperties properties;
+    private final RetryMetrics retryMetrics;
+    private final ExecutorService drainExecutor;
+    private final InFlightWindow inFlightWindow;
+    private final ShardOwnership shardOwnership;
+    private final KeyedExecutor keyedExecutor;
+    private final TopicThrottle topicThrottle;
+    private final FairDrainPlanner fairDrainPlanner;
+
+    private volatile long nextDelayMs;
+    private int consecutiveErrors;
+
+    public RetryScheduler(RetryQueue retryQueue, RetryOrchestrator retryOrchestrator, RetryWorkerProperties properties, RetryMetrics retryMetrics,
+                          ShardOwnership shardOwnership, KeyedExecutor keyedExecutor, TopicThrottle topicThrottle) {
+        this.retryQueue = retryQueue;
+        this.retryOrchestrator = retryOrchestrator;
+        this.properties = properties;
+        this.retryMetrics = retryMetrics;
+        // drain key 수는 엔진에 따라 달라질 수 있으므로 (timing-wheel 은 할당받은 파티션 수) 필요한 만큼 thread 를 재사용
+        this.drainExecutor = keyedExecutor.isVirtual()
+                ? KeyedExecutor.newVirtualThreadExecutor("retry-drain-")
+                : Executors.newCachedThreadPool(new CustomizableThreadFactory("retry-drain-"));
+        this.inFlightWindow = new InFlightWindow(properties.getScheduler().getMaxInFlight());
+        this.shardOwnership = shardOwnership;
+        this.keyedExecutor = keyedExecutor;
+        this.topicThrottle = topicThrottle;
+        this.fairDrainPlanner = new FairDrainPlanner(properties.getScheduler().getFairness());
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addTriggerTask(this::scheduleRetry, context -> {
+            Instant lastCompletion = context.lastCompletion();
+            return (lastCompletion != null ? lastCompletion : Instant.now()).plusMillis(nextDelayMs);
+        });
+    }
+
     public void scheduleRetry() {
+        int drained = 0;
         try {
-            long now = System.currentTimeMillis();
+            // 이 replica 가 소유한 shard 마다 독립적으로 drain (같은 key 는 항상 같은 shard 이므로 key 단위 순서는 유지)
+            List<String> ownedKeys = shardOwnership.getOwnedKeys();
+            flushReleased(ownedKeys);
+
+            List<CompletableFuture<DrainResult>> futures = new ArrayList<>();
+            for (String queueKey : ownedKeys) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return drainShard(queueKey);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return new DrainResult(0, 0, properties.getScheduler().getMinIdleMs());
+                    }
+                }, drainExecutor));
+            }
+
+            long oldestDueLag = 0;
+            long delay = properties.getScheduler().getMaxIdleMs();
+            for (CompletableFuture<DrainResult> future : futures) {
+                DrainResult result = future.join();
+                drained += result.drained();
+                oldestDueLag = Math.max(oldestDueLag, result.oldestDueLag());
+                delay = Math.min(delay, result.nextDelayMs());
+            }
+
+            retryMetrics.recordOldestDueLag(oldestDueLag);
+            retryMetrics.recordInFlight(inFlightWindow.getInFlight());
+            nextDelayMs = delay;
+            consecutiveErrors = 0;
+        } catch (Exception ex) {
+            log.error("error polling retry delay queue | message: {}", ex.getMessage(), ex);
+            nextDelayMs = getErrorBackoff(++consecutiveErrors);
+        } finally {
+            retryMetrics.recordDrain(drained);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainExecutor.shutdown();
+        // 남은 전송 결과를 반영 (반영하지 못한 항목은 lease 만료 후 다시 전송)
+        for (String queueKey : inFlightWindow.getQueueKeys()) {
+            try {
+                flush(queueKey);
+            } catch (Exception ex) {
+                log.warn("failed to flush resend results on shutdown | queue: {}, message: {}", queueKey, ex.getMessage());
+            }
+        }
+    }
+
+    private DrainResult drainShard(String queueKey) throws InterruptedException {
+        RetryWorkerProperties.Scheduler scheduler = properties.getScheduler();
+        flush(queueKey);
 
-            DefaultRedisScript<List<Object>> redisScript = new DefaultRedisScript<>(LUA_SCRIPT, (Class<List<Object>>) (Class<?>) List.class);
-            List<Object> items = redisTemplate.execute(redisScript, redisTemplate.getStringSerializer(), (RedisSerializer<List<Object>>) redisTemplate.getValueSerializer(), Collections.singletonList(RetryOrchestrator.REDIS_QUEUE_KEY), String.valueOf(now), "50");
-            if (items.isEmpty()) {
-                return;
+        long now = System.currentTimeMillis();
+        long requeued = retryQueue.requeueExpired(queueKey, now, scheduler.getBatchSize());
+        if (requeued > 0) {
+            log.warn("requeued items with expired lease | queue: {}, count: {}", queueKey, requeued);
+        }
+
+        Long headScore = retryQueue.getHeadScore(queueKey);
+        retryMetrics.recordQueueSize(queueKey, retryQueue.size(queueKey));
+        String inFlightKey = retryQueue.getInFlightKey(queueKey);
+        if (inFlightKey != null) {
+            retryMetrics.recordQueueSize(inFlightKey, retryQueue.size(inFlightKey));
+        }
+        long oldestDueLag = headScore != null ? Math.max(now - headScore, 0) : 0;
+
+        if (headScore == null || headScore > now) {
+            return new DrainResult(0, oldestDueLag, getIdleDelay(headScore, now));
+        }
+
+        // backlog 가 남아있는 동안 batch 단위로 계속 drain 하되, 한 tick 이 너무 길어지지 않도록 제한
+        long deadline = now + scheduler.getMaxDrainMs();
+        int batchSize = scheduler.getBatchSize();
+        int drained = 0;
+        while (true) {
+            if (!shardOwnership.isOwned(queueKey)) {
+                log.warn("shard ownership expired, stopping drain | queue: {}, drained: {}", queueKey, drained);
+                return new DrainResult(drained, oldestDueLag, scheduler.getMinIdleMs());
             }
 
-            for (Object item : items) {
-                RetryMessage dto;
-                if (item instanceof RetryMessage) {
-                    dto = (RetryMessage) item;
-                } else {
-                    dto = objectMapper.convertValue(item, RetryMessage.class);
+            // 응답을 기다리는 전송이 max-in-flight 에 도달하면 완료될 때까지 대기
+            int permits = inFlightWindow.acquire(batchSize, Math.max(deadline - System.currentTimeMillis(), 0));
+            if (permits == 0) {
+                log.info("in-flight window full, continuing on next tick | queue: {}, drained: {}", queueKey, drained);
+                return new DrainResult(drained, oldestDueLag, scheduler.getMinIdleMs());
+            }
+
+            long drainedAt = System.currentTimeMillis();
+            List<RetryQueueEntry> items;
+            try {
+                items = drain(queueKey, drainedAt, permits, drainedAt + scheduler.getLeaseMs());
+            } catch (RuntimeException ex) {
+                inFlightWindow.release(permits);
+                throw ex;
+            }
+            // rate limit / circuit breaker 에 걸린 토픽의 항목은 재발행하지 않고 뒤로 미룸 (다음 batch 에서 다른 토픽이 drain 됨)
+            List<RetryQueueEntry> ready = throttle(queueKey, items, drainedAt);
+            inFlightWindow.release(permits - ready.size());
+
+            for (RetryQueueEntry entry : ready) {
+                resend(queueKey, entry);
+            }
+            drained += ready.size();
+            flush(queueKey);
+
+            // fair drain 은 토픽별 배정보다 due 항목이 적으면 permits 보다 적게 가져오므로 빈 결과가 나올 때까지 계속
+            if (items.isEmpty() || (items.size() < permits && !isFairDrain())) {
+                break;
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                log.info("drain deadline reached, continuing on next tick | queue: {}, drained: {}", queueKey, drained);
+                return new DrainResult(drained, oldestDueLag, 0);
+            }
+        }
+
+        return new DrainResult(drained, oldestDueLag, getIdleDelay(retryQueue.getHeadScore(queueKey), System.currentTimeMillis()));
+    }
+
+    // fairness 를 쓰면 토픽별 due 대기열에서 deficit round robin 으로 배정한 만큼씩 drain
+    // 토픽별 대기열이 없는 engine / 이전 layout 이거나 토픽별 due 가 없으면 (backfill 전 항목) 전체 score 순으로 drain
+    private List<RetryQueueEntry> drain(String queueKey, long now, int limit, long leaseUntil) {
+        if (isFairDrain()) {
+            List<String> dueTopics = retryQueue.getDueTopics(queueKey, now, fairDrainPlanner.getMaxTopics());
+            if (!dueTopics.isEmpty()) {
+                Map<String, Integer> limits = fairDrainPlanner.plan(queueKey, dueTopics, limit);
+                List<RetryQueueEntry> items = retryQueue.drainTopics(queueKey, now, limits, leaseUntil);
+                fairDrainPlanner.record(queueKey, limits, items);
+                return items;
+            }
+        }
+        return retryQueue.drain(queueKey, now, limit, leaseUntil);
+    }
+
+    private boolean isFairDrain() {
+        return fairDrainPlanner.isEnabled() && retryQueue.supportsTopicDrain();
+    }
+
+    // virtual thread 모드에서는 send 가 metadata 조회 / buffer 대기로 막혀도 drain 이 멈추지 않도록 key 단위 순서만 유지하며 dispatch
+    private void resend(String queueKey, RetryQueueEntry entry) {
+        keyedExecutor.submit(entry.record().key(), () -> retryOrchestrator.resend(entry.record()))
+                .whenComplete((result, ex) -> inFlightWindow.complete(queueKey, entry, ex == null));
+        retryMetrics.recordSchedulingSkew(entry.score(), System.currentTimeMillis());
+    }
+
+    // 미룬 항목은 재시도 횟수를 늘리지 않고 토픽별로 정해진 시각에 다시 due 가 되도록 되돌림
+    // 한 토픽이 batch 중간에 막히면 같은 batch 의 뒤쪽 항목도 같은 시각으로 미뤄 key 단위 순서를 유지
+    private List<RetryQueueEntry> throttle(String queueKey, List<RetryQueueEntry> items, long now) {
+        List<RetryQueueEntry> ready = new ArrayList<>(items.size());
+        Map<String, Long> deferredTopics = new HashMap<>();
+        Map<Long, List<RetryQueueEntry>> deferred = new LinkedHashMap<>();
+        for (RetryQueueEntry entry : items) {
+            String topic = entry.record().originalTopic();
+            Long deferUntil = deferredTopics.get(topic);
+            if (deferUntil == null) {
+                long until = topicThrottle.acquire(topic, now);
+                if (until == 0) {
+                    ready.add(entry);
+                    continue;
                 }
+                deferUntil = until;
+                deferredTopics.put(topic, deferUntil);
+            }
+            deferred.computeIfAbsent(deferUntil, k -> new ArrayList<>()).add(entry);
+        }
+
+        deferred.forEach((score, entries) -> requeue(queueKey, entries, score));
+        return ready;
+    }
 
-                retryOrchestrator.resend(dto);
+    private void requeue(String queueKey, List<RetryQueueEntry> entries, long score) {
+        if (retryQueue.isLegacy(queueKey)) {
+            retryQueue.addAll(entries.stream().map(entry -> new ScoredRetryMessage(entry.record().toRetryMessage(), score)).toList());
+        } else {
+            retryQueue.nack(queueKey, entries, score);
+        }
+    }
+
+    // 다른 replica 로 넘어간 shard 의 전송 결과도 ack / nack 하여 lease 만료로 중복 전송되지 않도록 함
+    private void flushReleased(List<String> ownedKeys) {
+        for (String queueKey : inFlightWindow.getQueueKeys()) {
+            if (!ownedKeys.contains(queueKey)) {
+                flush(queueKey);
             }
-        } catch (Exception ex) {
-            log.error("error polling redis delay queue | message: {}", ex.getMessage(), ex);
         }
     }
+
+    private void flush(String queueKey) {
+        List<RetryQueueEntry> succeeded = inFlightWindow.pollSucceeded(queueKey);
+        List<RetryQueueEntry> failed = inFlightWindow.pollFailed(queueKey);
+        if (retryQueue.isLegacy(queueKey)) {
+            // 이전 layout 항목은 drain 시 이미 삭제되었으므로 실패한 항목만 신규 layout 으로 다시 적재
+            if (!failed.isEmpty()) {
+                requeue(queueKey, failed, System.currentTimeMillis() + properties.getScheduler().getNackDelayMs());
+            }
+            return;
+        }
+
+        // 전송이 완료된 항목만 inflight 에서 삭제하고, 실패한 항목은 nack-delay-ms 후 다시 due 가 되도록 되돌림
+        retryQueue.ack(queueKey, succeeded);
+        retryQueue.nack(queueKey, failed, System.currentTimeMillis() + properties.getScheduler().getNackDelayMs());
+    }
+
+    private long getIdleDelay(Long headScore, long now) {
+        RetryWorkerProperties.Scheduler scheduler = properties.getScheduler();
+        if (headScore == null) {
+            return scheduler.getMaxIdleMs();
+        }
+
+        // 가장 이른 due 시각까지 대기 (새로 들어오는 더 이른 항목을 놓치지 않도록 maxIdleMs 로 상한)
+        long untilDue = headScore - now;
+        return Math.max(scheduler.getMinIdleMs(), Math.min(untilDue, scheduler.getMaxIdleMs()));
+    }
+
+    private long getErrorBackoff(int errors) {
+        RetryWorkerProperties.Scheduler scheduler = properties.getScheduler();
+        long backoff = scheduler.getErrorBackoffMs() << Math.min(errors - 1, 16);
+        return Math.min(backoff, scheduler.getMaxErrorBackoffMs());
+    }
+
+    private record DrainResult(int drained, long oldestDueLag, long nextDelayMs) {
+    }
 }
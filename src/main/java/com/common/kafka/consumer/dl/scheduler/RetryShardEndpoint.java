@@ -0,0 +1,22 @@
+package com.common.kafka.consumer.dl.scheduler;
+
+import com.common.kafka.consumer.dl.resource.ShardOwnershipResource;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/retryshards : 이 replica 가 보는 membership 과 shard 별 소유자
+@Component
+@Endpoint(id = "retryshards")
+public class RetryShardEndpoint {
+    private final ShardOwnership shardOwnership;
+
+    public RetryShardEndpoint(ShardOwnership shardOwnership) {
+        this.shardOwnership = shardOwnership;
+    }
+
+    @ReadOperation
+    public ShardOwnershipResource shards() {
+        return shardOwnership.describe();
+    }
+}
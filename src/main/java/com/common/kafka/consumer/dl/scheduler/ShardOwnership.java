@@ -0,0 +1,237 @@
+package com.common.kafka.consumer.dl.scheduler;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.queue.RetryQueue;
+import com.common.kafka.consumer.dl.resource.ShardOwnershipResource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// replica 간 drain key 분배. 살아있는 replica 목록으로 각자 맡을 shard 를 계산하고,
+// shard 별 lease key 를 잡은 것만 drain (membership 이 바뀌는 동안 두 replica 가 같은 shard 를 drain 하지 않도록)
+@Slf4j
+@Component
+public class ShardOwnership {
+    static final String MEMBERS_KEY = "platform:retry:members";
+    static final String OWNER_KEY_PREFIX = "platform:retry:owner:";
+
+    // KEYS[1] = owner key, ARGV[1] = instance id, ARGV[2] = ttl -> 획득 / 갱신하면 1
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local owner = redis.call('GET', KEYS[1])\n" +
+            "if owner == false or owner == ARGV[1] then\n" +
+            "    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])\n" +
+            "    return 1\n" +
+            "end\n" +
+            "return 0", Long.class);
+
+    // KEYS[1] = owner key, ARGV[1] = instance id -> 자신이 소유한 경우에만 삭제
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then\n" +
+            "    return redis.call('DEL', KEYS[1])\n" +
+            "end\n" +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RetryQueue retryQueue;
+    private final RetryWorkerProperties.Ownership properties;
+    private final String instanceId;
+
+    private volatile Set<String> ownedKeys = Collections.emptySet();
+    private volatile List<String> members = Collections.emptyList();
+    private volatile long ownedUntil;
+
+    public ShardOwnership(StringRedisTemplate redisTemplate, RetryQueue retryQueue, RetryWorkerProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.retryQueue = retryQueue;
+        this.properties = properties.getScheduler().getOwnership();
+        // 한 tick 의 drain 이 끝나기 전에 lease 가 만료되지 않도록, 마지막 heartbeat 이후 남은 lease 안에 drain 이 끝나야 함
+        if (this.properties.isEnabled() && properties.getScheduler().getMaxDrainMs() >= this.properties.getTtlMs() - this.properties.getHeartbeatMs()) {
+            throw new IllegalStateException("retry.worker.scheduler.max-drain-ms must be less than ownership ttl-ms - heartbeat-ms");
+        }
+        this.instanceId = this.properties.getInstanceId() != null ? this.properties.getInstanceId() : generateInstanceId();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && retryQueue.isShared();
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    // 이번 tick 에 drain 할 key. lease 를 갱신하지 못한 채 ttl 이 지나면 다른 replica 가 가져갔을 수 있으므로 비움
+    public List<String> getOwnedKeys() {
+        if (!isEnabled()) {
+            return retryQueue.getDrainKeys();
+        }
+        if (System.currentTimeMillis() >= ownedUntil) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(ownedKeys);
+    }
+
+    // drain 도중 heartbeat 가 실패해 lease 가 만료되면 다른 replica 가 인수할 수 있으므로 batch 를 재발행하기 전마다 확인
+    public boolean isOwned(String queueKey) {
+        if (!isEnabled()) {
+            return true;
+        }
+        return System.currentTimeMillis() < ownedUntil && ownedKeys.contains(queueKey);
+    }
+
+    @Scheduled(fixedDelayString = "${retry.worker.scheduler.ownership.heartbeat-ms:3000}")
+    public void heartbeat() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            List<String> liveMembers = renewMembership(now);
+
+            Set<String> acquired = new LinkedHashSet<>();
+            Map<String, String> owners = assign(retryQueue.getDrainKeys(), liveMembers);
+            for (Map.Entry<String, String> entry : owners.entrySet()) {
+                String queueKey = entry.getKey();
+                if (instanceId.equals(entry.getValue())) {
+                    if (acquire(queueKey)) {
+                        acquired.add(queueKey);
+                    }
+                } else if (ownedKeys.contains(queueKey)) {
+                    // 새로 합류한 replica 가 다음 heartbeat 에 바로 가져갈 수 있도록 즉시 반납
+                    release(queueKey);
+                }
+            }
+
+            if (!acquired.equals(ownedKeys)) {
+                log.info("retry shard ownership changed | instance: {}, members: {}, owned: {}", instanceId, liveMembers.size(), acquired.size());
+            }
+            members = liveMembers;
+            ownedKeys = Collections.unmodifiableSet(acquired);
+            ownedUntil = now + properties.getTtlMs();
+        } catch (Exception ex) {
+            log.warn("failed to renew retry shard ownership | instance: {}, message: {}", instanceId, ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        // 종료 시 바로 반납하여 남은 replica 가 ttl 을 기다리지 않고 인수
+        try {
+            ownedKeys.forEach(this::release);
+            redisTemplate.opsForZSet().remove(MEMBERS_KEY, instanceId);
+        } catch (Exception ex) {
+            log.warn("failed to release retry shard ownership | instance: {}, message: {}", instanceId, ex.getMessage());
+        }
+        ownedKeys = Collections.emptySet();
+    }
+
+    public ShardOwnershipResource describe() {
+        Map<String, String> owners = new LinkedHashMap<>();
+        if (isEnabled()) {
+            for (String queueKey : retryQueue.getDrainKeys()) {
+                owners.put(queueKey, redisTemplate.opsForValue().get(OWNER_KEY_PREFIX + queueKey));
+            }
+        }
+
+        return ShardOwnershipResource.builder()
+                .instanceId(instanceId)
+                .enabled(isEnabled())
+                .members(members)
+                .ownedKeys(getOwnedKeys())
+                .owners(owners)
+                .build();
+    }
+
+    private List<String> renewMembership(long now) {
+        long expiresAt = now + properties.getTtlMs();
+        redisTemplate.opsForZSet().add(MEMBERS_KEY, instanceId, expiresAt);
+        redisTemplate.opsForZSet().removeRangeByScore(MEMBERS_KEY, Double.NEGATIVE_INFINITY, now);
+
+        Set<String> live = redisTemplate.opsForZSet().range(MEMBERS_KEY, 0, -1);
+        List<String> sorted = live != null ? new ArrayList<>(live) : new ArrayList<>();
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private boolean acquire(String queueKey) {
+        Long acquired = redisTemplate.execute(ACQUIRE_SCRIPT, Collections.singletonList(OWNER_KEY_PREFIX + queueKey),
+                instanceId, String.valueOf(properties.getTtlMs()));
+        return acquired != null && acquired == 1;
+    }
+
+    private void release(String queueKey) {
+        redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(OWNER_KEY_PREFIX + queueKey), instanceId);
+    }
+
+    // 용량 제한 rendezvous hashing: shard 마다 weight 가 가장 높은 replica 에 배정하되 replica 당 ceil(shard 수 / replica 수) 까지만 배정
+    // 모든 replica 가 같은 key 순서와 membership 으로 계산하므로 결과가 일치하고, membership 이 바뀌어도 대부분의 shard 는 그대로 유지
+    static Map<String, String> assign(List<String> queueKeys, List<String> members) {
+        Map<String, String> owners = new LinkedHashMap<>();
+        if (members.isEmpty()) {
+            return owners;
+        }
+
+        int capacity = (queueKeys.size() + members.size() - 1) / members.size();
+        Map<String, Integer> assigned = new HashMap<>();
+        for (String queueKey : queueKeys) {
+            String owner = null;
+            long maxWeight = Long.MIN_VALUE;
+            for (String member : members) {
+                long weight = weight(member, queueKey);
+                if (assigned.getOrDefault(member, 0) < capacity && (owner == null || weight > maxWeight)) {
+                    owner = member;
+                    maxWeight = weight;
+                }
+            }
+            owners.put(queueKey, owner);
+            assigned.merge(owner, 1, Integer::sum);
+        }
+        return owners;
+    }
+
+    private static long weight(String member, String queueKey) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < member.length(); i++) {
+            hash = 31 * hash + member.charAt(i);
+        }
+        hash = 31 * hash + '|';
+        for (int i = 0; i < queueKey.length(); i++) {
+            hash = 31 * hash + queueKey.charAt(i);
+        }
+
+        // 비슷한 문자열끼리 weight 가 몰리지 않도록 splitmix64 finalizer 로 섞음
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static String generateInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -1,29 +1,41 @@
 package com.common.kafka.consumer.dl.service;
 
-import com.common.kafka.consumer.dl.domain.KafkaDeadLetter;
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterGroup;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterGroupRepository;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterJdbcRepository;
 import com.common.kafka.consumer.dl.domain.KafkaDeadLetterRepository;
-import com.common.kafka.consumer.dl.domain.KafkaDeadLetterStatus;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import com.common.kafka.consumer.dl.policy.RetryPolicyRegistry;
+import com.common.kafka.consumer.dl.policy.TopicThrottle;
+import com.common.kafka.consumer.dl.queue.RetryQueue;
+import com.common.kafka.consumer.dl.queue.RetryQueueEntry;
+import com.common.kafka.consumer.dl.resource.CursorPageResource;
+import com.common.kafka.consumer.dl.resource.DeadLetterGroupResource;
 import com.common.kafka.consumer.dl.resource.KafkaDeadLetterResource;
 import com.common.kafka.consumer.dl.resource.MessageQuery;
-import com.common.kafka.consumer.dl.resource.RetryMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.common.kafka.consumer.dl.resource.RetryPolicyResource;
+import com.common.kafka.consumer.dl.resource.RetryQueueItemResource;
+import com.common.kafka.consumer.dl.resource.RetryRecord;
+import com.common.kafka.consumer.dl.resource.TopicThrottleResource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.common.header.internals.RecordHeader;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-
-import static com.common.kafka.consumer.dl.orchestrator.RetryOrchestrator.REDIS_QUEUE_KEY;
-import static com.common.kafka.consumer.dl.orchestrator.RetryOrchestrator.RETRY_COUNT_HEADER;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -31,89 +43,124 @@ import static com.common.kafka.consumer.dl.orchestrator.RetryOrchestrator.RETRY_
 public class KafkaDeadLetterAdminService {
 
     private final KafkaDeadLetterRepository kafkaDeadLetterRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final ObjectMapper objectMapper;
-
-    public void resendMessagesFromStartIdAndEndId(Long startId, Long endId) {
-        List<KafkaDeadLetter> failedMessages = kafkaDeadLetterRepository.findAllByIdBetweenAndStatus(startId, endId,
-                KafkaDeadLetterStatus.FAILED);
-
-        for (KafkaDeadLetter entity : failedMessages) {
-            try {
-                ProducerRecord<String, Object> record = getStringObjectProducerRecord(entity);
-                kafkaTemplate.send(record).get();
-
-                entity.setStatus(KafkaDeadLetterStatus.RETRYING);
-                log.info("resent dlt message | id: {}, topic: {}", entity.getId(), entity.getTopic());
-            } catch (Exception e) {
-                log.error("failed to resend dlt message | id: {}, error: {}", entity.getId(), e.getMessage());
-            }
-        }
-    }
-
-    public Page<KafkaDeadLetterResource> findMessages(MessageQuery query) {
+    private final KafkaDeadLetterJdbcRepository kafkaDeadLetterJdbcRepository;
+    private final KafkaDeadLetterGroupRepository kafkaDeadLetterGroupRepository;
+    private final RetryQueue retryQueue;
+    private final RetryWorkerProperties properties;
+    private final RetryMetrics retryMetrics;
+    private final RetryPolicyRegistry retryPolicyRegistry;
+    private final TopicThrottle topicThrottle;
+
+    public CursorPageResource<KafkaDeadLetterResource> findMessages(MessageQuery query) {
         int pageSize = Math.min(query.getPageSize(), 30);
         int pageNumber = Math.max(query.getPage() - 1, 0);
         PageRequest pageRequest = PageRequest.of(pageNumber, pageSize, Sort.by(Sort.Direction.DESC, "id"));
 
-        return kafkaDeadLetterRepository.findMessages(query, pageRequest);
+        return kafkaDeadLetterRepository.findMessages(query, pageRequest, properties.getAdmin().getCountLimit());
+    }
+
+    public boolean existsMessage(Long id) {
+        return kafkaDeadLetterRepository.existsById(id);
+    }
+
+    public void writePayload(Long id, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        kafkaDeadLetterJdbcRepository.streamPayload(id, writer);
+        writer.flush();
+    }
+
+    // 집계 테이블만 조회하므로 원본 행 수와 무관
+    public List<DeadLetterGroupResource> findGroups(String topic, int size) {
+        PageRequest pageRequest = PageRequest.of(0, Math.min(Math.max(size, 1), 100));
+        List<KafkaDeadLetterGroup> groups = topic != null
+                ? kafkaDeadLetterGroupRepository.findByTopicOrderByLastSeenAtDesc(topic, pageRequest)
+                : kafkaDeadLetterGroupRepository.findAllByOrderByLastSeenAtDesc(pageRequest);
+
+        return groups.stream()
+                .map(this::toDeadLetterGroupResource)
+                .collect(Collectors.toList());
     }
 
-    public void deleteRetryQueue(String key, boolean all) {
+    public List<RetryQueueItemResource> findRetryQueue(String key, String topic) {
+        int limit = properties.getAdmin().getRetryQueueLookupLimit();
+        List<RetryQueueEntry> entries;
+        if (key != null) {
+            entries = retryQueue.findByKey(key, limit);
+        } else if (topic != null) {
+            entries = retryQueue.findByTopic(topic, limit);
+        } else {
+            return Collections.emptyList();
+        }
+
+        return entries.stream()
+                .map(entry -> toRetryQueueItemResource(entry.record(), entry.score()))
+                .collect(Collectors.toList());
+    }
+
+    public void deleteRetryQueue(String key, String topic, boolean all) {
         if (all) {
-            redisTemplate.delete(REDIS_QUEUE_KEY);
-            log.info("deleted all items in redis retry queue");
+            long count = retryQueue.deleteAll();
+            retryMetrics.recordAdminDelete("all", count);
+            log.info("deleted all {} items in redis retry queue", count);
             return;
         }
 
         if (key != null) {
-            long count = 0;
-            long offset = 0;
-            long limit = 100;
-
-            while (true) {
-                Set<Object> items = redisTemplate.opsForZSet().range(REDIS_QUEUE_KEY, offset, offset + limit - 1);
-                if (items == null || items.isEmpty()) {
-                    break;
-                }
-
-                for (Object item : items) {
-                    RetryMessage dto;
-                    if (item instanceof RetryMessage) {
-                        dto = (RetryMessage) item;
-                    } else {
-                        dto = objectMapper.convertValue(item, RetryMessage.class);
-                    }
-
-                    if (key.equals(dto.getKey())) {
-                        redisTemplate.opsForZSet().remove(REDIS_QUEUE_KEY, item);
-                        count++;
-                    }
-                }
-                offset += limit;
-            }
-
+            long count = retryQueue.deleteByKey(key);
+            retryMetrics.recordAdminDelete("key", count);
             log.info("deleted {} items in redis retry queue | key: {}", count, key);
         }
+
+        if (topic != null) {
+            long count = retryQueue.deleteByTopic(topic);
+            retryMetrics.recordAdminDelete("topic", count);
+            log.info("deleted {} items in redis retry queue | topic: {}", count, topic);
+        }
     }
 
-    private ProducerRecord<String, Object> getStringObjectProducerRecord(KafkaDeadLetter entity) {
-        // x-retry-count 헤더를 0으로 초기화
-        RecordHeader retryHeader = new RecordHeader(RETRY_COUNT_HEADER, "0".getBytes(StandardCharsets.UTF_8));
+    public List<RetryPolicyResource> findRetryPolicies() {
+        return retryPolicyRegistry.findPolicies();
+    }
 
-        // x-original-topic 원본 토픽을 포함
-        RecordHeader originalTopicHeader = new RecordHeader(ResiliencyHeader.ORIGINAL_TOPIC.getKey(),
-                entity.getTopic().getBytes(StandardCharsets.UTF_8));
+    public List<RetryPolicyResource> reloadRetryPolicies() {
+        return retryPolicyRegistry.reload();
+    }
 
-        Object payload = entity.getPayload();
-        try {
-            payload = objectMapper.readValue(entity.getPayload(), Object.class);
-        } catch (Exception e) {
-            // ignore
-        }
+    // 이 replica 에서 관측한 토픽별 재발행 제한 상태
+    public List<TopicThrottleResource> findThrottles() {
+        return topicThrottle.describe();
+    }
+
+    public TopicThrottleResource closeCircuit(String topic) {
+        TopicThrottleResource resource = topicThrottle.close(topic);
+        log.info("closed resend circuit through admin api | topic: {}", topic);
+        return resource;
+    }
+
+    private DeadLetterGroupResource toDeadLetterGroupResource(KafkaDeadLetterGroup group) {
+        return DeadLetterGroupResource.builder()
+                .fingerprint(group.getFingerprint())
+                .topic(group.getTopic())
+                .exceptionType(group.getExceptionType())
+                .exceptionMessage(group.getExceptionMessage())
+                .payloadPreview(group.getPayloadPreview())
+                .failureCount(group.getFailureCount())
+                .firstSeenAt(group.getFirstSeenAt())
+                .lastSeenAt(group.getLastSeenAt())
+                .build();
+    }
 
-        return new ProducerRecord<>(entity.getTopic(), null, entity.getMessageKey(), payload,
-                List.of(retryHeader, originalTopicHeader));
+    private RetryQueueItemResource toRetryQueueItemResource(RetryRecord record, long score) {
+        String payload = record.payload() != null ? new String(record.payload(), StandardCharsets.UTF_8) : null;
+        int previewLength = properties.getAdmin().getPayloadPreviewLength();
+
+        return RetryQueueItemResource.builder()
+                .key(record.key())
+                .originalTopic(record.originalTopic())
+                .retryCount(record.retryCount())
+                .dueAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(score), ZoneId.systemDefault()))
+                .payloadSize(record.payload() != null ? record.payload().length : null)
+                .payloadPreview(payload != null && payload.length() > previewLength ? payload.substring(0, previewLength) : payload)
+                .build();
     }
 }
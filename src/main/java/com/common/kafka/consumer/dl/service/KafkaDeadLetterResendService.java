@@ -0,0 +1,233 @@
+package com.common.kafka.consumer.dl.service;
+
+import com.common.kafka.constant.ResiliencyHeader;
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetter;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterJdbcRepository;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterRepository;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterStatus;
+import com.common.kafka.consumer.dl.domain.PayloadCodec;
+import com.common.kafka.consumer.dl.resource.ResendJobResource;
+import com.common.kafka.consumer.dl.resource.ResendJobStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import static com.common.kafka.consumer.dl.orchestrator.RetryOrchestrator.RETRY_COUNT_HEADER;
+
+@Slf4j
+@Service
+public class KafkaDeadLetterResendService {
+
+    private final KafkaDeadLetterRepository kafkaDeadLetterRepository;
+    private final KafkaDeadLetterJdbcRepository kafkaDeadLetterJdbcRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final RetryWorkerProperties.Resend properties;
+    private final ExecutorService jobExecutor;
+    private final Map<String, ResendJob> jobs = new ConcurrentHashMap<>();
+
+    public KafkaDeadLetterResendService(KafkaDeadLetterRepository kafkaDeadLetterRepository, KafkaDeadLetterJdbcRepository kafkaDeadLetterJdbcRepository, @Qualifier("retryKafkaTemplate") KafkaTemplate<String, byte[]> kafkaTemplate, RetryWorkerProperties properties) {
+        this.kafkaDeadLetterRepository = kafkaDeadLetterRepository;
+        this.kafkaDeadLetterJdbcRepository = kafkaDeadLetterJdbcRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties.getResend();
+        // 실행 중인 Job 수를 max-running-jobs 로 제한하므로 대기열에 쌓이지 않음
+        this.jobExecutor = Executors.newFixedThreadPool(this.properties.getMaxRunningJobs(), new CustomizableThreadFactory("dead-letter-resend-"));
+    }
+
+    public ResendJobResource start(Long startId, Long endId) {
+        ResendJob job = new ResendJob(UUID.randomUUID().toString(), startId, endId, null);
+        submit(job);
+
+        log.info("started dlt resend job | jobId: {}, startId: {}, endId: {}", job.getJobId(), startId, endId);
+        return job.toResource();
+    }
+
+    // fingerprint group 전체 재발행 ((fingerprint, id) 인덱스로 keyset 페이징)
+    public ResendJobResource startGroup(String fingerprint) {
+        ResendJob job = new ResendJob(UUID.randomUUID().toString(), 0L, Long.MAX_VALUE, fingerprint);
+        submit(job);
+
+        log.info("started dlt group resend job | jobId: {}, fingerprint: {}", job.getJobId(), fingerprint);
+        return job.toResource();
+    }
+
+    public ResendJobResource resume(String jobId) {
+        ResendJob job = getJob(jobId);
+        synchronized (jobs) {
+            checkRunningJobs();
+            if (!job.resume()) {
+                throw new IllegalStateException("resend job is " + job.getStatus() + " | jobId: " + jobId);
+            }
+        }
+        jobExecutor.execute(() -> run(job));
+
+        log.info("resumed dlt resend job | jobId: {}, lastProcessedId: {}", jobId, job.getLastProcessedId());
+        return job.toResource();
+    }
+
+    public ResendJobResource cancel(String jobId) {
+        ResendJob job = getJob(jobId);
+        job.cancel();
+        return job.toResource();
+    }
+
+    public ResendJobResource findJob(String jobId) {
+        return getJob(jobId).toResource();
+    }
+
+    public List<ResendJobResource> findJobs() {
+        evictFinishedJobs();
+        return jobs.values().stream().map(ResendJob::toResource).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(ResendJob::cancel);
+        jobExecutor.shutdown();
+    }
+
+    private void submit(ResendJob job) {
+        synchronized (jobs) {
+            evictFinishedJobs();
+            checkRunningJobs();
+            jobs.put(job.getJobId(), job);
+        }
+        jobExecutor.execute(() -> run(job));
+    }
+
+    // 시작 / 재개 시점에 검사하고 같은 lock 안에서 RUNNING 으로 만들므로 실행 중인 Job 은 max-running-jobs 를 넘지 않음
+    private void checkRunningJobs() {
+        long running = jobs.values().stream().filter(job -> job.getStatus() == ResendJobStatus.RUNNING).count();
+        if (running >= properties.getMaxRunningJobs()) {
+            throw new IllegalStateException("too many running resend jobs | running: " + running + ", max: " + properties.getMaxRunningJobs());
+        }
+    }
+
+    // job-retention-ms 가 지난 끝난 Job 은 조회 / 재개 대상에서 제거
+    private void evictFinishedJobs() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(Duration.ofMillis(properties.getJobRetentionMs()));
+        jobs.values().removeIf(job -> job.getStatus() != ResendJobStatus.RUNNING && job.getFinishedAt() != null && job.getFinishedAt().isBefore(expiredBefore));
+    }
+
+    private void run(ResendJob job) {
+        Semaphore inFlight = new Semaphore(properties.getMaxInFlight());
+        try {
+            while (!job.isCancelRequested()) {
+                // id 기반 keyset 페이징으로 한 페이지씩만 메모리에 적재
+                List<KafkaDeadLetter> page = kafkaDeadLetterRepository.findResendPage(job.getLastProcessedId(), job.getEndId(),
+                        job.getFingerprint(), KafkaDeadLetterStatus.FAILED, properties.getPageSize());
+                if (page.isEmpty()) {
+                    job.finish(ResendJobStatus.COMPLETED, null);
+                    log.info("completed dlt resend job | jobId: {}, sent: {}, failed: {}", job.getJobId(), job.getSentCount().get(), job.getFailedCount().get());
+                    return;
+                }
+
+                // 외부 테이블에 분리된 payload 는 페이지 단위로 한 번에 조회
+                List<Long> externalIds = page.stream()
+                        .filter(entity -> Boolean.TRUE.equals(entity.getPayloadExternal()))
+                        .map(KafkaDeadLetter::getId)
+                        .toList();
+                Map<Long, byte[]> externalPayloads = kafkaDeadLetterJdbcRepository.findExternalPayloads(externalIds);
+
+                List<Long> sentIds = Collections.synchronizedList(new ArrayList<>(page.size()));
+                List<CompletableFuture<?>> futures = new ArrayList<>(page.size());
+                for (KafkaDeadLetter entity : page) {
+                    inFlight.acquire();
+                    futures.add(send(job, entity, externalPayloads.get(entity.getId()), inFlight, sentIds));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).exceptionally(ex -> null).join();
+
+                kafkaDeadLetterJdbcRepository.updateStatus(sentIds, KafkaDeadLetterStatus.RETRYING, properties.getPageSize());
+                job.checkpoint(page.get(page.size() - 1).getId());
+            }
+
+            job.finish(ResendJobStatus.CANCELLED, null);
+            log.info("cancelled dlt resend job | jobId: {}, lastProcessedId: {}", job.getJobId(), job.getLastProcessedId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ResendJobStatus.CANCELLED, "interrupted");
+        } catch (Exception e) {
+            log.error("dlt resend job failed | jobId: {}, lastProcessedId: {}, error: {}", job.getJobId(), job.getLastProcessedId(), e.getMessage(), e);
+            job.finish(ResendJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private CompletableFuture<?> send(ResendJob job, KafkaDeadLetter entity, byte[] externalPayload, Semaphore inFlight, List<Long> sentIds) {
+        try {
+            return kafkaTemplate.send(getProducerRecord(entity, externalPayload)).whenComplete((result, ex) -> {
+                inFlight.release();
+                if (ex == null) {
+                    sentIds.add(entity.getId());
+                    job.getSentCount().incrementAndGet();
+                } else {
+                    job.getFailedCount().incrementAndGet();
+                    log.error("failed to resend dlt message | id: {}, error: {}", entity.getId(), ex.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            inFlight.release();
+            job.getFailedCount().incrementAndGet();
+            log.error("failed to resend dlt message | id: {}, error: {}", entity.getId(), e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private ResendJob getJob(String jobId) {
+        evictFinishedJobs();
+        ResendJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("resend job not found | jobId: " + jobId);
+        }
+        return job;
+    }
+
+    private ProducerRecord<String, byte[]> getProducerRecord(KafkaDeadLetter entity, byte[] externalPayload) {
+        // x-retry-count 헤더를 0으로 초기화
+        RecordHeader retryHeader = new RecordHeader(RETRY_COUNT_HEADER, "0".getBytes(StandardCharsets.UTF_8));
+
+        // x-original-topic 원본 토픽을 포함
+        RecordHeader originalTopicHeader = new RecordHeader(ResiliencyHeader.ORIGINAL_TOPIC.getKey(),
+                entity.getTopic().getBytes(StandardCharsets.UTF_8));
+
+        // 저장된 원문을 그대로 전송
+        byte[] payload = getPayload(entity, externalPayload);
+
+        return new ProducerRecord<>(entity.getTopic(), null, entity.getMessageKey(), payload,
+                List.of(retryHeader, originalTopicHeader));
+    }
+
+    private byte[] getPayload(KafkaDeadLetter entity, byte[] externalPayload) {
+        boolean external = Boolean.TRUE.equals(entity.getPayloadExternal());
+        // 외부 payload 행이 없으면 빈 payload (tombstone) 를 보내지 않고 실패로 처리
+        if (external && externalPayload == null) {
+            throw new IllegalStateException("external payload not found");
+        }
+
+        byte[] stored = external ? externalPayload : entity.getPayloadData();
+        if (stored != null) {
+            PayloadCodec codec = entity.getPayloadCodec() != null ? entity.getPayloadCodec() : PayloadCodec.NONE;
+            return codec.decompress(stored, entity.getPayloadSize());
+        }
+        return entity.getPayload() != null ? entity.getPayload().getBytes(StandardCharsets.UTF_8) : null;
+    }
+}
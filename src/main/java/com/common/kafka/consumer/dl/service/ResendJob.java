@@ -0,0 +1,85 @@
+package com.common.kafka.consumer.dl.service;
+
+import com.common.kafka.consumer.dl.resource.ResendJobResource;
+import com.common.kafka.consumer.dl.resource.ResendJobStatus;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Getter
+class ResendJob {
+    private final String jobId;
+    private final Long startId;
+    private final Long endId;
+    // 지정하면 해당 fingerprint group 만 재발행
+    private final String fingerprint;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile ResendJobStatus status = ResendJobStatus.RUNNING;
+    private volatile boolean cancelRequested;
+    private volatile long lastProcessedId;
+    private volatile String errorMessage;
+    private volatile LocalDateTime startedAt = LocalDateTime.now();
+    private volatile LocalDateTime finishedAt;
+    private volatile long sentCountAtStart;
+
+    ResendJob(String jobId, Long startId, Long endId, String fingerprint) {
+        this.jobId = jobId;
+        this.startId = startId;
+        this.endId = endId;
+        this.fingerprint = fingerprint;
+        this.lastProcessedId = startId - 1;
+    }
+
+    synchronized boolean resume() {
+        if (status == ResendJobStatus.RUNNING || status == ResendJobStatus.COMPLETED) {
+            return false;
+        }
+
+        status = ResendJobStatus.RUNNING;
+        cancelRequested = false;
+        errorMessage = null;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        sentCountAtStart = sentCount.get();
+        return true;
+    }
+
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    void checkpoint(long id) {
+        lastProcessedId = id;
+    }
+
+    synchronized void finish(ResendJobStatus status, String errorMessage) {
+        this.status = status;
+        this.errorMessage = errorMessage;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    ResendJobResource toResource() {
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long elapsedMs = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+        double ratePerSecond = (sentCount.get() - sentCountAtStart) * 1000.0 / elapsedMs;
+
+        return ResendJobResource.builder()
+                .jobId(jobId)
+                .status(status)
+                .startId(startId)
+                .endId(endId)
+                .fingerprint(fingerprint)
+                .lastProcessedId(lastProcessedId)
+                .sentCount(sentCount.get())
+                .failedCount(failedCount.get())
+                .ratePerSecond(ratePerSecond)
+                .errorMessage(errorMessage)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .build();
+    }
+}
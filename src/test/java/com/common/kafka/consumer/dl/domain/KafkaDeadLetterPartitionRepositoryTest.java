@@ -0,0 +1,75 @@
+package com.common.kafka.consumer.dl.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KafkaDeadLetterPartitionRepositoryTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:partition;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE kafka_dead_letters (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE kafka_dead_letter_payloads (dead_letter_id BIGINT PRIMARY KEY, payload BLOB)");
+    }
+
+    @Test
+    void testPartitionName_RoundTrip() {
+        // given
+        LocalDate day = LocalDate.of(2026, 10, 17);
+
+        // when
+        String partition = KafkaDeadLetterPartitionRepository.toPartitionName(day);
+
+        // then
+        assertEquals("p20261017", partition);
+        assertEquals(day, KafkaDeadLetterPartitionRepository.toDay(partition));
+    }
+
+    @Test
+    void testDeleteOrphanPayloads_KeepsPayloadsOfRemainingRows() {
+        // given
+        jdbcTemplate.update("INSERT INTO kafka_dead_letters (id) VALUES (2), (4)");
+        jdbcTemplate.update("INSERT INTO kafka_dead_letter_payloads (dead_letter_id) VALUES (1), (2), (3), (4)");
+
+        // when
+        int deleted = new KafkaDeadLetterPartitionRepository(jdbcTemplate).deleteOrphanPayloads(100);
+
+        // then
+        assertEquals(2, deleted);
+        assertEquals(List.of(2L, 4L), jdbcTemplate.queryForList("SELECT dead_letter_id FROM kafka_dead_letter_payloads ORDER BY dead_letter_id", Long.class));
+    }
+
+    @Test
+    void testDeleteOrphanPayloads_AllPartitionsDropped() {
+        // given
+        jdbcTemplate.update("INSERT INTO kafka_dead_letter_payloads (dead_letter_id) VALUES (1), (2), (3)");
+
+        // when
+        KafkaDeadLetterPartitionRepository repository = new KafkaDeadLetterPartitionRepository(jdbcTemplate);
+        int first = repository.deleteOrphanPayloads(2);
+        int second = repository.deleteOrphanPayloads(2);
+
+        // then
+        assertEquals(2, first);
+        assertEquals(1, second);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM kafka_dead_letter_payloads", Integer.class));
+    }
+
+    @Test
+    void testToDay_NotDailyPartition() {
+        // when & then
+        assertNull(KafkaDeadLetterPartitionRepository.toDay(KafkaDeadLetterPartitionRepository.MAX_PARTITION));
+        assertNull(KafkaDeadLetterPartitionRepository.toDay("p2026"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.common.kafka.consumer.dl.domain;
+
+import net.jpountz.lz4.LZ4Factory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayloadCodecTest {
+
+    @Test
+    void testCompress_RoundTrip() {
+        // given
+        byte[] payload = "{\"orderId\":1,\"status\":\"CREATED\"}".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        for (PayloadCodec codec : PayloadCodec.values()) {
+            // when
+            byte[] stored = codec.compress(payload);
+
+            // then
+            assertArrayEquals(payload, codec.decompress(stored, payload.length), codec.name());
+            if (codec != PayloadCodec.NONE) {
+                assertTrue(stored.length < payload.length / 10, codec.name() + " compressed to " + stored.length);
+            }
+        }
+    }
+
+    @Test
+    void testDecompressStream_RoundTrip() throws IOException {
+        // given
+        byte[] payload = "{\"orderId\":1,\"status\":\"CREATED\"}".repeat(5000).getBytes(StandardCharsets.UTF_8);
+
+        for (PayloadCodec codec : PayloadCodec.values()) {
+            // when
+            byte[] stored = codec.compress(payload);
+            byte[] restored;
+            try (InputStream in = codec.decompress(new ByteArrayInputStream(stored), payload.length)) {
+                restored = in.readAllBytes();
+            }
+
+            // then
+            assertArrayEquals(payload, restored, codec.name());
+        }
+    }
+
+    @Test
+    void testDecompress_LegacyLz4Block() throws IOException {
+        // given
+        byte[] payload = "{\"orderId\":1,\"status\":\"CREATED\"}".repeat(100).getBytes(StandardCharsets.UTF_8);
+        byte[] stored = LZ4Factory.fastestInstance().fastCompressor().compress(payload);
+
+        // when
+        byte[] restored;
+        try (InputStream in = PayloadCodec.LZ4.decompress(new ByteArrayInputStream(stored), payload.length)) {
+            restored = in.readAllBytes();
+        }
+
+        // then
+        assertArrayEquals(payload, PayloadCodec.LZ4.decompress(stored, payload.length));
+        assertArrayEquals(payload, restored);
+    }
+}
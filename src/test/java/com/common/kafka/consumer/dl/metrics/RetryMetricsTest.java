@@ -0,0 +1,56 @@
+package com.common.kafka.consumer.dl.metrics;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RetryMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RetryWorkerProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new RetryWorkerProperties();
+        properties.setMaxRetryCount(3);
+        properties.getMetrics().setMaxTopicTags(2);
+    }
+
+    @Test
+    void testTopicTag_BoundedByMaxTopicTags() {
+        // given
+        RetryMetrics retryMetrics = new RetryMetrics(meterRegistry, properties);
+
+        // when
+        retryMetrics.recordEnqueue("order-events", 0);
+        retryMetrics.recordEnqueue("payment-events", 0);
+        retryMetrics.recordEnqueue("user-events", 0);
+        retryMetrics.recordEnqueue("order-events", 1);
+
+        // then
+        assertEquals(1, meterRegistry.get("retry.enqueued").tag("topic", "other").counter().count());
+        assertEquals(2, meterRegistry.get("retry.enqueued").tag("topic", "order-events").counters().size());
+        assertEquals(3, meterRegistry.get("retry.enqueued").counters().stream().map(c -> c.getId().getTag("topic")).distinct().count());
+    }
+
+    @Test
+    void testTopicTag_AllowList() {
+        // given
+        properties.getMetrics().setTopics(List.of("payment-events"));
+        RetryMetrics retryMetrics = new RetryMetrics(meterRegistry, properties);
+
+        // when
+        retryMetrics.recordDeadLetter("order-events", 5);
+        retryMetrics.recordDeadLetter("payment-events", 5);
+
+        // then
+        assertEquals(1, meterRegistry.get("retry.dead.lettered").tags("topic", "other", "retry", "3").counter().count());
+        assertEquals(1, meterRegistry.get("retry.dead.lettered").tags("topic", "payment-events", "retry", "3").counter().count());
+    }
+}
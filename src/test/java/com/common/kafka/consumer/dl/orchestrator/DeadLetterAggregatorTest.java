@@ -0,0 +1,62 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DeadLetterAggregatorTest {
+
+    private RetryWorkerProperties properties;
+    private DeadLetterAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetryWorkerProperties();
+        properties.getDeadLetter().getAggregation().setEnabled(true);
+        aggregator = new DeadLetterAggregator(null, properties);
+    }
+
+    @Test
+    void testFingerprint_SameShapeDifferentValues() {
+        // when
+        String first = aggregator.fingerprint("order-events", "NullPointerException", "max retry count exceeded",
+                bytes("{\"orderId\":1,\"items\":[{\"sku\":\"a\"}]}"));
+        String second = aggregator.fingerprint("order-events", "NullPointerException", "max retry count exceeded",
+                bytes("{\"items\":[{\"sku\":\"b\"},{\"sku\":\"c\"}],\"orderId\":22}"));
+
+        // then
+        assertEquals(first, second);
+        assertEquals(32, first.length());
+    }
+
+    @Test
+    void testFingerprint_DifferentFailure() {
+        // when
+        String first = aggregator.fingerprint("order-events", "NullPointerException", "max retry count exceeded", bytes("{\"orderId\":1}"));
+        String otherType = aggregator.fingerprint("order-events", "TimeoutException", "max retry count exceeded", bytes("{\"orderId\":1}"));
+        String otherShape = aggregator.fingerprint("order-events", "NullPointerException", "max retry count exceeded", bytes("{\"userId\":1}"));
+
+        // then
+        assertNotEquals(first, otherType);
+        assertNotEquals(first, otherShape);
+    }
+
+    @Test
+    void testFingerprint_Disabled() {
+        // given
+        properties.getDeadLetter().getAggregation().setEnabled(false);
+
+        // when & then
+        assertNull(new DeadLetterAggregator(null, properties).fingerprint("order-events", null, "max retry count exceeded", bytes("{}")));
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
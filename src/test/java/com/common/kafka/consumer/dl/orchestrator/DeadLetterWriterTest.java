@@ -0,0 +1,132 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetter;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterJdbcRepository;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterStatus;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DeadLetterWriterTest {
+
+    private RetryWorkerProperties properties;
+    private RecordingRepository repository;
+    private DeadLetterWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetryWorkerProperties();
+        properties.getDeadLetter().setBatchSize(10);
+        properties.getDeadLetter().setFlushIntervalMs(50);
+        properties.getDeadLetter().setRetryBackoffMs(10);
+        repository = new RecordingRepository();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.shutdown();
+    }
+
+    @Test
+    void testAddAll_FlushedInOneBatch() throws Exception {
+        // given
+        writer = newWriter();
+
+        // when
+        CompletableFuture<Void> future = writer.addAll(List.of(deadLetter("User:1"), deadLetter("User:2"), deadLetter("User:3")));
+        future.get(5, TimeUnit.SECONDS);
+
+        // then
+        assertEquals(List.of(3), repository.batchSizes);
+    }
+
+    @Test
+    void testAdd_CompletesOnlyAfterFailedInsertSucceeds() throws Exception {
+        // given
+        repository.failures.set(2);
+        writer = newWriter();
+
+        // when
+        CompletableFuture<Void> future = writer.add(deadLetter("User:1"));
+        Thread.sleep(5);
+        boolean doneBeforeRetry = future.isDone();
+        future.get(5, TimeUnit.SECONDS);
+
+        // then
+        assertFalse(doneBeforeRetry);
+        assertEquals(List.of(1), repository.batchSizes);
+    }
+
+    @Test
+    void testAddAll_FailsOnlyNonTransientRow() throws Exception {
+        // given
+        writer = newWriter();
+
+        // when
+        CompletableFuture<Void> first = writer.add(deadLetter("User:1"));
+        CompletableFuture<Void> poison = writer.add(deadLetter(RecordingRepository.POISON_KEY));
+        CompletableFuture<Void> second = writer.add(deadLetter("User:2"));
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        // then
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> poison.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataIntegrityViolationException.class, ex.getCause());
+        assertEquals(List.of("User:1", "User:2"), repository.insertedKeys);
+    }
+
+    private DeadLetterWriter newWriter() {
+        DeadLetterWriter deadLetterWriter = new DeadLetterWriter(repository, new DeadLetterAggregator(repository, properties), properties, new RetryMetrics(new SimpleMeterRegistry(), properties));
+        deadLetterWriter.start();
+        return deadLetterWriter;
+    }
+
+    private KafkaDeadLetter deadLetter(String key) {
+        return KafkaDeadLetter.builder()
+                .topic("order-events")
+                .messageKey(key)
+                .payload("{\"orderId\":1}")
+                .status(KafkaDeadLetterStatus.FAILED)
+                .build();
+    }
+
+    private static class RecordingRepository extends KafkaDeadLetterJdbcRepository {
+        private static final String POISON_KEY = "User:poison";
+
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final List<String> insertedKeys = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        RecordingRepository() {
+            super(null);
+        }
+
+        @Override
+        public void insertAll(List<KafkaDeadLetter> deadLetters, int batchSize) {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("database unavailable");
+            }
+            if (deadLetters.stream().anyMatch(deadLetter -> POISON_KEY.equals(deadLetter.getMessageKey()))) {
+                throw new DataIntegrityViolationException("value too long for column");
+            }
+            batchSizes.add(deadLetters.size());
+            deadLetters.forEach(deadLetter -> insertedKeys.add(deadLetter.getMessageKey()));
+        }
+    }
+}
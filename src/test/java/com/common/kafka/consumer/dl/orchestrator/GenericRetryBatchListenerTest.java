@@ -0,0 +1,88 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GenericRetryBatchListenerTest {
+
+    @Mock
+    private RetryOrchestrator retryOrchestrator;
+
+    @Mock
+    private RetryMetrics retryMetrics;
+
+    @Mock
+    private Acknowledgment ack;
+
+    private GenericRetryBatchListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new GenericRetryBatchListener(retryOrchestrator, new RetryWorkerProperties(), retryMetrics, new KeyedExecutor((ExecutorService) null));
+    }
+
+    @Test
+    void testOnMessages_SkipsRecordsHandledBeforeNack() {
+        // given
+        ConsumerRecord<String, byte[]> first = record(0, "User:1");
+        ConsumerRecord<String, byte[]> second = record(1, "User:2");
+        ConsumerRecord<String, byte[]> third = record(2, "User:3");
+        when(retryOrchestrator.processBatch(List.of(first, second, third))).thenReturn(List.of(second));
+        when(retryOrchestrator.process(second)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("redis down")));
+        listener.onMessages(List.of(first, second, third), ack);
+        ConsumerRecord<String, byte[]> secondAgain = record(1, "User:2");
+        ConsumerRecord<String, byte[]> thirdAgain = record(2, "User:3");
+        when(retryOrchestrator.processBatch(List.of(secondAgain))).thenReturn(List.of());
+
+        // when
+        listener.onMessages(List.of(secondAgain, thirdAgain), ack);
+
+        // then
+        verify(ack).nack(1, Duration.ofMillis(new RetryWorkerProperties().getBatchNackSleepMs()));
+        verify(retryOrchestrator, never()).processBatch(List.of(secondAgain, thirdAgain));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void testOnMessages_ProcessesRecordAgainAfterAck() {
+        // given
+        ConsumerRecord<String, byte[]> first = record(0, "User:1");
+        ConsumerRecord<String, byte[]> second = record(1, "User:2");
+        when(retryOrchestrator.processBatch(any())).thenReturn(List.of(first)).thenReturn(List.of()).thenReturn(List.of());
+        when(retryOrchestrator.process(first)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("redis down")));
+        listener.onMessages(List.of(first, second), ack);
+        ConsumerRecord<String, byte[]> firstAgain = record(0, "User:1");
+        listener.onMessages(List.of(firstAgain, record(1, "User:2")), ack);
+        ConsumerRecord<String, byte[]> secondRewound = record(1, "User:2");
+
+        // when
+        listener.onMessages(List.of(secondRewound), ack);
+
+        // then
+        verify(retryOrchestrator).processBatch(List.of(firstAgain));
+        verify(retryOrchestrator).processBatch(List.of(secondRewound));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String key) {
+        return new ConsumerRecord<>(GenericRetryListener.RETRY_TOPIC, 0, offset, key, "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,108 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedExecutorTest {
+
+    private KeyedExecutor keyedExecutor;
+
+    @AfterEach
+    void tearDown() {
+        keyedExecutor.shutdown();
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void testSubmit_SameKeyInOrder() throws Exception {
+        // given
+        keyedExecutor = new KeyedExecutor(new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true"));
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            int sequence = i;
+            futures.add(keyedExecutor.submit("User:1", () -> CompletableFuture.runAsync(() -> executed.add(sequence),
+                    CompletableFuture.delayedExecutor(sequence % 3, TimeUnit.MILLISECONDS))));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertTrue(keyedExecutor.isVirtual());
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, executed);
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void testSubmit_DifferentKeysConcurrently() throws Exception {
+        // given
+        keyedExecutor = new KeyedExecutor(new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true"));
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        // when: 두 작업이 서로를 기다리므로 동시에 실행되어야만 완료
+        CompletableFuture<Boolean> first = keyedExecutor.submit("User:1", () -> CompletableFuture.completedFuture(await(bothStarted)));
+        CompletableFuture<Boolean> second = keyedExecutor.submit("User:2", () -> CompletableFuture.completedFuture(await(bothStarted)));
+
+        // then
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmit_InlineWhenDisabled() {
+        // given
+        keyedExecutor = new KeyedExecutor(new MockEnvironment());
+        Thread caller = Thread.currentThread();
+
+        // when
+        CompletableFuture<Thread> future = keyedExecutor.submit("User:1", () -> CompletableFuture.completedFuture(Thread.currentThread()));
+
+        // then
+        assertFalse(keyedExecutor.isVirtual());
+        assertEquals(caller, future.join());
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    void testSubmit_InlineBeforeJava21() {
+        // given
+        keyedExecutor = new KeyedExecutor(new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true"));
+        Thread caller = Thread.currentThread();
+
+        // when
+        CompletableFuture<Thread> future = keyedExecutor.submit("User:1", () -> CompletableFuture.completedFuture(Thread.currentThread()));
+
+        // then
+        assertFalse(keyedExecutor.isVirtual());
+        assertEquals(caller, future.join());
+    }
+
+    private boolean await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
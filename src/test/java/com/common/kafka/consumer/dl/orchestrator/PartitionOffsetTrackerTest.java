@@ -0,0 +1,75 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionOffsetTrackerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("common-retry-topic", 0);
+
+    private final PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+
+    @Test
+    void testCommittable_OnlyContiguousCompletedPrefix() {
+        // given
+        Runnable first = tracker.register(PARTITION, 10);
+        Runnable second = tracker.register(PARTITION, 11);
+        Runnable third = tracker.register(PARTITION, 12);
+
+        // when
+        second.run();
+        third.run();
+        Map<TopicPartition, OffsetAndMetadata> beforeHead = tracker.committable(List.of(PARTITION));
+        first.run();
+        Map<TopicPartition, OffsetAndMetadata> afterHead = tracker.committable(List.of(PARTITION));
+        tracker.committed(afterHead);
+        Map<TopicPartition, OffsetAndMetadata> unchanged = tracker.committable(List.of(PARTITION));
+
+        // then
+        assertEquals(10, beforeHead.get(PARTITION).offset());
+        assertEquals(13, afterHead.get(PARTITION).offset());
+        assertTrue(unchanged.isEmpty());
+        assertEquals(0, tracker.pending(PARTITION));
+    }
+
+    @Test
+    void testCommittable_ReturnedAgainUntilCommitSucceeds() {
+        // given
+        tracker.register(PARTITION, 10).run();
+        Map<TopicPartition, OffsetAndMetadata> first = tracker.committable(List.of(PARTITION));
+
+        // when: 첫 commitAsync 가 실패하여 committed 가 호출되지 않음
+        Map<TopicPartition, OffsetAndMetadata> retried = tracker.committable(List.of(PARTITION));
+        tracker.committed(retried);
+        Map<TopicPartition, OffsetAndMetadata> afterSuccess = tracker.committable(List.of(PARTITION));
+
+        // then
+        assertEquals(11, first.get(PARTITION).offset());
+        assertEquals(11, retried.get(PARTITION).offset());
+        assertTrue(afterSuccess.isEmpty());
+    }
+
+    @Test
+    void testRevoke_LateCompletionIgnoredAfterReassignment() {
+        // given
+        Runnable stale = tracker.register(PARTITION, 10);
+        tracker.register(PARTITION, 11).run();
+
+        // when
+        Map<TopicPartition, OffsetAndMetadata> revoked = tracker.revoke(List.of(PARTITION));
+        tracker.register(PARTITION, 10);
+        stale.run();
+
+        // then
+        assertEquals(10, revoked.get(PARTITION).offset());
+        assertEquals(1, tracker.pending(PARTITION));
+        assertEquals(10, tracker.committable(List.of(PARTITION)).get(PARTITION).offset());
+    }
+}
@@ -0,0 +1,224 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.constant.ResiliencyHeader;
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetter;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import com.common.kafka.consumer.dl.policy.RetryPolicyRegistry;
+import com.common.kafka.consumer.dl.policy.TopicThrottle;
+import com.common.kafka.consumer.dl.queue.RetryQueue;
+import com.common.kafka.consumer.dl.queue.ScoredRetryMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RetryOrchestratorTest {
+
+    @Mock
+    private RetryQueue retryQueue;
+
+    @Mock
+    private DeadLetterWriter deadLetterWriter;
+
+    @Mock
+    private DeadLetterAggregator deadLetterAggregator;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private RetryWorkerProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private TopicThrottle topicThrottle;
+    private RetryOrchestrator retryOrchestrator;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetryWorkerProperties();
+        properties.setMaxRetryCount(3);
+        retryOrchestrator = newOrchestrator();
+    }
+
+    @Test
+    void testProcessBatch_IdenticalRecordsEnqueuedSeparately() {
+        // given
+        List<ConsumerRecord<String, byte[]>> records = List.of(record(0, "User:1", 1), record(1, "User:1", 1));
+
+        // when
+        List<ConsumerRecord<String, byte[]>> failed = retryOrchestrator.processBatch(records);
+
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ScoredRetryMessage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(retryQueue).addAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertTrue(failed.isEmpty());
+    }
+
+    @Test
+    void testProcessBatch_ReturnsOnlyFailedRecords() {
+        // given
+        ConsumerRecord<String, byte[]> queued = record(0, "User:1", 1);
+        ConsumerRecord<String, byte[]> exhausted = record(1, "User:2", 3);
+        when(deadLetterWriter.add(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("dead letter buffer is full")));
+
+        // when
+        List<ConsumerRecord<String, byte[]>> failed = retryOrchestrator.processBatch(List.of(queued, exhausted));
+
+        // then
+        assertEquals(1, failed.size());
+        assertSame(exhausted, failed.get(0));
+    }
+
+    @Test
+    void testProcessBatch_EnqueueFailureFailsQueuedRecords() {
+        // given
+        ConsumerRecord<String, byte[]> first = record(0, "User:1", 1);
+        ConsumerRecord<String, byte[]> second = record(1, "User:2", 1);
+        ConsumerRecord<String, byte[]> exhausted = record(2, "User:3", 3);
+        when(deadLetterWriter.add(any())).thenReturn(CompletableFuture.completedFuture(null));
+        doThrow(new IllegalStateException("redis unavailable")).when(retryQueue).addAll(any());
+
+        // when
+        List<ConsumerRecord<String, byte[]>> failed = retryOrchestrator.processBatch(List.of(first, second, exhausted));
+
+        // then
+        assertEquals(List.of(first, second), failed);
+    }
+
+    @Test
+    void testProcess_PayloadPreviewFitsColumn() {
+        // given
+        properties.getAdmin().setPayloadPreviewLength(500);
+        ConsumerRecord<String, byte[]> exhausted = new ConsumerRecord<>("common-retry-topic", 0, 0, "User:1", "x".repeat(1000).getBytes(StandardCharsets.UTF_8));
+        exhausted.headers().add(new RecordHeader(ResiliencyHeader.ORIGINAL_TOPIC.getKey(), "order-events".getBytes(StandardCharsets.UTF_8)));
+        exhausted.headers().add(new RecordHeader(RetryOrchestrator.RETRY_COUNT_HEADER, "3".getBytes(StandardCharsets.UTF_8)));
+        when(deadLetterWriter.add(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // when
+        retryOrchestrator.process(exhausted).join();
+
+        // then
+        ArgumentCaptor<KafkaDeadLetter> captor = ArgumentCaptor.forClass(KafkaDeadLetter.class);
+        verify(deadLetterWriter).add(captor.capture());
+        assertEquals(KafkaDeadLetter.PAYLOAD_PREVIEW_LENGTH, captor.getValue().getPayloadPreview().length());
+    }
+
+    @Test
+    void testProcess_StringColumnsFitColumns() {
+        // given
+        ConsumerRecord<String, byte[]> exhausted = record(0, "k".repeat(500), 3);
+        exhausted.headers().add(new RecordHeader(properties.getPolicy().getExceptionHeader(), "e".repeat(500).getBytes(StandardCharsets.UTF_8)));
+        when(deadLetterWriter.add(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // when
+        retryOrchestrator.process(exhausted).join();
+
+        // then
+        ArgumentCaptor<KafkaDeadLetter> captor = ArgumentCaptor.forClass(KafkaDeadLetter.class);
+        verify(deadLetterWriter).add(captor.capture());
+        assertEquals(KafkaDeadLetter.MESSAGE_KEY_LENGTH, captor.getValue().getMessageKey().length());
+        assertEquals(KafkaDeadLetter.EXCEPTION_TYPE_LENGTH, captor.getValue().getExceptionType().length());
+    }
+
+    @Test
+    void testProcess_DropsDeadLetterThatCannotBeStored() {
+        // given
+        when(deadLetterWriter.add(any())).thenReturn(CompletableFuture.failedFuture(new DataIntegrityViolationException("value too long")));
+
+        // when
+        CompletableFuture<Void> future = retryOrchestrator.process(record(0, "User:1", 3));
+
+        // then
+        assertFalse(future.isCompletedExceptionally());
+        assertEquals(1.0, meterRegistry.get("retry.dead.letter.dropped").counter().count());
+    }
+
+    @Test
+    void testProcessBatch_DropsDeadLetterThatCannotBeStored() {
+        // given
+        when(deadLetterWriter.add(any())).thenReturn(CompletableFuture.failedFuture(new DataIntegrityViolationException("value too long")));
+
+        // when
+        List<ConsumerRecord<String, byte[]>> failed = retryOrchestrator.processBatch(List.of(record(0, "User:1", 3)));
+
+        // then
+        assertTrue(failed.isEmpty());
+    }
+
+    @Test
+    void testProcess_TierForwardCompletesWithSend() {
+        // given
+        properties.getTier().setEnabled(true);
+        properties.getTier().getDelays().put("10s", 10000L);
+        retryOrchestrator = newOrchestrator();
+        CompletableFuture<SendResult<String, byte[]>> sent = new CompletableFuture<>();
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any())).thenReturn(sent);
+
+        // when
+        CompletableFuture<Void> future = retryOrchestrator.process(record(0, "User:1", 1));
+        boolean doneBeforeSend = future.isDone();
+        sent.complete(null);
+
+        // then
+        assertFalse(doneBeforeSend);
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void testProcessBatch_HandOffNotCountedAsReturned() {
+        // given
+        ConsumerRecord<String, byte[]> returned = record(0, "User:1", 1);
+        ConsumerRecord<String, byte[]> handedOff = record(1, "User:2", 1);
+        handedOff.headers().add(new RecordHeader(RetryOrchestrator.RETRY_DUE_AT_HEADER, "1000".getBytes(StandardCharsets.UTF_8)));
+
+        // when
+        retryOrchestrator.processBatch(List.of(returned, handedOff));
+
+        // then
+        verify(topicThrottle, times(1)).recordReturned("order-events");
+    }
+
+    private RetryOrchestrator newOrchestrator() {
+        meterRegistry = new SimpleMeterRegistry();
+        RetryMetrics retryMetrics = new RetryMetrics(meterRegistry, properties);
+        topicThrottle = spy(new TopicThrottle(properties, retryMetrics));
+        return new RetryOrchestrator(properties, retryQueue, deadLetterWriter, deadLetterAggregator, kafkaTemplate, retryMetrics,
+                new RetryPolicyRegistry(properties, new MockEnvironment()), new RetryTierRouter(properties), topicThrottle);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String key, int retryCount) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("common-retry-topic", 0, offset, key, "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(new RecordHeader(ResiliencyHeader.ORIGINAL_TOPIC.getKey(), "order-events".getBytes(StandardCharsets.UTF_8)));
+        record.headers().add(new RecordHeader(RetryOrchestrator.RETRY_COUNT_HEADER, String.valueOf(retryCount).getBytes(StandardCharsets.UTF_8)));
+        return record;
+    }
+}
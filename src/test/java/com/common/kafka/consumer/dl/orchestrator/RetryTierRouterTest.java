@@ -0,0 +1,50 @@
+package com.common.kafka.consumer.dl.orchestrator;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetryTierRouterTest {
+
+    private RetryWorkerProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetryWorkerProperties();
+        properties.getTier().setEnabled(true);
+        properties.getTier().getDelays().put("10s", 10000L);
+        properties.getTier().getDelays().put("1m", 60000L);
+        properties.getTier().getDelays().put("10m", 600000L);
+    }
+
+    @Test
+    void testGetTopic_ShortestTierNotBelowDelay() {
+        // given
+        RetryTierRouter router = new RetryTierRouter(properties);
+
+        // when & then
+        assertEquals("common-retry-tier-10s", router.getTopic(1000));
+        assertEquals("common-retry-tier-10s", router.getTopic(10000));
+        assertEquals("common-retry-tier-1m", router.getTopic(10001));
+        assertEquals("common-retry-tier-1m", router.getTopic(59999));
+        assertEquals("common-retry-tier-1m", router.getTopic(60000));
+        assertEquals("common-retry-tier-10m", router.getTopic(60001));
+        assertEquals("common-retry-tier-10m", router.getTopic(3600000));
+        assertEquals(List.of("common-retry-tier-10s", "common-retry-tier-1m", "common-retry-tier-10m"), router.getTopics());
+        assertEquals(60000, router.getDelay("common-retry-tier-1m"));
+    }
+
+    @Test
+    void testConstructor_EmptyDelays() {
+        // given
+        properties.getTier().getDelays().clear();
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> new RetryTierRouter(properties));
+    }
+}
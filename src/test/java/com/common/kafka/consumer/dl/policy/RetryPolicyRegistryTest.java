@@ -0,0 +1,98 @@
+package com.common.kafka.consumer.dl.policy;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyRegistryTest {
+
+    private RetryWorkerProperties properties;
+    private MockEnvironment environment;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetryWorkerProperties();
+        properties.setDelayMs(1000);
+        properties.setMaxRetryCount(3);
+        environment = new MockEnvironment();
+    }
+
+    @Test
+    void testResolve_DefaultsToGlobalExponential() {
+        // given
+        RetryPolicyRegistry registry = new RetryPolicyRegistry(properties, environment);
+
+        // when
+        RetryPolicy policy = registry.resolve("order-events", null);
+
+        // then
+        assertEquals(3, policy.getMaxRetryCount());
+        assertEquals(1000, policy.getDelay(0, 0));
+        assertEquals(4000, policy.getDelay(2, 0));
+    }
+
+    @Test
+    void testResolve_TopicAndExceptionOverrides() {
+        // given
+        RetryWorkerProperties.PolicySpec timeout = new RetryWorkerProperties.PolicySpec();
+        timeout.setType(RetryWorkerProperties.PolicyType.FIXED);
+        timeout.setDelayMs(200L);
+
+        RetryWorkerProperties.PolicySpec topic = new RetryWorkerProperties.PolicySpec();
+        topic.setDelayMs(100L);
+        topic.setMaxDelayMs(500L);
+        topic.setMaxRetryCount(10);
+        topic.setExceptions(Map.of("java.net.SocketTimeoutException", timeout));
+        properties.getPolicy().getTopics().put("payment-events", topic);
+
+        RetryPolicyRegistry registry = new RetryPolicyRegistry(properties, environment);
+
+        // when
+        RetryPolicy topicPolicy = registry.resolve("payment-events", "java.lang.IllegalStateException");
+        RetryPolicy exceptionPolicy = registry.resolve("payment-events", "java.net.SocketTimeoutException");
+
+        // then
+        assertEquals(10, topicPolicy.getMaxRetryCount());
+        assertEquals(500, topicPolicy.getDelay(5, 0));
+        assertEquals(10, exceptionPolicy.getMaxRetryCount());
+        assertEquals(200, exceptionPolicy.getDelay(5, 0));
+    }
+
+    @Test
+    void testReload_ReplacesPolicies() {
+        // given
+        RetryPolicyRegistry registry = new RetryPolicyRegistry(properties, environment);
+        environment.setProperty("retry.worker.policy.topics.order-events.type", "fixed");
+        environment.setProperty("retry.worker.policy.topics.order-events.delay-ms", "50");
+
+        // when
+        registry.reload();
+
+        // then
+        assertEquals(50, registry.resolve("order-events", null).getDelay(3, 0));
+        assertEquals(8000, registry.resolve("user-events", null).getDelay(3, 0));
+    }
+
+    @Test
+    void testJitter_StaysWithinBounds() {
+        // given
+        RetryPolicy fullJitter = new ExponentialRetryPolicy(100, 1000, 2.0, 5, true);
+        RetryPolicy decorrelated = new DecorrelatedJitterRetryPolicy(100, 1000, 3.0, 5);
+
+        for (int i = 0; i < 1000; i++) {
+            // when
+            long full = fullJitter.getDelay(4, 0);
+            long next = decorrelated.getDelay(4, 400);
+
+            // then
+            assertTrue(full >= 0 && full <= 1000);
+            assertTrue(next >= 100 && next <= 1000);
+        }
+    }
+}
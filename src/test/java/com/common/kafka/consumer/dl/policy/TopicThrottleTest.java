@@ -0,0 +1,97 @@
+package com.common.kafka.consumer.dl.policy;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopicThrottleTest {
+
+    private RetryWorkerProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetryWorkerProperties();
+    }
+
+    @Test
+    void testAcquire_RateLimitedTopicDeferredOthersNot() {
+        // given
+        properties.getThrottle().getRateLimit().getTopics().put("order-events", 2.0);
+        TopicThrottle throttle = newThrottle();
+        long now = System.currentTimeMillis();
+
+        // when
+        long first = throttle.acquire("order-events", now);
+        long second = throttle.acquire("order-events", now);
+        long third = throttle.acquire("order-events", now);
+        long other = throttle.acquire("payment-events", now);
+
+        // then
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertEquals(now + 500, third);
+        assertEquals(0, other);
+    }
+
+    @Test
+    void testAcquire_CircuitOpensWhenRetriesKeepComingBack() {
+        // given
+        RetryWorkerProperties.CircuitBreaker circuitBreaker = properties.getThrottle().getCircuitBreaker();
+        circuitBreaker.setEnabled(true);
+        circuitBreaker.setMinimumResends(10);
+        circuitBreaker.setFailureRatio(0.8);
+        circuitBreaker.setOpenMs(60000);
+        TopicThrottle throttle = newThrottle();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            throttle.acquire("order-events", now);
+            throttle.recordReturned("order-events");
+        }
+
+        // when
+        long deferUntil = throttle.acquire("order-events", now);
+        long healthy = throttle.acquire("payment-events", now);
+
+        // then
+        assertEquals(now + 60000, deferUntil);
+        assertEquals(0, healthy);
+        assertEquals(TopicThrottle.CircuitState.OPEN, throttle.describe().get(0).getCircuitState());
+    }
+
+    @Test
+    void testAcquire_HalfOpenSendsOnlyProbes() {
+        // given
+        RetryWorkerProperties.CircuitBreaker circuitBreaker = properties.getThrottle().getCircuitBreaker();
+        circuitBreaker.setEnabled(true);
+        circuitBreaker.setMinimumResends(1);
+        circuitBreaker.setOpenMs(1000);
+        circuitBreaker.setHalfOpenProbes(2);
+        circuitBreaker.setProbeWindowMs(5000);
+        TopicThrottle throttle = newThrottle();
+        long now = System.currentTimeMillis();
+        throttle.acquire("order-events", now);
+        throttle.recordReturned("order-events");
+        throttle.acquire("order-events", now);
+
+        // when
+        long afterOpen = now + 1000;
+        long firstProbe = throttle.acquire("order-events", afterOpen);
+        long secondProbe = throttle.acquire("order-events", afterOpen);
+        long third = throttle.acquire("order-events", afterOpen);
+
+        // then
+        assertEquals(0, firstProbe);
+        assertEquals(0, secondProbe);
+        assertEquals(afterOpen + 5000, third);
+        assertTrue(throttle.describe().stream().allMatch(resource -> resource.getCircuitState() == TopicThrottle.CircuitState.HALF_OPEN));
+    }
+
+    private TopicThrottle newThrottle() {
+        return new TopicThrottle(properties, new RetryMetrics(new SimpleMeterRegistry(), properties));
+    }
+}
@@ -0,0 +1,341 @@
+package com.common.kafka.consumer.dl.queue;
+
+import com.common.kafka.consumer.dl.configuration.RedisConfiguration;
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.metrics.RetryMetrics;
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RedisRetryQueueTest {
+
+    private static final String PREFIX = "platform:retry:{0}:";
+    private static final String QUEUE_KEY = PREFIX + "queue";
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private RetryWorkerProperties properties;
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetryWorkerProperties();
+        properties.getQueue().setShardCount(1);
+        redisTemplate = new RedisConfiguration().redisTemplate(connectionFactory, properties);
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    @Test
+    void testAck_RemovesDataAndIndexes() {
+        // given
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.addAll(List.of(
+                new ScoredRetryMessage(message("order-events", "User:1"), 100),
+                new ScoredRetryMessage(message("payment-events", "User:2"), 200)));
+        List<RetryQueueEntry> drained = retryQueue.drain(QUEUE_KEY, 1000, 10, 5000);
+
+        // when
+        long acked = retryQueue.ack(QUEUE_KEY, drained);
+
+        // then
+        assertEquals(2, drained.size());
+        assertEquals(2, acked);
+        assertEquals(Set.of(PREFIX + "seq"), keys());
+    }
+
+    @Test
+    void testNack_RegistersTopicDueAgain() {
+        // given
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.add(message("order-events", "User:1"), 100);
+        List<RetryQueueEntry> drained = retryQueue.drain(QUEUE_KEY, 1000, 10, 5000);
+
+        // when
+        long nacked = retryQueue.nack(QUEUE_KEY, drained, 2000);
+
+        // then
+        assertEquals(1, nacked);
+        assertEquals(List.of("order-events"), retryQueue.getDueTopics(QUEUE_KEY, 2000, 10));
+        assertEquals(List.of("User:1"), keys(retryQueue.drainTopics(QUEUE_KEY, 2000, Map.of("order-events", 10), 5000)));
+    }
+
+    @Test
+    void testRequeueExpired_RedeliversOnlyExpiredLease() {
+        // given
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.add(message("order-events", "User:1"), 100);
+        retryQueue.drain(QUEUE_KEY, 1000, 10, 500);
+        retryQueue.add(message("order-events", "User:2"), 100);
+        retryQueue.drain(QUEUE_KEY, 1000, 10, 5000);
+
+        // when
+        long requeued = retryQueue.requeueExpired(QUEUE_KEY, 1000, 10);
+
+        // then
+        assertEquals(1, requeued);
+        assertEquals(List.of("User:1"), keys(retryQueue.drain(QUEUE_KEY, 1000, 10, 5000)));
+    }
+
+    @Test
+    void testDeleteByKey_RemovesOnlyMatchingEntries() {
+        // given
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.addAll(List.of(
+                new ScoredRetryMessage(message("order-events", "User:1"), 100),
+                new ScoredRetryMessage(message("payment-events", "User:1"), 100),
+                new ScoredRetryMessage(message("order-events", "User:2"), 100)));
+
+        // when
+        long deleted = retryQueue.deleteByKey("User:1");
+
+        // then
+        assertEquals(2, deleted);
+        assertEquals(0, retryQueue.findByKey("User:1", 10).size());
+        assertEquals(List.of("User:2"), keys(retryQueue.findByTopic("order-events", 10)));
+        assertEquals(List.of("order-events"), retryQueue.getDueTopics(QUEUE_KEY, 1000, 10));
+    }
+
+    @Test
+    void testFindByKey_ReturnsEntriesInDueOrder() {
+        // given
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.addAll(List.of(
+                new ScoredRetryMessage(message("order-events", "User:1"), 300),
+                new ScoredRetryMessage(message("payment-events", "User:1"), 100),
+                new ScoredRetryMessage(message("refund-events", "User:1"), 200)));
+
+        // when
+        List<RetryQueueEntry> found = retryQueue.findByKey("User:1", 10);
+
+        // then
+        assertEquals(List.of(100L, 200L, 300L), found.stream().map(RetryQueueEntry::score).toList());
+        assertEquals(found.stream().map(RetryQueueEntry::id).toList(), retryQueue.findByKey("User:1", 10).stream().map(RetryQueueEntry::id).toList());
+    }
+
+    @Test
+    void testDeleteAll_RemovesShardKeys() {
+        // given
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.addAll(List.of(
+                new ScoredRetryMessage(message("order-events", "User:1"), 100),
+                new ScoredRetryMessage(message("payment-events", "User:2"), 100)));
+        retryQueue.drain(QUEUE_KEY, 100, 1, 5000);
+
+        // when
+        long deleted = retryQueue.deleteAll();
+
+        // then
+        assertEquals(1, deleted);
+        assertEquals(Set.of(PREFIX + "seq"), keys());
+    }
+
+    @Test
+    void testGetDueTopics_RetriesFailedBackfill() {
+        // given
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.add(message("order-events", "User:1"), 100);
+        // 토픽별 대기열이 생기기 전에 적재된 항목처럼 due:{topic} / topics 를 지우고, backfill 이 실패하도록 같은 key 에 다른 타입을 저장
+        redisTemplate.delete(List.of(PREFIX + "due:order-events", PREFIX + "topics"));
+        redisTemplate.opsForValue().set(PREFIX + "due:order-events", "blocked");
+
+        // when
+        assertThrows(RuntimeException.class, () -> retryQueue.getDueTopics(QUEUE_KEY, 1000, 10));
+        redisTemplate.delete(PREFIX + "due:order-events");
+        List<String> dueTopics = retryQueue.getDueTopics(QUEUE_KEY, 1000, 10);
+
+        // then
+        assertEquals(List.of("order-events"), dueTopics);
+    }
+
+    @Test
+    void testAdd_CoalescesPendingEntryOfSameKey() {
+        // given
+        properties.getQueue().getCoalesceTopics().add("device-state");
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.add(message("device-state", "Device:1", "{\"v\":1}"), 200);
+
+        // when
+        retryQueue.addAll(List.of(
+                new ScoredRetryMessage(message("device-state", "Device:1", "{\"v\":2}"), 300),
+                new ScoredRetryMessage(message("device-state", "Device:2", "{\"v\":1}"), 300)));
+        List<RetryQueueEntry> drained = retryQueue.drain(QUEUE_KEY, 1000, 10, 5000);
+
+        // then
+        assertEquals(List.of("Device:1", "Device:2"), keys(drained));
+        assertEquals("{\"v\":2}", new String(drained.get(0).record().payload(), StandardCharsets.UTF_8));
+        assertEquals(200, drained.get(0).score());
+    }
+
+    @Test
+    void testAdd_DoesNotCoalesceDrainedEntry() {
+        // given
+        properties.getQueue().getCoalesceTopics().add("device-state");
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.add(message("device-state", "Device:1", "{\"v\":1}"), 100);
+        List<RetryQueueEntry> inFlight = retryQueue.drain(QUEUE_KEY, 1000, 10, 5000);
+
+        // when
+        retryQueue.add(message("device-state", "Device:1", "{\"v\":2}"), 200);
+        List<RetryQueueEntry> drained = retryQueue.drain(QUEUE_KEY, 1000, 10, 5000);
+
+        // then
+        assertEquals(1, drained.size());
+        assertEquals("{\"v\":2}", new String(drained.get(0).record().payload(), StandardCharsets.UTF_8));
+        assertEquals("{\"v\":1}", new String(inFlight.get(0).record().payload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testAdd_NotCoalescedWithoutTopic() {
+        // given
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.add(message("order-events", "User:1"), 100);
+
+        // when
+        retryQueue.add(message("order-events", "User:1"), 200);
+
+        // then
+        assertEquals(2, retryQueue.size(QUEUE_KEY));
+    }
+
+    @Test
+    void testDrainTopics_TakesPerTopicLimits() {
+        // given
+        RedisRetryQueue retryQueue = newQueue();
+        List<ScoredRetryMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            messages.add(new ScoredRetryMessage(message("whale-events", "User:" + i), 100 + i));
+        }
+        messages.add(new ScoredRetryMessage(message("small-events", "User:9"), 200));
+        retryQueue.addAll(messages);
+
+        // when
+        List<String> dueTopics = retryQueue.getDueTopics(QUEUE_KEY, 1000, 10);
+        List<RetryQueueEntry> drained = retryQueue.drainTopics(QUEUE_KEY, 1000, Map.of("whale-events", 2, "small-events", 1), 5000);
+
+        // then
+        assertEquals(List.of("whale-events", "small-events"), dueTopics);
+        assertEquals(Set.of("User:0", "User:1", "User:9"), Set.copyOf(keys(drained)));
+        assertEquals(3, retryQueue.size(QUEUE_KEY));
+    }
+
+    @Test
+    void testDrainTopics_SkipsEntriesAlreadyDrained() {
+        // given
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.add(message("order-events", "User:1"), 100);
+        // 일반 drain 은 토픽별 대기열을 정리하지 않으므로 in-flight 항목이 due:{topic} 에 남음
+        retryQueue.drain(QUEUE_KEY, 1000, 10, 5000);
+        retryQueue.add(message("order-events", "User:2"), 200);
+
+        // when
+        List<RetryQueueEntry> drained = retryQueue.drainTopics(QUEUE_KEY, 1000, Map.of("order-events", 10), 5000);
+
+        // then
+        assertEquals(List.of("User:2"), keys(drained));
+        assertEquals(0, retryQueue.drainTopics(QUEUE_KEY, 1000, Map.of("order-events", 10), 5000).size());
+    }
+
+    @Test
+    void testRetireShards_DrainsShrunkShardUntilEmpty() {
+        // given
+        properties.getQueue().setShardCount(2);
+        RedisRetryQueue previous = newQueue();
+        previous.retireShards();
+        RetryMessage message = message("order-events", "User:2");
+        previous.add(message, 100);
+        String retiredKey = previous.getShardKey(message);
+        properties.getQueue().setShardCount(1);
+
+        // when
+        RedisRetryQueue retryQueue = newQueue();
+        retryQueue.retireShards();
+        List<String> drainKeys = retryQueue.getDrainKeys();
+        List<RetryQueueEntry> found = retryQueue.findByKey("User:2", 10);
+        retryQueue.ack(retiredKey, retryQueue.drain(retiredKey, 1000, 10, 5000));
+        RedisRetryQueue restarted = newQueue();
+        restarted.retireShards();
+
+        // then
+        assertEquals("platform:retry:{1}:queue", retiredKey);
+        assertEquals(List.of(QUEUE_KEY, retiredKey), drainKeys.subList(0, 2));
+        assertEquals(List.of("User:2"), keys(found));
+        assertEquals(List.of(QUEUE_KEY), restarted.getShardKeys());
+        assertFalse(restarted.getDrainKeys().contains(retiredKey));
+        assertEquals("1", redisTemplate.execute((RedisCallback<String>) connection ->
+                new String(connection.stringCommands().get("platform:retry:shard-count".getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)));
+    }
+
+    private RedisRetryQueue newQueue() {
+        return new RedisRetryQueue(redisTemplate, properties, new RetryMetrics(new SimpleMeterRegistry(), properties));
+    }
+
+    private Set<String> keys() {
+        Set<String> keys = new TreeSet<>();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            for (byte[] key : connection.keyCommands().keys("*".getBytes(StandardCharsets.UTF_8))) {
+                keys.add(new String(key, StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        return keys;
+    }
+
+    private static List<String> keys(List<RetryQueueEntry> entries) {
+        return entries.stream().map(entry -> entry.record().key()).toList();
+    }
+
+    private static RetryMessage message(String topic, String key) {
+        return message(topic, key, "{\"id\":1}");
+    }
+
+    private static RetryMessage message(String topic, String key, String payload) {
+        return RetryMessage.builder()
+                .key(key)
+                .payload(payload.getBytes(StandardCharsets.UTF_8))
+                .originalTopic(topic)
+                .retryCount(1)
+                .build();
+    }
+}
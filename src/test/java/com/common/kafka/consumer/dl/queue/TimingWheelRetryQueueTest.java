@@ -0,0 +1,98 @@
+package com.common.kafka.consumer.dl.queue;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.common.kafka.consumer.dl.orchestrator.GenericRetryListener.RETRY_TOPIC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimingWheelRetryQueueTest {
+    private static final List<TopicPartition> PARTITION_0 = List.of(new TopicPartition(RETRY_TOPIC, 0));
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private RetryWorkerProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetryWorkerProperties();
+        properties.getQueue().getWheel().setDataDir(dir.toAbsolutePath().toString());
+        properties.getQueue().getWheel().setHandOffTimeoutMs(100);
+    }
+
+    @Test
+    void testAddAll_RejectsRecordOfUnownedPartition() {
+        // given
+        TimingWheelRetryQueue retryQueue = newQueue();
+        retryQueue.onPartitionsAssigned(PARTITION_0);
+
+        // when
+        retryQueue.add(message("User:1", 0), System.currentTimeMillis() + 60_000);
+
+        // then
+        assertThrows(ShardNotOwnedException.class, () -> retryQueue.add(message("User:2", 1), System.currentTimeMillis() + 60_000));
+        assertEquals(1, retryQueue.size("wheel:0"));
+    }
+
+    @Test
+    void testOnPartitionsRevoked_KeepsUnsentEntriesAfterDeadline() {
+        // given
+        TimingWheelRetryQueue retryQueue = newQueue();
+        retryQueue.onPartitionsAssigned(PARTITION_0);
+        retryQueue.addAll(List.of(
+                new ScoredRetryMessage(message("User:1", 0), System.currentTimeMillis() + 60_000),
+                new ScoredRetryMessage(message("User:2", 0), System.currentTimeMillis() + 60_000)));
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(new CompletableFuture<SendResult<String, byte[]>>());
+
+        // when
+        long start = System.currentTimeMillis();
+        retryQueue.onPartitionsRevoked(PARTITION_0);
+        long elapsed = System.currentTimeMillis() - start;
+        retryQueue.onPartitionsAssigned(PARTITION_0);
+
+        // then
+        assertTrue(elapsed < 5_000);
+        assertEquals(1, retryQueue.size("wheel:0"));
+    }
+
+    private TimingWheelRetryQueue newQueue() {
+        return new TimingWheelRetryQueue(kafkaTemplate, new ObjectMapper(), properties);
+    }
+
+    private static RetryMessage message(String key, int partition) {
+        return RetryMessage.builder()
+                .key(key)
+                .payload("{\"id\":1}".getBytes(StandardCharsets.UTF_8))
+                .originalTopic("order-events")
+                .retryCount(1)
+                .sourcePartition(partition)
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.common.kafka.consumer.dl.queue.codec;
+
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.common.kafka.consumer.dl.resource.RetryRecord;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryMessageRedisSerializerTest {
+
+    private JsonRetryMessageCodec jsonCodec;
+    private BinaryRetryMessageCodec binaryCodec;
+    private BinaryRetryMessageCodec lz4Codec;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper typedObjectMapper = new ObjectMapper();
+        typedObjectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY);
+        jsonCodec = new JsonRetryMessageCodec(typedObjectMapper);
+        binaryCodec = new BinaryRetryMessageCodec(new ObjectMapper(), false, 0);
+        lz4Codec = new BinaryRetryMessageCodec(new ObjectMapper(), true, 0);
+    }
+
+    @Test
+    void testBinary_RoundTrip() {
+        // given
+        RetryMessage message = message("{\"orderId\":1}");
+
+        // when
+        byte[] encoded = binaryCodec.encode(message);
+
+        // then
+        assertTrue(BinaryRetryMessageCodec.isBinary(encoded));
+        assertEquals(message, binaryCodec.decode(encoded));
+    }
+
+    @Test
+    void testBinary_Lz4RoundTrip() {
+        // given
+        RetryMessage message = message("{\"description\":\"" + "a".repeat(4096) + "\"}");
+
+        // when
+        byte[] encoded = lz4Codec.encode(message);
+
+        // then
+        assertTrue(encoded.length < binaryCodec.encode(message).length);
+        assertEquals(message, lz4Codec.decode(encoded));
+    }
+
+    @Test
+    void testSerializer_ReadsLegacyJsonEntries() {
+        // given
+        RetryMessage legacy = message(new HashMap<>(Map.of("orderId", 1)));
+        byte[] legacyBytes = jsonCodec.encode(legacy);
+        RetryMessageRedisSerializer serializer = new RetryMessageRedisSerializer(binaryCodec, binaryCodec, jsonCodec);
+
+        // when
+        Object decoded = serializer.deserialize(legacyBytes);
+
+        // then
+        assertEquals(legacy, decoded);
+        assertTrue(BinaryRetryMessageCodec.isBinary(serializer.serialize(legacy)));
+    }
+
+    @Test
+    void testDecodeRecord_KeepsPayloadAndHeaderBytes() {
+        // given
+        RetryMessage message = RetryMessage.builder()
+                .key("User:123")
+                .payload("{\"orderId\":1}".getBytes(StandardCharsets.UTF_8))
+                .originalTopic("order-events")
+                .headers(new HashMap<>(Map.of("x-original-topic", "order-events", "x-retry-count", "1")))
+                .retryCount(1)
+                .build();
+
+        // when
+        RetryRecord record = lz4Codec.decodeRecord(lz4Codec.encode(message));
+
+        // then
+        assertEquals("User:123", record.key());
+        assertEquals("order-events", record.originalTopic());
+        assertEquals(1, record.retryCount());
+        assertArrayEquals(message.getPayload(), record.payload());
+        assertEquals(message.getHeaders(), record.toRetryMessage().getHeaders());
+    }
+
+    @Test
+    void testDeserializeRecord_LegacyValueAsJsonPayload() {
+        // given
+        RetryMessage legacy = message(new HashMap<>(Map.of("orderId", 1)));
+        RetryMessageRedisSerializer serializer = new RetryMessageRedisSerializer(binaryCodec, binaryCodec, jsonCodec);
+
+        // when
+        RetryRecord fromJson = serializer.deserializeRecord(jsonCodec.encode(legacy));
+        RetryRecord fromBinary = serializer.deserializeRecord(binaryCodec.encode(legacy));
+
+        // then
+        assertEquals("{\"orderId\":1}", new String(fromJson.payload(), StandardCharsets.UTF_8));
+        assertArrayEquals(fromJson.payload(), fromBinary.payload());
+    }
+
+    private RetryMessage message(Object value) {
+        return RetryMessage.builder()
+                .key("User:123")
+                .value(value)
+                .originalTopic("order-events")
+                .headers(new HashMap<>(Map.of("x-original-topic", "order-events", "x-retry-count", "1")))
+                .retryCount(1)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.common.kafka.consumer.dl.queue.wheel;
+
+import com.common.kafka.consumer.dl.queue.RetryQueueEntry;
+import com.common.kafka.consumer.dl.queue.ScoredRetryMessage;
+import com.common.kafka.consumer.dl.queue.codec.BinaryRetryMessageCodec;
+import com.common.kafka.consumer.dl.resource.RetryMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelShardTest {
+    private static final long START = 1_000_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testDrain_OnlyDueEntries() {
+        // given
+        TimingWheelShard shard = newShard(START);
+        shard.open();
+        shard.addAll(List.of(
+                new ScoredRetryMessage(message("User:1"), START + 50),
+                new ScoredRetryMessage(message("User:2"), START + 60_000),
+                new ScoredRetryMessage(message("User:3"), START + 3_600_000)));
+
+        // when
+        List<RetryQueueEntry> early = shard.drain(START + 10, 10, START + 1000);
+        List<RetryQueueEntry> first = shard.drain(START + 100, 10, START + 1000);
+        List<RetryQueueEntry> rest = shard.drain(START + 3_600_000, 10, START + 1000);
+
+        // then
+        assertTrue(early.isEmpty());
+        assertEquals(List.of("User:1"), first.stream().map(entry -> entry.record().key()).toList());
+        assertEquals(List.of("User:2", "User:3"), rest.stream().map(entry -> entry.record().key()).toList());
+        assertEquals(0, shard.size());
+    }
+
+    @Test
+    void testNackAndLeaseExpiry_Redeliver() {
+        // given
+        TimingWheelShard shard = newShard(START);
+        shard.open();
+        shard.addAll(List.of(
+                new ScoredRetryMessage(message("User:1"), START + 20),
+                new ScoredRetryMessage(message("User:2"), START + 20)));
+        List<RetryQueueEntry> drained = shard.drain(START + 20, 10, START + 500);
+
+        // when
+        shard.nack(List.of(drained.get(0).id()), START + 1000);
+        long requeued = shard.requeueExpired(START + 500, 10);
+        List<RetryQueueEntry> redelivered = shard.drain(START + 500, 10, START + 5000);
+
+        // then
+        assertEquals(1, requeued);
+        assertEquals(List.of("User:2"), redelivered.stream().map(entry -> entry.record().key()).toList());
+        // wheel 은 bucket 단위로 만료 시각을 가지므로 head 는 due 시각보다 이를 수 있음
+        assertTrue(shard.getHeadScore() <= START + 1000);
+    }
+
+    @Test
+    void testOpen_RecoversUnackedEntries() {
+        // given
+        TimingWheelShard shard = newShard(START);
+        shard.open();
+        shard.addAll(List.of(
+                new ScoredRetryMessage(message("User:1"), START + 20),
+                new ScoredRetryMessage(message("User:2"), START + 20),
+                new ScoredRetryMessage(message("User:3"), START + 60_000)));
+        List<RetryQueueEntry> drained = shard.drain(START + 20, 10, START + 500);
+        shard.ack(List.of(drained.get(0).id()));
+        shard.close();
+
+        // when
+        TimingWheelShard recovered = newShard(START);
+        int count = recovered.open();
+
+        // then
+        assertEquals(2, count);
+        assertEquals(List.of("User:2"), recovered.drain(START + 20, 10, START + 500).stream().map(entry -> entry.record().key()).toList());
+        assertEquals(1, recovered.findByKey("User:3", 10).size());
+        assertEquals(0, recovered.findByKey("User:1", 10).size());
+    }
+
+    @Test
+    void testDeleteByTopic() {
+        // given
+        TimingWheelShard shard = newShard(START);
+        shard.open();
+        shard.addAll(List.of(
+                new ScoredRetryMessage(message("User:1"), START + 20),
+                new ScoredRetryMessage(RetryMessage.builder().key("User:2").payload(new byte[0]).originalTopic("payment-events").build(), START + 20)));
+
+        // when
+        long deleted = shard.deleteByTopic("order-events");
+
+        // then
+        assertEquals(1, deleted);
+        assertEquals(1, shard.size());
+        assertTrue(shard.findByTopic("order-events", 10).isEmpty());
+    }
+
+    @Test
+    void testAddAll_RejectsBeyondMaxEntries() {
+        // given
+        TimingWheelShard shard = newShard(START);
+        shard.open();
+        shard.addAll(List.of(
+                new ScoredRetryMessage(message("User:1"), START + 50),
+                new ScoredRetryMessage(message("User:2"), START + 50)));
+
+        // when
+        assertThrows(IllegalStateException.class, () -> shard.addAll(List.of(
+                new ScoredRetryMessage(message("User:3"), START + 50),
+                new ScoredRetryMessage(message("User:4"), START + 50))));
+
+        // then
+        assertEquals(2, shard.size());
+        assertTrue(shard.findByKey("User:3", 10).isEmpty());
+    }
+
+    private TimingWheelShard newShard(long startMs) {
+        return new TimingWheelShard(new TimingWheel(10, 8, startMs),
+                new SegmentLog(dir, 1024, false), new BinaryRetryMessageCodec(new ObjectMapper(), false, 0), 4, 3);
+    }
+
+    private RetryMessage message(String key) {
+        return RetryMessage.builder()
+                .key(key)
+                .payload("{\"orderId\":1}".getBytes(StandardCharsets.UTF_8))
+                .originalTopic("order-events")
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.common.kafka.consumer.dl.scheduler;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.queue.RetryQueueEntry;
+import com.common.kafka.consumer.dl.resource.RetryRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FairDrainPlannerTest {
+
+    private static final String QUEUE_KEY = "platform:retry:{0}:queue";
+
+    private RetryWorkerProperties.Fairness fairness;
+
+    @BeforeEach
+    void setUp() {
+        fairness = new RetryWorkerProperties().getScheduler().getFairness();
+        fairness.setEnabled(true);
+        fairness.setQuantum(5);
+    }
+
+    @Test
+    void testPlan_ContinuesRoundAcrossDrains() {
+        // given
+        FairDrainPlanner planner = new FairDrainPlanner(fairness);
+        List<String> dueTopics = List.of("whale-events", "a-events", "b-events");
+
+        // when
+        Map<String, Integer> first = planner.plan(QUEUE_KEY, dueTopics, 15);
+        planner.record(QUEUE_KEY, first, entries(first));
+        Map<String, Integer> second = planner.plan(QUEUE_KEY, dueTopics, 15);
+        planner.record(QUEUE_KEY, second, entries(second));
+        Map<String, Integer> third = planner.plan(QUEUE_KEY, dueTopics, 15);
+
+        // then
+        assertEquals(Map.of("a-events", 10, "b-events", 5), first);
+        assertEquals(Map.of("b-events", 5, "whale-events", 10), second);
+        assertEquals(List.of("a-events", "b-events"), List.copyOf(third.keySet()));
+    }
+
+    @Test
+    void testPlan_PriorityOrderAndWeights() {
+        // given
+        RetryWorkerProperties.TopicShare order = new RetryWorkerProperties.TopicShare();
+        order.setPriority(RetryWorkerProperties.Priority.HIGH);
+        RetryWorkerProperties.TopicShare audit = new RetryWorkerProperties.TopicShare();
+        audit.setPriority(RetryWorkerProperties.Priority.LOW);
+        audit.setWeight(2);
+        fairness.getTopics().put("order-events", order);
+        fairness.getTopics().put("audit-events", audit);
+        FairDrainPlanner planner = new FairDrainPlanner(fairness);
+
+        // when
+        Map<String, Integer> limits = planner.plan(QUEUE_KEY, List.of("audit-events", "member-events", "order-events"), 40);
+
+        // then
+        assertEquals(List.of("order-events", "member-events", "audit-events"), List.copyOf(limits.keySet()));
+        assertEquals(20, limits.get("order-events"));
+        assertEquals(10, limits.get("member-events"));
+        assertEquals(10, limits.get("audit-events"));
+    }
+
+    @Test
+    void testRecord_ExhaustedTopicLosesDeficit() {
+        // given
+        FairDrainPlanner planner = new FairDrainPlanner(fairness);
+        Map<String, Integer> first = planner.plan(QUEUE_KEY, List.of("a-events"), 5);
+
+        // when
+        planner.record(QUEUE_KEY, first, List.of());
+        Map<String, Integer> second = planner.plan(QUEUE_KEY, List.of("a-events"), 25);
+
+        // then
+        assertEquals(Map.of("a-events", 5), first);
+        assertEquals(Map.of("a-events", 25), second);
+    }
+
+    private static List<RetryQueueEntry> entries(Map<String, Integer> limits) {
+        List<RetryQueueEntry> entries = new ArrayList<>();
+        limits.forEach((topic, limit) -> {
+            for (int i = 0; i < limit; i++) {
+                entries.add(new RetryQueueEntry(String.valueOf(i), new RetryRecord(topic, "key-" + i, 0, new byte[0], List.of()), 0));
+            }
+        });
+        return entries;
+    }
+}
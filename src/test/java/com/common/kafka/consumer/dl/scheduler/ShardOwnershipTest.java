@@ -0,0 +1,73 @@
+package com.common.kafka.consumer.dl.scheduler;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardOwnershipTest {
+
+    @Test
+    void testAssign_BalancedAcrossMembers() {
+        // given
+        List<String> members = List.of("worker-a", "worker-b", "worker-c", "worker-d");
+
+        // when
+        Map<String, String> owners = ShardOwnership.assign(queueKeys(16), members);
+
+        // then
+        Map<String, Integer> counts = new HashMap<>();
+        owners.values().forEach(owner -> counts.merge(owner, 1, Integer::sum));
+        assertEquals(16, owners.size());
+        assertEquals(Map.of("worker-a", 4, "worker-b", 4, "worker-c", 4, "worker-d", 4), counts);
+    }
+
+    @Test
+    void testAssign_MostShardsStayWhenMemberLeaves() {
+        // given
+        List<String> keys = queueKeys(64);
+        Map<String, String> before = ShardOwnership.assign(keys, List.of("worker-a", "worker-b", "worker-c", "worker-d"));
+
+        // when
+        Map<String, String> after = ShardOwnership.assign(keys, List.of("worker-a", "worker-b", "worker-c"));
+
+        // then
+        long moved = keys.stream()
+                .filter(key -> !before.get(key).equals("worker-d"))
+                .filter(key -> !before.get(key).equals(after.get(key)))
+                .count();
+        assertTrue(moved <= 8, "too many shards moved: " + moved);
+        assertTrue(after.values().stream().noneMatch("worker-d"::equals));
+    }
+
+    @Test
+    void testAssign_NoMembers() {
+        // when & then
+        assertTrue(ShardOwnership.assign(queueKeys(16), List.of()).isEmpty());
+    }
+
+    @Test
+    void testConstructor_DrainLongerThanLease() {
+        // given
+        RetryWorkerProperties properties = new RetryWorkerProperties();
+        properties.getScheduler().setMaxDrainMs(8000);
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> new ShardOwnership(null, null, properties));
+    }
+
+    private List<String> queueKeys(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int shard = 0; shard < count; shard++) {
+            keys.add("platform:retry:{" + shard + "}:queue");
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,117 @@
+package com.common.kafka.consumer.dl.service;
+
+import com.common.kafka.consumer.dl.configuration.properties.RetryWorkerProperties;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetter;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterJdbcRepository;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterRepository;
+import com.common.kafka.consumer.dl.domain.KafkaDeadLetterStatus;
+import com.common.kafka.consumer.dl.resource.ResendJobResource;
+import com.common.kafka.consumer.dl.resource.ResendJobStatus;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaDeadLetterResendServiceTest {
+
+    @Mock
+    private KafkaDeadLetterRepository kafkaDeadLetterRepository;
+
+    @Mock
+    private KafkaDeadLetterJdbcRepository kafkaDeadLetterJdbcRepository;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private RetryWorkerProperties properties;
+    private KafkaDeadLetterResendService resendService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetryWorkerProperties();
+        properties.getResend().setMaxRunningJobs(1);
+        resendService = new KafkaDeadLetterResendService(kafkaDeadLetterRepository, kafkaDeadLetterJdbcRepository, kafkaTemplate, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        resendService.shutdown();
+    }
+
+    @Test
+    void testStart_FailsEntityWithMissingExternalPayload() throws Exception {
+        // given
+        KafkaDeadLetter entity = KafkaDeadLetter.builder()
+                .id(1L)
+                .topic("order-events")
+                .messageKey("User:1")
+                .payloadExternal(true)
+                .build();
+        when(kafkaDeadLetterRepository.findResendPage(anyLong(), anyLong(), any(), eq(KafkaDeadLetterStatus.FAILED), anyInt()))
+                .thenReturn(List.of(entity))
+                .thenReturn(List.of());
+        when(kafkaDeadLetterJdbcRepository.findExternalPayloads(List.of(1L))).thenReturn(Map.of());
+
+        // when
+        ResendJobResource job = awaitFinished(resendService.start(1L, 10L).getJobId());
+
+        // then
+        assertEquals(ResendJobStatus.COMPLETED, job.getStatus());
+        assertEquals(0, job.getSentCount());
+        assertEquals(1, job.getFailedCount());
+        verify(kafkaTemplate, never()).send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any());
+        verify(kafkaDeadLetterJdbcRepository).updateStatus(List.of(), KafkaDeadLetterStatus.RETRYING, properties.getResend().getPageSize());
+    }
+
+    @Test
+    void testStart_RejectsBeyondMaxRunningJobs() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        when(kafkaDeadLetterRepository.findResendPage(anyLong(), anyLong(), any(), eq(KafkaDeadLetterStatus.FAILED), anyInt()))
+                .thenAnswer(invocation -> {
+                    release.await(10, TimeUnit.SECONDS);
+                    return List.of();
+                });
+        String running = resendService.start(1L, 10L).getJobId();
+
+        // when
+        assertThrows(IllegalStateException.class, () -> resendService.start(11L, 20L));
+        release.countDown();
+        awaitFinished(running);
+        String next = resendService.start(11L, 20L).getJobId();
+
+        // then
+        assertEquals(ResendJobStatus.COMPLETED, awaitFinished(next).getStatus());
+    }
+
+    private ResendJobResource awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ResendJobResource job = resendService.findJob(jobId);
+        while (job.getStatus() == ResendJobStatus.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = resendService.findJob(jobId);
+        }
+        return job;
+    }
+}